@@ -0,0 +1,162 @@
+package oop.ex6.benchmark;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.regex.Pattern;
+
+/**
+ * A small benchmark harness, without dependencies. Every benchmark runs its workload repeatedly for a warm
+ * up period and then for a measured period, and reports the time, the bytes allocated by the measuring
+ * thread and the garbage collections during the measured period, per unit of work (an operation, a line,
+ * a token...). The benchmarks run on a single thread, one after the other. A memory benchmark runs its
+ * workload once and reports the heap its result retains, per unit.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class BenchmarkRunner {
+
+    private static final long WARM_UP_NANOS = 1_000_000_000L;
+    private static final long MEASURE_NANOS = 2_000_000_000L;
+    private static final String HEADER = String.format("%-48s %12s %14s %12s %8s %8s",
+            "benchmark", "ns/unit", "units/s", "B/unit", "gc", "gc ms");
+    private static final String ROW_FORMAT = "%-48s %12.2f %14.0f %12s %8d %8d";
+    private static final String ALLOCATION_FORMAT = "%.1f";
+    private static final String RETAINED_FORMAT = "%-48s %12.1f B/unit retained";
+    // the collections before reading the used heap, so the garbage of earlier benchmarks is collected.
+    private static final int COLLECTIONS = 3;
+    private static final String NOT_AVAILABLE = "n/a";
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final PrintStream out;
+    private final Pattern filter;
+    private final ThreadMXBean threads;
+    private long sink;
+
+    /**
+     * constructor.
+     * @param out the stream to print the results to.
+     * @param filter a regular expression - only the benchmarks whose names contain a match run.
+     */
+    public BenchmarkRunner(PrintStream out, String filter) {
+        this.out = out;
+        this.filter = Pattern.compile(filter);
+        this.threads = ManagementFactory.getThreadMXBean();
+        out.println(HEADER);
+    }
+
+    /**
+     * runs a benchmark whose unit of work is a single operation.
+     * @param name the name of the benchmark.
+     * @param workload the operation.
+     * @throws Exception if the operation fails.
+     */
+    public void run(String name, Workload workload) throws Exception {
+        run(name, 1, workload);
+    }
+
+    /**
+     * runs a benchmark and prints its results.
+     * @param name the name of the benchmark.
+     * @param unitsPerRun the units of work of a single run of the workload, such as the lines of a file.
+     * @param workload the operation.
+     * @throws Exception if the operation fails.
+     */
+    public void run(String name, long unitsPerRun, Workload workload) throws Exception {
+        if (!filter.matcher(name).find())
+            return;
+        runFor(WARM_UP_NANOS, workload);
+        long allocatedBefore = allocatedBytes();
+        long collectionsBefore = collections();
+        long collectionMillisBefore = collectionMillis();
+        long start = System.nanoTime();
+        long runs = runFor(MEASURE_NANOS, workload);
+        long time = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+        double units = (double) runs * unitsPerRun;
+        String allocation = allocatedBefore < 0 ? NOT_AVAILABLE :
+                String.format(ALLOCATION_FORMAT, (allocatedAfter - allocatedBefore) / units);
+        out.println(String.format(ROW_FORMAT, name, time / units, units * NANOS_PER_SECOND / time, allocation,
+                collections() - collectionsBefore, collectionMillis() - collectionMillisBefore));
+    }
+
+    /**
+     * runs a memory benchmark and prints the heap retained by the result of a single run of its workload.
+     * @param name the name of the benchmark.
+     * @param units the units of the result, such as the symbols of a table.
+     * @param workload the operation, whose result is measured.
+     * @throws Exception if the operation fails.
+     */
+    public void retained(String name, long units, Workload workload) throws Exception {
+        if (!filter.matcher(name).find())
+            return;
+        long before = usedAfterCollection();
+        Object result = workload.run();
+        long after = usedAfterCollection();
+        consume(result); // the result is reachable until the heap is measured
+        out.println(String.format(RETAINED_FORMAT, name, (after - before) / (double) units));
+    }
+
+    /**
+     * prints the value which consumed the results of the workloads, so none of them is optimized away.
+     */
+    public void finish() {
+        out.println("# " + sink);
+    }
+
+    /*
+     * runs the workload in growing batches until the time passed, returns the number of runs
+     */
+    private long runFor(long nanos, Workload workload) throws Exception {
+        long runs = 0;
+        long batch = 1;
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < nanos) {
+            for (long i = 0; i < batch; i++)
+                consume(workload.run());
+            runs += batch;
+            batch *= 2;
+        }
+        return runs;
+    }
+
+    private void consume(Object result) {
+        sink += result == null ? 0 : System.identityHashCode(result);
+    }
+
+    /*
+     * the bytes allocated by the current thread, -1 if the platform doesn't count them
+     */
+    private long allocatedBytes() {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counting = (com.sun.management.ThreadMXBean) threads;
+            if (counting.isThreadAllocatedMemorySupported() && counting.isThreadAllocatedMemoryEnabled())
+                return counting.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /*
+     * the used heap after collecting the garbage
+     */
+    private static long usedAfterCollection() {
+        for (int i = 0; i < COLLECTIONS; i++)
+            System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long collections() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+            count += Math.max(0, collector.getCollectionCount());
+        return count;
+    }
+
+    private static long collectionMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+            millis += Math.max(0, collector.getCollectionTime());
+        return millis;
+    }
+}
@@ -0,0 +1,76 @@
+package oop.ex6.benchmark;
+
+import oop.ex6.main.IncrementalValidator;
+import oop.ex6.main.SjavaVerifier;
+import oop.ex6.main.ValidationResult;
+import oop.ex6.main.ValidationState;
+import oop.ex6.parsing.DispatchClassifier;
+
+/**
+ * Measures the incremental validation of an edited file - a generated program of about 20K lines, whose
+ * method in the middle gains and loses a line on every edit. Validating an edit validates the global scope
+ * and the edited method again, so its cost is of the edit and should be far below validating the whole
+ * file, which is measured too. Before measuring, checks that both versions pass.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class IncrementalBenchmark {
+
+    private static final String ALL = "";
+    // about 20K lines of code.
+    private static final long PROGRAM_BYTES = 400 << 10;
+    private static final String LINE_SEPARATOR = "\n";
+    private static final String METHOD_PREFIX = "void ";
+    private static final String EDITED_LINE = "int incrementalBenchmarkLocal = 5;\n";
+    private static final String FAILED = "%s failed: %s";
+
+    /**
+     * runs the benchmark alone.
+     * @param args an optional regex of the benchmarks to run.
+     * @throws Exception if a benchmark fails or a version of the program doesn't pass.
+     */
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner(System.out, args.length > 0 ? args[0] : ALL);
+        run(runner);
+        runner.finish();
+    }
+
+    /**
+     * checks and runs the benchmarks of the edited file.
+     * @param runner the runner of the benchmarks.
+     * @throws Exception if a benchmark fails or a version of the program doesn't pass.
+     */
+    static void run(BenchmarkRunner runner) throws Exception {
+        String source = SampleSources.program(PROGRAM_BYTES);
+        String edited = editMiddleMethod(source);
+        int lines = SampleSources.linesOf(source);
+        SjavaVerifier verifier = new SjavaVerifier();
+        check("whole", verifier.validate(edited));
+        IncrementalValidator incremental = new IncrementalValidator(new DispatchClassifier());
+        ValidationState[] state = {incremental.validate(null, source)};
+        check("incremental", state[0].result());
+        runner.run("incremental.whole." + lines + "Lines", () -> verifier.validate(edited));
+        int[] edits = {0};
+        runner.run("incremental.editMethod." + lines + "Lines", () -> {
+            state[0] = incremental.validate(state[0], edits[0]++ % 2 == 0 ? edited : source);
+            return check("incremental edit", state[0].result());
+        });
+    }
+
+    /*
+     * the program with a declaration added as the first line of the body of its method in the middle
+     */
+    private static String editMiddleMethod(String source) {
+        int declaration = source.indexOf(LINE_SEPARATOR + METHOD_PREFIX, source.length() / 2) + 1;
+        int body = source.indexOf(LINE_SEPARATOR, declaration) + 1;
+        return source.substring(0, body) + EDITED_LINE + source.substring(body);
+    }
+
+    /*
+     * throws if the result isn't a pass
+     */
+    private static ValidationResult check(String name, ValidationResult result) {
+        if (!result.passed())
+            throw new IllegalStateException(String.format(FAILED, name, result.message()));
+        return result;
+    }
+}
@@ -0,0 +1,145 @@
+package oop.ex6.benchmark;
+
+import oop.ex6.parsing.Classifier;
+import oop.ex6.parsing.DispatchClassifier;
+import oop.ex6.parsing.LineClassifier;
+import oop.ex6.parsing.LineKind;
+import oop.ex6.parsing.RegexClassifier;
+import oop.ex6.parsing.StructureException;
+import oop.ex6.parsing.Tokenizer;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.function.IntFunction;
+
+/**
+ * Measures the classification and the tokenization of single lines of 1 MB - declarations of thousands of
+ * variables, calls with thousands of arguments, conditions of thousands of operands and adversarial lines
+ * of dots and quotes - which should take milliseconds, growing linearly with the length of the line.
+ * Before measuring, checks that the default classifier gives every long line the expected result, and
+ * the same result as the regular expressions on a short line of the same shape.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class LongLineBenchmark {
+
+    private static final String ALL = "";
+    private static final int LONG_LINE = 1 << 20;
+    private static final int SHORT_LINE = 1 << 10;
+    private static final String REJECTED = "rejected";
+    private static final String MISMATCH = "%s: expected %s but the %s classifier gave %s";
+
+    private static final String[] NAMES = {"declaration", "finalDeclaration", "methodDec", "call",
+            "condition", "assignment", "unterminatedDeclaration", "doubleComma", "dots", "quotes"};
+    private static final LineKind[] EXPECTED = {LineKind.VAR_DEC, LineKind.VAR_DEC, LineKind.METHOD_DEC,
+            LineKind.FUNC_CALL, LineKind.IF_WHILE, LineKind.ASSIGNMENT, null, null, null, null};
+
+    /**
+     * runs the benchmark alone.
+     * @param args an optional regex of the benchmarks to run.
+     * @throws Exception if a benchmark fails or a line is classified wrong.
+     */
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner(System.out, args.length > 0 ? args[0] : ALL);
+        run(runner);
+        runner.finish();
+    }
+
+    /**
+     * checks and runs the benchmarks of every long line.
+     * @param runner the runner of the benchmarks.
+     * @throws Exception if a benchmark fails or a line is classified wrong.
+     */
+    static void run(BenchmarkRunner runner) throws Exception {
+        LineClassifier dispatch = new DispatchClassifier();
+        for (int i = 0; i < NAMES.length; i++) {
+            String name = NAMES[i];
+            String line = lineOf(i, LONG_LINE);
+            check(name, EXPECTED[i], "dispatch", dispatch, line);
+            check(name, EXPECTED[i], "regex", new RegexClassifier(), lineOf(i, SHORT_LINE));
+            runner.run("longLine." + name + ".classify", () -> result(dispatch, line));
+            runner.run("longLine." + name + ".tokenize", () -> tokenize(line));
+        }
+        String number = repeated(i -> "9", "", ".5", LONG_LINE);
+        runner.run("longLine.doubleLiteral.type", () -> Classifier.type(number));
+        String string = repeated(i -> "s", "", "\"", LONG_LINE);
+        runner.run("longLine.stringLiteral.type", () -> Classifier.type(string));
+    }
+
+    /*
+     * the line of the given shape, of at least the given length
+     */
+    private static String lineOf(int shape, int length) {
+        switch (shape) {
+            case 0:
+                return "int " + repeated(i -> "a" + i + (i % 3 == 0 ? " = " + i : ""), ", ", ";", length);
+            case 1:
+                return "final String " + repeated(i -> "s" + i + " = \"v" + i + "\"", ", ", ";", length);
+            case 2:
+                return "void foo(" + repeated(i -> (i % 2 == 0 ? "final " : "") + "double p" + i, ", ",
+                        ") {", length);
+            case 3:
+                return "foo(" + repeated(i -> i % 4 == 0 ? "a" + i : i % 4 == 1 ? "-" + i + ".5" :
+                        i % 4 == 2 ? "\"s\"" : "'c'", ",", ");", length);
+            case 4:
+                return "if (" + repeated(i -> i % 3 == 0 ? "b" + i : i % 3 == 1 ? "true" : "2.5",
+                        i -> i % 2 == 0 ? "|| " : "&& ", ") {", length);
+            case 5:
+                return repeated(i -> "a" + i + " = " + i, ", ", ";", length);
+            case 6:
+                return "int " + repeated(i -> "a" + i, ", ", "", length);
+            case 7:
+                return "foo(" + repeated(i -> "a" + i, ", ", ",,);", length);
+            case 8:
+                return "a = 1" + repeated(i -> ".", "", ";", length);
+            default:
+                return "foo(" + repeated(i -> i % 2 == 0 ? "'" : "\"", " ", ");", length);
+        }
+    }
+
+    private static String repeated(IntFunction<String> item, String separator, String end, int length) {
+        return repeated(item, i -> separator, end, length);
+    }
+
+    /*
+     * the items joined by the separators, until the given length, and the end
+     */
+    private static String repeated(IntFunction<String> item, IntFunction<String> separator, String end,
+                                   int length) {
+        StringBuilder line = new StringBuilder(item.apply(0));
+        for (int i = 1; line.length() < length; i++)
+            line.append(separator.apply(i)).append(item.apply(i));
+        return line.append(end).toString();
+    }
+
+    /*
+     * throws if the classifier doesn't give the line the expected kind, null for a rejected line
+     */
+    private static void check(String name, LineKind expected, String classifierName, LineClassifier classifier,
+                              String line) {
+        Object actual = result(classifier, line);
+        Object wanted = expected == null ? REJECTED : expected;
+        if (!wanted.equals(actual))
+            throw new IllegalStateException(String.format(MISMATCH, name, wanted, classifierName, actual));
+    }
+
+    /*
+     * the kind of the line, or REJECTED if it is invalid
+     */
+    private static Object result(LineClassifier classifier, String line) {
+        try {
+            return classifier.classify(line);
+        } catch (StructureException e) {
+            return REJECTED;
+        }
+    }
+
+    private static int tokenize(String line) throws Exception {
+        Tokenizer tokenizer = new Tokenizer(new BufferedReader(new StringReader(line)));
+        int tokens = 0;
+        while (tokenizer.curCommand() != null) {
+            tokenizer.advance();
+            tokens++;
+        }
+        return tokens;
+    }
+}
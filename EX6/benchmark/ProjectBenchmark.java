@@ -0,0 +1,120 @@
+package oop.ex6.benchmark;
+
+import oop.ex6.main.ProjectValidator;
+import oop.ex6.main.ValidationResult;
+import oop.ex6.parsing.Classifier;
+import oop.ex6.parsing.DispatchClassifier;
+
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures a project of many files - a generated program split to a file of its global lines and files of
+ * its methods. Indexing the whole project validates the global scope of every file once; an update of a
+ * file of methods validates only that file, and an update which changes the global variables validates
+ * the methods of every file again over the new index. Before measuring, checks that every file passes.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class ProjectBenchmark {
+
+    private static final String ALL = "";
+    private static final long PROGRAM_BYTES = 1 << 20;
+    private static final int METHOD_FILES = 64;
+    private static final String FILE_PREFIX = "sjava-project";
+    private static final String FILE_NAME = "file%03d.sjava";
+    private static final String LINE_SEPARATOR = "\n";
+    private static final String EXTRA_GLOBAL = "int projectBenchmarkGlobal;\n";
+    private static final String FAILED = "%s failed: %s";
+
+    /**
+     * runs the benchmark alone.
+     * @param args an optional regex of the benchmarks to run.
+     * @throws Exception if a benchmark fails or a file of the project doesn't pass.
+     */
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner(System.out, args.length > 0 ? args[0] : ALL);
+        run(runner);
+        runner.finish();
+    }
+
+    /**
+     * checks and runs the benchmarks of the project.
+     * @param runner the runner of the benchmarks.
+     * @throws Exception if a benchmark fails or a file of the project doesn't pass.
+     */
+    static void run(BenchmarkRunner runner) throws Exception {
+        String source = SampleSources.program(PROGRAM_BYTES);
+        int lines = SampleSources.linesOf(source);
+        Path directory = Files.createTempDirectory(FILE_PREFIX);
+        List<Path> files = write(directory, split(source));
+        try {
+            ProjectValidator project = new ProjectValidator(new DispatchClassifier(), ForkJoinPool.commonPool());
+            check(project.update(files));
+            runner.run("project.index." + files.size() + "Files (per line)", lines, () ->
+                    new ProjectValidator(new DispatchClassifier(), ForkJoinPool.commonPool()).update(files));
+            List<Path> methods = Collections.singletonList(files.get(1));
+            runner.run("project.update.methods", () -> project.update(methods));
+            // every update of the global lines adds or removes a global variable, which every method sees
+            Path globalsFile = files.get(0);
+            byte[] globals = Files.readAllBytes(globalsFile);
+            byte[] moreGlobals = (new String(globals, Charset.defaultCharset()) + EXTRA_GLOBAL)
+                    .getBytes(Charset.defaultCharset());
+            int[] updates = {0};
+            runner.run("project.update.globals", () -> {
+                Files.write(globalsFile, updates[0]++ % 2 == 0 ? moreGlobals : globals);
+                return project.update(Collections.singletonList(globalsFile));
+            });
+        } finally {
+            for (Path file : files)
+                Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    /*
+     * splits the program to its global lines and its methods, spread over the files after the first
+     */
+    private static List<StringBuilder> split(String source) {
+        List<StringBuilder> parts = new ArrayList<>();
+        for (int i = 0; i <= METHOD_FILES; i++)
+            parts.add(new StringBuilder());
+        int scopes = 0;
+        int methods = 0;
+        for (String line : source.split(LINE_SEPARATOR)) {
+            StringBuilder part = scopes == 0 && !Classifier.isOpenScopeLine(line) ? parts.get(0) :
+                    parts.get(1 + methods % METHOD_FILES);
+            part.append(line).append(LINE_SEPARATOR);
+            if (Classifier.isOpenScopeLine(line))
+                scopes++;
+            else if (Classifier.isCloseScopeLine(line) && --scopes == 0)
+                methods++;
+        }
+        return parts;
+    }
+
+    private static List<Path> write(Path directory, List<StringBuilder> parts) throws Exception {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < parts.size(); i++) {
+            Path file = directory.resolve(String.format(FILE_NAME, i));
+            Files.write(file, parts.get(i).toString().getBytes(Charset.defaultCharset()));
+            files.add(file);
+        }
+        return files;
+    }
+
+    /*
+     * throws if a file of the project failed
+     */
+    private static void check(Map<Path, ValidationResult> results) {
+        for (Map.Entry<Path, ValidationResult> file : results.entrySet()) {
+            if (!file.getValue().passed())
+                throw new IllegalStateException(String.format(FAILED, file.getKey(), file.getValue().message()));
+        }
+    }
+}
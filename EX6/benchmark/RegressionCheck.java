@@ -0,0 +1,168 @@
+package oop.ex6.benchmark;
+
+import oop.ex6.main.SjavaVerifier;
+import oop.ex6.main.ValidationResult;
+import oop.ex6.main.ValidationState;
+import oop.ex6.parsing.RegexClassifier;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks the sources which were once validated wrong, by every mode of the verifier - the default, the
+ * regex classifier, the methods validated in parallel, a mapped file, all the errors of a read, mapped and
+ * streamed file, and streaming. Each source is written to a temporary file and every mode must give it the
+ * expected code and message, the first error being the message of all the errors.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class RegressionCheck {
+
+    private static final int ERROR_LIMIT = 100;
+    private static final long MEMORY_LIMIT = 1 << 24;
+    private static final String FILE_PREFIX = "sjava-regression";
+    private static final String FILE_SUFFIX = ".sjava";
+    private static final String MISMATCH = "%s (%s): expected %d (%s) but got %d (%s)";
+    private static final String CHECKED = "%s: %d %s";
+    private static final String DEFAULT_MODE = "default";
+    private static final String INCREMENTAL_MISMATCH = "%s, version %d: incremental %d (%s) but whole %d (%s)";
+    private static final String EDITED = "%s: %d versions";
+    // a program whose methods are edited - a method f, called by h with the global g.
+    private static final String EDITED_GLOBAL = "int g = 5;\n";
+    private static final String EDITED_F = "void f(int a) {\n    int b = a;\n    return;\n}\n";
+    private static final String EDITED_H = "void h() {\n    f(g);\n    return;\n}\n";
+
+    /**
+     * runs the checks.
+     * @param args unused.
+     * @throws Exception if a check fails.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, SjavaVerifier> modes = modes();
+        Path file = Files.createTempFile(FILE_PREFIX, FILE_SUFFIX);
+        try {
+            // a declaration of a word which isn't a type has data of no type.
+            check(modes, file, "global of no type", "intx;\n", ValidationResult.PASSED, "");
+            check(modes, file, "parameter of no type", "void m0(doublep0, int p1) {\n    return;\n}\n",
+                    ValidationResult.PASSED, "");
+            check(modes, file, "argument of no type", "int a = 5;\nintx;\nvoid m0(doublep0, int p1) {\n" +
+                    "    intx;\n    m0(a, 5);\n    return;\n}\n", ValidationResult.CONTENT_ERROR,
+                    "Mismatch of argument type given to function");
+            // the rest of the line which closes a method is a line of its own.
+            check(modes, file, "method closed before a sign", "void f() {\n  return;\n}-\n",
+                    ValidationResult.CONTENT_ERROR, "There was no match to a valid line.");
+            check(modes, file, "method closed twice", "void f() {\n  return;\n}}\nvoid g() {\n  return;\n}\n",
+                    ValidationResult.CONTENT_ERROR, "There was no match to a valid line.");
+            // a declaration of a parameter of no name reads on into the next line, in both passes.
+            check(modes, file, "declaration read into the body", "void m1(booleanp0) {\n    m2(\"s810\");\n" +
+                    "    p0 = false;\n    return;\n}\nvoid m2(String a) {\n    return;\n}\n",
+                    ValidationResult.CONTENT_ERROR, "Trying to assign a value to undeclared variable");
+            // a global line which looks like it opens a scope doesn't hide the methods after it.
+            check(modes, file, "global of a brace", "String g = \"s{1\";\nvoid f() {\n    int a = \"s\";\n" +
+                    "    return;\n}\n", ValidationResult.CONTENT_ERROR, "Global var declaration is invalid.");
+            // a call of a trailing comma reads on to the end of the file, instead of forever.
+            check(modes, file, "call of a trailing comma", "void m(int p0) {\n    m(1,);\n    return;\n}\n",
+                    ValidationResult.CONTENT_ERROR, "Number of arguments given to function doesnt match");
+            // a number which isn't the first operand of a condition is followed by its operator.
+            check(modes, file, "condition of a spaced number", "void f(int a, boolean b) {\n" +
+                    "    if (a || 5 && b) {\n    }\n    return;\n}\n", ValidationResult.CONTENT_ERROR,
+                    "There was no match to a valid line.");
+            // the bytes of a char which isn't ASCII are decoded with the default charset in every mode.
+            checkSame(modes, file, "char which isn't ASCII", "char c = '\u00e9';\n");
+            checkSame(modes, file, "string of a line terminator", "String s = \"a\u0085b\";\n");
+            // a file validated over the states of its previous versions, as --watch does.
+            checkEdits(modes.get(DEFAULT_MODE), file, "edited methods",
+                    EDITED_GLOBAL + EDITED_F + EDITED_H,
+                    // the body of h
+                    EDITED_GLOBAL + EDITED_F + EDITED_H.replace("f(g)", "f(\"s\")"),
+                    // the signature of f, which the unchanged h calls
+                    EDITED_GLOBAL + EDITED_F.replace("int", "String") + EDITED_H,
+                    // the global which h passes to f
+                    EDITED_GLOBAL.replace("int g = 5", "String g = \"s\"") + EDITED_F.replace("int", "String") +
+                            EDITED_H,
+                    // the body of f only
+                    EDITED_GLOBAL + EDITED_F.replace("int b = a", "String b = a") + EDITED_H,
+                    // a method which isn't closed, so the file is validated as a whole
+                    EDITED_GLOBAL + EDITED_F + EDITED_H.replace("    return;\n}\n", ""),
+                    EDITED_GLOBAL + EDITED_F + EDITED_H);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /*
+     * the verifiers of the modes, by their names
+     */
+    private static Map<String, SjavaVerifier> modes() {
+        Map<String, SjavaVerifier> modes = new LinkedHashMap<>();
+        modes.put(DEFAULT_MODE, new SjavaVerifier());
+        modes.put("regex", new SjavaVerifier().withClassifier(new RegexClassifier()));
+        modes.put("parallel", new SjavaVerifier().withPool(ForkJoinPool.commonPool()));
+        modes.put("mapped", new SjavaVerifier().withMapping(true));
+        modes.put("all errors", new SjavaVerifier().withDiagnostics(ERROR_LIMIT));
+        modes.put("all errors mapped", new SjavaVerifier().withDiagnostics(ERROR_LIMIT).withMapping(true));
+        modes.put("all errors streaming", new SjavaVerifier().withDiagnostics(ERROR_LIMIT)
+                .withStreaming(MEMORY_LIMIT));
+        modes.put("streaming", new SjavaVerifier().withStreaming(MEMORY_LIMIT));
+        return modes;
+    }
+
+    /*
+     * writes the source to the file and throws if a mode doesn't give it the expected code and message
+     */
+    private static void check(Map<String, SjavaVerifier> modes, Path file, String name, String source,
+                              int code, String message) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, Charset.defaultCharset())) {
+            out.write(source);
+        }
+        expect(modes, file, name, code, message);
+    }
+
+    /*
+     * throws if a mode doesn't give the file the expected code and message
+     */
+    private static void expect(Map<String, SjavaVerifier> modes, Path file, String name, int code, String message) {
+        for (Map.Entry<String, SjavaVerifier> mode : modes.entrySet()) {
+            ValidationResult result = mode.getValue().validate(file);
+            if (result.code() != code || !message.equals(result.message()))
+                throw new IllegalStateException(String.format(MISMATCH, name, mode.getKey(), code, message,
+                        result.code(), result.message()));
+        }
+        System.out.println(String.format(CHECKED, name, code, message));
+    }
+
+    /*
+     * writes the source to the file in UTF-8 and throws if a mode doesn't give it the result of the default mode,
+     * which depends on the default charset
+     */
+    private static void checkSame(Map<String, SjavaVerifier> modes, Path file, String name, String source)
+            throws IOException {
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+        ValidationResult expected = modes.get(DEFAULT_MODE).validate(file);
+        expect(modes, file, name, expected.code(), expected.message());
+    }
+
+    /*
+     * writes the versions to the file one after the other, and throws if the result of validating a version
+     * over the state of the previous one isn't the result of validating it as a whole
+     */
+    private static void checkEdits(SjavaVerifier verifier, Path file, String name, String... versions)
+            throws IOException {
+        ValidationState state = null;
+        for (int i = 0; i < versions.length; i++) {
+            Files.write(file, versions[i].getBytes(Charset.defaultCharset()));
+            state = verifier.validate(state, file);
+            ValidationResult whole = verifier.validate(file);
+            if (state.result().code() != whole.code() || !state.result().message().equals(whole.message()))
+                throw new IllegalStateException(String.format(INCREMENTAL_MISMATCH, name, i, state.result().code(),
+                        state.result().message(), whole.code(), whole.message()));
+        }
+        System.out.println(String.format(EDITED, name, versions.length));
+    }
+}
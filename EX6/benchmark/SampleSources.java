@@ -0,0 +1,61 @@
+package oop.ex6.benchmark;
+
+import oop.ex6.corpus.GeneratorConfig;
+import oop.ex6.corpus.ProgramGenerator;
+import oop.ex6.parsing.LineKind;
+
+/**
+ * Sources of sjava code for the benchmarks - a sample line of every line kind, and legal generated
+ * programs of any size.
+ * @author Yotam Suliman and Edan Topper.
+ */
+class SampleSources {
+
+    private static final long SEED = 12;
+    private static final char LINE_SEPARATOR = '\n';
+
+    /**
+     *
+     * @param kind a kind of line.
+     * @return a legal line of the kind.
+     */
+    static String lineOf(LineKind kind) {
+        switch (kind) {
+            case METHOD_DEC:
+                return "void foo(int x, final String y, double z) {";
+            case VAR_DEC:
+                return "final int a = 5, b = a, c = -3;";
+            case IF_WHILE:
+                return "while (flag || x && 2.5 || true) {";
+            case FUNC_CALL:
+                return "foo(a,\"s\",'c',2.5,b);";
+            case ASSIGNMENT:
+                return "a = 5, b = c, s = \"str\";";
+            default:
+                return "return;";
+        }
+    }
+
+    /**
+     *
+     * @param bytes the size of the program.
+     * @return a legal generated program of about the given size - the same program in every run.
+     */
+    static String program(long bytes) {
+        return new ProgramGenerator(new GeneratorConfig().targetBytes(bytes), SEED).generate(null);
+    }
+
+    /**
+     *
+     * @param source a program.
+     * @return the number of lines of the program.
+     */
+    static int linesOf(String source) {
+        int lines = 0;
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == LINE_SEPARATOR)
+                lines++;
+        }
+        return lines;
+    }
+}
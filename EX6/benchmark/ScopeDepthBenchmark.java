@@ -0,0 +1,67 @@
+package oop.ex6.benchmark;
+
+import oop.ex6.parsing.Type;
+import oop.ex6.symbol_table.SymbolTableManager;
+
+/**
+ * Measures the cost of looking up identifiers in the symbol table manager at growing depths of scopes -
+ * a variable of the innermost scope, a global variable and a literal which misses every scope, and the
+ * cost of opening and closing a scope. The costs should stay the same at every depth.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class ScopeDepthBenchmark {
+
+    private static final int[] DEPTHS = {1, 10, 100, 1000, 10000};
+    private static final String ALL = "";
+    private static final String GLOBAL_VAR = "global";
+    private static final String LITERAL = "5";
+    private static final String LOCAL_PREFIX = "local";
+    private static final Type TYPE = Type.INT;
+
+    /**
+     * runs the benchmark alone.
+     * @param args an optional regex of the benchmarks to run.
+     * @throws Exception if a benchmark fails.
+     */
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner(System.out, args.length > 0 ? args[0] : ALL);
+        run(runner);
+        runner.finish();
+    }
+
+    /**
+     * runs the benchmarks of every depth.
+     * @param runner the runner of the benchmarks.
+     * @throws Exception if a benchmark fails.
+     */
+    static void run(BenchmarkRunner runner) throws Exception {
+        for (int depth : DEPTHS) {
+            SymbolTableManager manager = nestedScopes(depth);
+            String local = depth == 1 ? GLOBAL_VAR : LOCAL_PREFIX + (depth - 1);
+            runner.run("symbols.depth" + depth + ".local", () -> manager.getVarData(local));
+            runner.run("symbols.depth" + depth + ".global", () -> manager.getVarData(GLOBAL_VAR));
+            runner.run("symbols.depth" + depth + ".literal", () -> manager.getVarData(LITERAL));
+            runner.run("symbols.depth" + depth + ".isOnCurrentScope", () -> manager.isOnCurrentScope(local));
+            runner.run("symbols.depth" + depth + ".openAddClose", () -> {
+                manager.openScope();
+                manager.add(local, TYPE, false, true);
+                manager.closeScope();
+                return manager;
+            });
+        }
+    }
+
+    /*
+     * a manager with the given depth of scopes, each declaring a variable
+     */
+    private static SymbolTableManager nestedScopes(int depth) {
+        SymbolTableManager manager = new SymbolTableManager();
+        manager.openScope();
+        manager.add(GLOBAL_VAR, TYPE, false, true);
+        for (int i = 1; i < depth; i++) {
+            manager.openScope();
+            manager.add(LOCAL_PREFIX + i, TYPE, false, true);
+        }
+        return manager;
+    }
+}
@@ -0,0 +1,141 @@
+package oop.ex6.benchmark;
+
+import oop.ex6.corpus.Defect;
+import oop.ex6.corpus.GeneratorConfig;
+import oop.ex6.corpus.ProgramGenerator;
+import oop.ex6.main.ValidationResult;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures the time from launching Sjavac on a small file to its exit, under every launcher of a directory
+ * built by build/build.sh - the jar on the JVM, the jar over the AppCDS archive, each of them with the
+ * client compiler only too, and the native image if it was built. Every launch is checked to print the
+ * result code of the file, for a legal file and for a file of an error.
+ * Usage: StartupBenchmark directory [regex of the benchmarks to run].
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class StartupBenchmark {
+
+    private static final String ALL = "";
+    private static final long SEED = 24;
+    private static final long PROGRAM_BYTES = 2048;
+    private static final Defect DEFECT = Defect.UNKNOWN_METHOD;
+    private static final String JAR = "sjavac.jar";
+    private static final String ARCHIVE = "sjavac.jsa";
+    private static final String NATIVE_IMAGE = "sjavac";
+    private static final String ARCHIVE_OPTION = "-XX:SharedArchiveFile=";
+    private static final String CLIENT_COMPILER_OPTION = "-XX:TieredStopAtLevel=1";
+    private static final String JAR_OPTION = "-jar";
+    private static final String FILE_PREFIX = "sjava-startup";
+    private static final String FILE_SUFFIX = ".sjava";
+    private static final String USAGE = "Usage: StartupBenchmark directory [regex of the benchmarks to run]";
+    private static final String MISSING = "%s wasn't found, so the %s launchers aren't measured";
+    private static final String MISMATCH = "%s: expected %d but printed %s";
+
+    /**
+     * runs the benchmark.
+     * @param args the directory built by build/build.sh, and an optional regex of the benchmarks to run.
+     * @throws Exception if a benchmark fails or a launch prints another result.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println(USAGE);
+            return;
+        }
+        BenchmarkRunner runner = new BenchmarkRunner(System.out, args.length > 1 ? args[1] : ALL);
+        run(runner, Paths.get(args[0]));
+        runner.finish();
+    }
+
+    /**
+     * checks and runs the benchmarks of every launcher of the directory.
+     * @param runner the runner of the benchmarks.
+     * @param directory the directory built by build/build.sh.
+     * @throws Exception if a benchmark fails or a launch prints another result.
+     */
+    static void run(BenchmarkRunner runner, Path directory) throws Exception {
+        GeneratorConfig config = new GeneratorConfig().targetBytes(PROGRAM_BYTES);
+        Path legal = write(new ProgramGenerator(config, SEED).generate(null));
+        Path error = write(new ProgramGenerator(config, SEED).generate(DEFECT));
+        try {
+            String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            String jar = directory.resolve(JAR).toString();
+            Path archive = directory.resolve(ARCHIVE);
+            Path nativeImage = directory.resolve(NATIVE_IMAGE);
+            launch(runner, "startup.jvm", Arrays.asList(java, JAR_OPTION, jar), legal, error);
+            launch(runner, "startup.jvm.c1", Arrays.asList(java, CLIENT_COMPILER_OPTION, JAR_OPTION, jar), legal,
+                    error);
+            if (Files.exists(archive)) {
+                String archiveOption = ARCHIVE_OPTION + archive;
+                launch(runner, "startup.appcds", Arrays.asList(java, archiveOption, JAR_OPTION, jar), legal,
+                        error);
+                launch(runner, "startup.appcds.c1", Arrays.asList(java, archiveOption, CLIENT_COMPILER_OPTION,
+                        JAR_OPTION, jar), legal, error);
+            } else
+                System.out.println(String.format(MISSING, archive, "AppCDS"));
+            if (Files.isExecutable(nativeImage))
+                launch(runner, "startup.native", Arrays.asList(nativeImage.toString()), legal, error);
+            else
+                System.out.println(String.format(MISSING, nativeImage, "native image"));
+        } finally {
+            Files.deleteIfExists(legal);
+            Files.deleteIfExists(error);
+        }
+    }
+
+    private static Path write(String source) throws IOException {
+        Path file = Files.createTempFile(FILE_PREFIX, FILE_SUFFIX);
+        Files.write(file, source.getBytes(Charset.defaultCharset()));
+        return file;
+    }
+
+    /*
+     * checks and runs the launches of the command on the legal file and on the file of an error
+     */
+    private static void launch(BenchmarkRunner runner, String name, List<String> command, Path legal, Path error)
+            throws Exception {
+        List<String> legalCommand = commandOf(command, legal);
+        List<String> errorCommand = commandOf(command, error);
+        check(name, ValidationResult.PASSED, launch(legalCommand));
+        check(name, ValidationResult.CONTENT_ERROR, launch(errorCommand));
+        runner.run(name + ".legal (per launch)", () -> launch(legalCommand));
+        runner.run(name + ".error (per launch)", () -> launch(errorCommand));
+    }
+
+    private static List<String> commandOf(List<String> command, Path file) {
+        List<String> withFile = new ArrayList<>(command);
+        withFile.add(file.toString());
+        return withFile;
+    }
+
+    /*
+     * launches the command and waits for its exit, returning the first line it printed - the result code
+     */
+    private static String launch(List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        String code;
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                Charset.defaultCharset()))) {
+            code = out.readLine();
+            while (out.readLine() != null)
+                ;
+        }
+        process.waitFor();
+        return code;
+    }
+
+    private static void check(String name, int code, String printed) {
+        if (!String.valueOf(code).equals(printed))
+            throw new IllegalStateException(String.format(MISMATCH, name, code, printed));
+    }
+}
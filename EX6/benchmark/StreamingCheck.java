@@ -0,0 +1,102 @@
+package oop.ex6.benchmark;
+
+import oop.ex6.corpus.Defect;
+import oop.ex6.corpus.GeneratorConfig;
+import oop.ex6.corpus.ProgramGenerator;
+import oop.ex6.main.SjavaVerifier;
+import oop.ex6.main.ValidationResult;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Checks that streaming validates files larger than the heap within its memory limit - run it with a small
+ * heap, such as java -Xmx32m. Writes a legal generated program of four times the heap, line by line, to a
+ * temporary file and checks that it passes within half of the heap. Then checks that a program with a
+ * defect fails with the error of the defect, and that a file of too many global variables and a file of a
+ * too long line are file errors instead of running out of memory.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class StreamingCheck {
+
+    private static final long SEED = 21;
+    private static final long HEAP_MULTIPLE = 4;
+    private static final long HEAP_SHARE = 2;
+    // long methods, so the signatures of the methods are few for the size of the program.
+    private static final int STATEMENTS = 1000;
+    private static final long DEFECT_PROGRAM_BYTES = 1 << 20;
+    // the bytes of the memory limit per global variable of the file of too many variables.
+    private static final long GLOBAL_BYTES = 64;
+    // the characters of the too long line per byte of the memory limit.
+    private static final long LINE_CHARS_SHARE = 16;
+    private static final String FILE_PREFIX = "sjava-streaming";
+    private static final String FILE_SUFFIX = ".sjava";
+    private static final String STREAMED = "streamed %d bytes with a heap of %d bytes in %d ms";
+    private static final String MISMATCH = "%s: expected %d (%s) but got %d (%s)";
+
+    /**
+     * runs the checks.
+     * @param args an optional size of the large program in bytes, four times the heap by default.
+     * @throws Exception if a check fails.
+     */
+    public static void main(String[] args) throws Exception {
+        long heap = Runtime.getRuntime().maxMemory();
+        long bytes = args.length > 0 ? Long.parseLong(args[0]) : heap * HEAP_MULTIPLE;
+        SjavaVerifier verifier = new SjavaVerifier().withStreaming(heap / HEAP_SHARE);
+        GeneratorConfig config = new GeneratorConfig().statements(STATEMENTS).targetBytes(bytes);
+        Path file = Files.createTempFile(FILE_PREFIX, FILE_SUFFIX);
+        try {
+            write(file, out -> new ProgramGenerator(config, SEED).write(out, null));
+            long start = System.nanoTime();
+            check("large program", ValidationResult.PASSED, null, verifier.validate(file));
+            System.out.println(String.format(STREAMED, Files.size(file), heap,
+                    (System.nanoTime() - start) / 1000000));
+            Defect defect = Defect.UNINITIALIZED_VALUE;
+            GeneratorConfig defectConfig = new GeneratorConfig().targetBytes(DEFECT_PROGRAM_BYTES);
+            write(file, out -> new ProgramGenerator(defectConfig, SEED).write(out, defect));
+            check(defect.name(), ValidationResult.CONTENT_ERROR, defect.message(), verifier.validate(file));
+            long globals = heap / HEAP_SHARE / GLOBAL_BYTES;
+            write(file, out -> {
+                for (long i = 0; i < globals; i++)
+                    out.write("int g" + i + ";\n");
+            });
+            check("too many globals", ValidationResult.FILE_ERROR, null, verifier.validate(file));
+            long lineLength = heap / HEAP_SHARE / LINE_CHARS_SHARE;
+            write(file, out -> {
+                out.write("int a = 1");
+                for (long i = 0; i < lineLength; i++)
+                    out.write(" + 1");
+                out.write(";\n");
+            });
+            check("too long line", ValidationResult.FILE_ERROR, null, verifier.validate(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /*
+     * the writing of a file
+     */
+    private interface Content {
+        void write(Writer out) throws IOException;
+    }
+
+    private static void write(Path file, Content content) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, Charset.defaultCharset())) {
+            content.write(out);
+        }
+    }
+
+    /*
+     * throws if the result isn't of the expected code, or of the expected message if there is one
+     */
+    private static void check(String name, int code, String message, ValidationResult result) {
+        if (result.code() != code || (message != null && !message.equals(result.message())))
+            throw new IllegalStateException(String.format(MISMATCH, name, code, message, result.code(),
+                    result.message()));
+        System.out.println(name + ": " + result.code() + (result.passed() ? "" : " " + result.message()));
+    }
+}
@@ -0,0 +1,147 @@
+package oop.ex6.benchmark;
+
+import oop.ex6.parsing.Type;
+import oop.ex6.symbol_table.SymbolTableManager;
+import oop.ex6.symbol_table.VarData;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the global scope of files of many global variables - the heap retained per variable, the time
+ * to declare the variables and the time to look them up in a random order - of the symbol table manager,
+ * whose identifiers are interned by open addressing and whose data is packed to a byte, against a HashMap
+ * of the names to a VarData of every variable. Before measuring, checks that both give every variable the
+ * same data, and that setting a variable of the manager as initialized changes only its initialized data.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class SymbolTableBenchmark {
+
+    private static final String ALL = "";
+    private static final long SEED = 22;
+    private static final int[] SIZES = {10000, 100000, 1000000};
+    private static final String NAME_PREFIX = "g";
+    private static final Type[] TYPES = Type.values();
+    private static final int FINAL_ONE_IN = 3;
+    private static final int INITIALIZED_ONE_IN = 2;
+    private static final String MISMATCH = "%s: the map has %s but the manager has %s";
+    private static final String NOT_INITIALIZED = "%s: has %s after it was set as initialized";
+
+    /**
+     * runs the benchmark alone.
+     * @param args an optional regex of the benchmarks to run.
+     * @throws Exception if a benchmark fails or the tables differ.
+     */
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner(System.out, args.length > 0 ? args[0] : ALL);
+        run(runner);
+        runner.finish();
+    }
+
+    /**
+     * checks and runs the benchmarks of every size.
+     * @param runner the runner of the benchmarks.
+     * @throws Exception if a benchmark fails or the tables differ.
+     */
+    static void run(BenchmarkRunner runner) throws Exception {
+        for (int size : SIZES) {
+            String[] names = namesOf(size);
+            Map<String, VarData> map = mapOf(names);
+            SymbolTableManager manager = managerOf(names);
+            check(names, map, manager);
+            List<String> lookups = Arrays.asList(names.clone());
+            Collections.shuffle(lookups, new Random(SEED));
+            runner.retained("symbols.memory.hashMap." + size + " (per symbol)", size, () -> mapOf(namesOf(size)));
+            runner.retained("symbols.memory.packed." + size + " (per symbol)", size,
+                    () -> managerOf(namesOf(size)));
+            runner.run("symbols.declare.hashMap." + size + " (per symbol)", size, () -> mapOf(names));
+            runner.run("symbols.declare.packed." + size + " (per symbol)", size, () -> managerOf(names));
+            runner.run("symbols.lookup.hashMap." + size + " (per symbol)", size, () -> {
+                int initialized = 0;
+                for (String name : lookups)
+                    initialized += map.get(name).initialized() ? 1 : 0;
+                return initialized;
+            });
+            runner.run("symbols.lookup.packed." + size + " (per symbol)", size, () -> {
+                int initialized = 0;
+                for (String name : lookups)
+                    initialized += manager.getVarData(name).initialized() ? 1 : 0;
+                return initialized;
+            });
+        }
+    }
+
+    /*
+     * new names of the given number of variables
+     */
+    private static String[] namesOf(int size) {
+        String[] names = new String[size];
+        for (int i = 0; i < size; i++)
+            names[i] = NAME_PREFIX + i;
+        return names;
+    }
+
+    /*
+     * the global scope as a HashMap of a new VarData for every variable
+     */
+    private static Map<String, VarData> mapOf(String[] names) {
+        Map<String, VarData> map = new HashMap<>();
+        for (int i = 0; i < names.length; i++)
+            map.put(names[i], new VarData(typeOf(i), isFinal(i), isInitialized(i)));
+        return map;
+    }
+
+    /*
+     * the global scope of a symbol table manager
+     */
+    private static SymbolTableManager managerOf(String[] names) {
+        SymbolTableManager manager = new SymbolTableManager();
+        manager.openScope();
+        for (int i = 0; i < names.length; i++)
+            manager.add(names[i], typeOf(i), isFinal(i), isInitialized(i));
+        return manager;
+    }
+
+    private static Type typeOf(int variable) {
+        return TYPES[variable % TYPES.length];
+    }
+
+    private static boolean isFinal(int variable) {
+        return variable % FINAL_ONE_IN == 0;
+    }
+
+    private static boolean isInitialized(int variable) {
+        return variable % INITIALIZED_ONE_IN == 0;
+    }
+
+    /*
+     * throws if a variable has other data in the map and in the manager
+     */
+    private static void check(String[] names, Map<String, VarData> map, SymbolTableManager manager) {
+        for (String name : names) {
+            VarData expected = map.get(name);
+            VarData actual = manager.getVarData(name);
+            if (actual == null || expected.type() != actual.type() || expected.isFinal() != actual.isFinal() ||
+                    expected.initialized() != actual.initialized())
+                throw new IllegalStateException(String.format(MISMATCH, name, describe(expected),
+                        describe(actual)));
+        }
+        SymbolTableManager initialized = managerOf(names);
+        for (String name : names) {
+            VarData before = initialized.getVarData(name);
+            initialized.setInitialized(initialized.idOf(name));
+            VarData after = initialized.getVarData(name);
+            if (after.type() != before.type() || after.isFinal() != before.isFinal() || !after.initialized())
+                throw new IllegalStateException(String.format(NOT_INITIALIZED, name, describe(after)));
+        }
+    }
+
+    private static String describe(VarData varData) {
+        return varData == null ? null : varData.type() + (varData.isFinal() ? " final" : "") +
+                (varData.initialized() ? " initialized" : "");
+    }
+}
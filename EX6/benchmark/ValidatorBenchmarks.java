@@ -0,0 +1,231 @@
+package oop.ex6.benchmark;
+
+import oop.ex6.main.Validator;
+import oop.ex6.parsing.CachingClassifier;
+import oop.ex6.parsing.Classifier;
+import oop.ex6.parsing.DispatchClassifier;
+import oop.ex6.parsing.LineClassifier;
+import oop.ex6.parsing.LineKind;
+import oop.ex6.parsing.ProgramIr;
+import oop.ex6.parsing.RegexClassifier;
+import oop.ex6.parsing.SourceIndex;
+import oop.ex6.parsing.StructureException;
+import oop.ex6.parsing.Tokenizer;
+import oop.ex6.parsing.Type;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+
+/**
+ * The benchmarks of the verifier - the tokenizer, the classifiers per line kind, the types of literals,
+ * lines of 1 MB, the symbol lookup at growing depths, the memory of global scopes of many variables, the
+ * whole validation of small, medium and huge files and through a line cache, the parsing of a file to its
+ * IR, reading the IR back and validating over it, the structural index of a file and validating over it,
+ * a project of many files, and validating an edit of a single method of a large file incrementally.
+ * Usage: ValidatorBenchmarks [regex] - runs only the benchmarks whose names contain a match of the regex.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class ValidatorBenchmarks {
+
+    private static final String ALL = "";
+    private static final long SMALL_BYTES = 1 << 10;
+    private static final long MEDIUM_BYTES = 100 << 10;
+    private static final long HUGE_BYTES = 10 << 20;
+    private static final String[] LITERALS = {"5", "-2.5", "true", "\"s\"", "'c'", "name"};
+    private static final int LINE_CACHE_ENTRIES = 4096;
+    private static final String LINE_SEPARATOR = "\n";
+    private static final String ILLEGAL_LINES = "int a = ;\nfoo(;\nreturn\nif (a ||) {\nvoid 1f() {\n";
+    private static final String CACHE_MISMATCH = "%s: the classifier gives %s but the cache gives %s";
+
+    /**
+     * runs the benchmarks.
+     * @param args an optional regex of the benchmarks to run.
+     * @throws Exception if a benchmark fails.
+     */
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner(System.out, args.length > 0 ? args[0] : ALL);
+        tokenizer(runner);
+        classifiers(runner);
+        types(runner);
+        LongLineBenchmark.run(runner);
+        ScopeDepthBenchmark.run(runner);
+        SymbolTableBenchmark.run(runner);
+        validation(runner);
+        lineCache(runner);
+        ir(runner);
+        index(runner);
+        ProjectBenchmark.run(runner);
+        IncrementalBenchmark.run(runner);
+        runner.finish();
+    }
+
+    /*
+     * the throughput of the tokenizer, per token and per line
+     */
+    private static void tokenizer(BenchmarkRunner runner) throws Exception {
+        String source = SampleSources.program(MEDIUM_BYTES);
+        int tokens = countTokens(source);
+        runner.run("tokenizer.advance (per token)", tokens, () -> {
+            Tokenizer tokenizer = new Tokenizer(new BufferedReader(new StringReader(source)));
+            while (tokenizer.curCommand() != null)
+                tokenizer.advance();
+            return tokenizer;
+        });
+        runner.run("tokenizer.advanceLine (per line)", SampleSources.linesOf(source), () -> {
+            Tokenizer tokenizer = new Tokenizer(new BufferedReader(new StringReader(source)));
+            while (tokenizer.curCommand() != null)
+                tokenizer.advanceLine();
+            return tokenizer;
+        });
+    }
+
+    /*
+     * the classification of a line of every kind, by both classifiers and by a cache of the regular
+     * expressions, which answers the repeated line from the cache
+     */
+    private static void classifiers(BenchmarkRunner runner) throws Exception {
+        LineClassifier[] classifiers = {new RegexClassifier(), new DispatchClassifier(),
+                new CachingClassifier(new RegexClassifier(), LINE_CACHE_ENTRIES)};
+        String[] names = {"regex", "dispatch", "cachedRegex"};
+        for (int i = 0; i < classifiers.length; i++) {
+            LineClassifier classifier = classifiers[i];
+            for (LineKind kind : LineKind.values()) {
+                String line = SampleSources.lineOf(kind);
+                runner.run("classify." + names[i] + "." + kind, () -> classifier.classify(line));
+            }
+        }
+    }
+
+    /*
+     * the type of a literal and the assignability of types
+     */
+    private static void types(BenchmarkRunner runner) throws Exception {
+        runner.run("classifier.type (per literal)", LITERALS.length, () -> {
+            Type last = null;
+            for (String literal : LITERALS)
+                last = Classifier.type(literal);
+            return last;
+        });
+        Type[] types = Type.values();
+        runner.run("classifier.matchTypes (per pair)", types.length * types.length, () -> {
+            int matches = 0;
+            for (Type from : types) {
+                for (Type to : types) {
+                    if (Classifier.matchTypes(from, to))
+                        matches++;
+                }
+            }
+            return matches == 0 ? null : types;
+        });
+    }
+
+    /*
+     * the whole validation of files of growing sizes, per line
+     */
+    private static void validation(BenchmarkRunner runner) throws Exception {
+        long[] sizes = {SMALL_BYTES, MEDIUM_BYTES, HUGE_BYTES};
+        String[] names = {"small", "medium", "huge"};
+        for (int i = 0; i < sizes.length; i++) {
+            String source = SampleSources.program(sizes[i]);
+            runner.run("validator.run." + names[i] + " (per line)", SampleSources.linesOf(source), () -> {
+                Validator validator = new Validator(new BufferedReader(new StringReader(source)));
+                validator.run();
+                return validator;
+            });
+        }
+    }
+
+    /*
+     * the whole validation of a file classifying its lines through a line cache, shared by the runs as it
+     * is by the files of a batch, per line. checks first that the cache answers every line of the file as
+     * its classifier does
+     */
+    private static void lineCache(BenchmarkRunner runner) throws Exception {
+        String source = SampleSources.program(MEDIUM_BYTES);
+        LineClassifier[] classifiers = {new RegexClassifier(), new DispatchClassifier()};
+        String[] names = {"regex", "dispatch"};
+        for (int i = 0; i < classifiers.length; i++) {
+            LineClassifier classifier = classifiers[i];
+            CachingClassifier cached = new CachingClassifier(classifier, LINE_CACHE_ENTRIES);
+            for (String line : (source + ILLEGAL_LINES).split(LINE_SEPARATOR)) {
+                // twice, so the second classification is answered from the cache
+                checkSameKind(line, classifier, cached);
+                checkSameKind(line, classifier, cached);
+            }
+            runner.run("validator.lineCache." + names[i] + ".medium (per line)", SampleSources.linesOf(source),
+                    () -> {
+                        Validator validator = new Validator(new BufferedReader(new StringReader(source)), cached);
+                        validator.run();
+                        return validator;
+                    });
+        }
+    }
+
+    /*
+     * throws if the cache classifies the line to another kind, or with another error, than the classifier
+     */
+    private static void checkSameKind(String line, LineClassifier classifier, CachingClassifier cached) {
+        String expected = kindOf(line, classifier);
+        String actual = kindOf(line, cached);
+        if (!expected.equals(actual))
+            throw new IllegalStateException(String.format(CACHE_MISMATCH, line, expected, actual));
+    }
+
+    private static String kindOf(String line, LineClassifier classifier) {
+        try {
+            return classifier.classify(line).name();
+        } catch (StructureException e) {
+            return e.getMessage();
+        }
+    }
+
+    /*
+     * parsing a file to its IR, reading the IR from its binary format, and validating over the IR, per line
+     */
+    private static void ir(BenchmarkRunner runner) throws Exception {
+        String source = SampleSources.program(MEDIUM_BYTES);
+        int lines = SampleSources.linesOf(source);
+        LineClassifier classifier = new DispatchClassifier();
+        runner.run("ir.parse.medium (per line)", lines, () ->
+                ProgramIr.parse(new Tokenizer(new BufferedReader(new StringReader(source))), classifier));
+        ProgramIr ir = ProgramIr.parse(new Tokenizer(new BufferedReader(new StringReader(source))), classifier);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ir.write(output);
+        byte[] bytes = output.toByteArray();
+        runner.run("ir.read.medium (per line)", lines, () -> ProgramIr.read(new ByteArrayInputStream(bytes)));
+        runner.run("validator.ir.medium (per line)", lines, () -> {
+            Validator validator = new Validator(ir.tokens(), ir.tokens(), classifier);
+            validator.run();
+            return validator;
+        });
+    }
+
+    /*
+     * the structural scan of a file, and validating over its index, whose first pass jumps over the methods
+     * bodies, per line
+     */
+    private static void index(BenchmarkRunner runner) throws Exception {
+        String source = SampleSources.program(MEDIUM_BYTES);
+        int lines = SampleSources.linesOf(source);
+        LineClassifier classifier = new DispatchClassifier();
+        runner.run("index.scan.medium (per line)", lines, () -> SourceIndex.of(source));
+        runner.run("validator.indexed.medium (per line)", lines, () -> {
+            SourceIndex index = SourceIndex.of(source);
+            Validator validator = new Validator(index.tokens(), index.tokens(), classifier);
+            validator.run();
+            return validator;
+        });
+    }
+
+    private static int countTokens(String source) throws Exception {
+        Tokenizer tokenizer = new Tokenizer(new BufferedReader(new StringReader(source)));
+        int tokens = 0;
+        while (tokenizer.curCommand() != null) {
+            tokenizer.advance();
+            tokens++;
+        }
+        return tokens;
+    }
+}
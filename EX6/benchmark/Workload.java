@@ -0,0 +1,15 @@
+package oop.ex6.benchmark;
+
+/**
+ * A single operation measured by the benchmark runner.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public interface Workload {
+
+    /**
+     * runs the operation once.
+     * @return a result of the operation, consumed so the operation isn't optimized away.
+     * @throws Exception if the operation fails, which fails the benchmark.
+     */
+    Object run() throws Exception;
+}
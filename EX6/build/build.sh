@@ -0,0 +1,40 @@
+#!/bin/sh
+# Builds a distribution of Sjavac which starts fast, into the given directory (build/out by default):
+#   classes/        the compiled classes.
+#   sjavac.jar      the classes, whose main class is oop.ex6.main.Sjavac.
+#   sjavac.jsa      an AppCDS archive of the classes a validation loads, trained on a generated corpus.
+#   sjavac-cds      runs the jar over the archive: sjavac-cds [Sjavac arguments].
+#   sjavac          a native image of Sjavac, if the native-image of GraalVM is on the path.
+# Needs a JDK 17 or newer. StartupBenchmark measures the launchers of the directory.
+set -e
+
+build=$(cd "$(dirname "$0")" && pwd)
+sources=$(dirname "$build")
+out=${1:-$build/out}
+train=$out/train
+
+rm -rf "$out"
+mkdir -p "$out/classes" "$train"
+find "$sources" -name '*.java' -not -path "$build/*" > "$out/sources.txt"
+javac -d "$out/classes" @"$out/sources.txt"
+jar --create --file "$out/sjavac.jar" --main-class oop.ex6.main.Sjavac -C "$out/classes" . -C "$build" META-INF
+
+# the training validates legal files and files of a few errors, by every pass of the validator.
+java -cp "$out/sjavac.jar" oop.ex6.corpus.CorpusGenerator --methods=50 --out="$train/legal.sjava"
+for defect in UNINITIALIZED_VALUE UNKNOWN_METHOD UNCLOSED_METHOD INVALID_LINE; do
+    java -cp "$out/sjavac.jar" oop.ex6.corpus.CorpusGenerator --methods=50 --defect=$defect \
+        --out="$train/$defect.sjava"
+done
+java -XX:ArchiveClassesAtExit="$out/sjavac.jsa" -jar "$out/sjavac.jar" --batch "$train" > /dev/null || true
+
+cat > "$out/sjavac-cds" <<LAUNCHER
+#!/bin/sh
+exec java -XX:SharedArchiveFile="$out/sjavac.jsa" -jar "$out/sjavac.jar" "\$@"
+LAUNCHER
+chmod +x "$out/sjavac-cds"
+
+if command -v native-image > /dev/null; then
+    native-image -jar "$out/sjavac.jar" -o "$out/sjavac"
+else
+    echo "native-image wasn't found, so the native image wasn't built"
+fi
@@ -0,0 +1,115 @@
+package oop.ex6.corpus;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Writes a generated s-Java program.
+ * Usage: CorpusGenerator [--seed=n] [--globals=n] [--methods=n] [--params=n] [--depth=n] [--decls=n]
+ * [--statements=n] [--calls=ratio] [--forward=ratio] [--size=n[K|M|G]] [--defect=name] [--out=path]
+ * or: CorpusGenerator --list-defects.
+ * with --size, methods are written until the program reaches the size, instead of --methods of them.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class CorpusGenerator {
+
+    private static final String SEED_OPTION = "--seed=";
+    private static final String GLOBALS_OPTION = "--globals=";
+    private static final String METHODS_OPTION = "--methods=";
+    private static final String PARAMETERS_OPTION = "--params=";
+    private static final String DEPTH_OPTION = "--depth=";
+    private static final String DECLARATIONS_OPTION = "--decls=";
+    private static final String STATEMENTS_OPTION = "--statements=";
+    private static final String CALLS_OPTION = "--calls=";
+    private static final String FORWARD_OPTION = "--forward=";
+    private static final String SIZE_OPTION = "--size=";
+    private static final String DEFECT_OPTION = "--defect=";
+    private static final String OUT_OPTION = "--out=";
+    private static final String LIST_DEFECTS_FLAG = "--list-defects";
+    private static final String SIZE_UNITS = "KMG";
+    private static final int UNIT_SHIFT = 10;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String ERROR_WRONG_USAGE = "ERROR: Wrong usage. " +
+            "CorpusGenerator [--seed=n] [--globals=n] [--methods=n] [--params=n] [--depth=n] [--decls=n] " +
+            "[--statements=n] [--calls=ratio] [--forward=ratio] [--size=n[K|M|G]] [--defect=name] " +
+            "[--out=path] | --list-defects";
+
+    /**
+     * writes the program of the options to the file of --out=, or to the standard output.
+     * @param args the options.
+     */
+    public static void main(String[] args) {
+        GeneratorConfig config = new GeneratorConfig();
+        long seed = 0;
+        Defect defect = null;
+        String outPath = null;
+        try {
+            for (String arg : args) {
+                if (arg.equals(LIST_DEFECTS_FLAG)) {
+                    for (Defect listed : Defect.values())
+                        System.out.println(listed + "\t" + listed.message());
+                    return;
+                } else if (arg.startsWith(SEED_OPTION)) {
+                    seed = Long.parseLong(valueOf(arg, SEED_OPTION));
+                } else if (arg.startsWith(GLOBALS_OPTION)) {
+                    config.globals(Integer.parseInt(valueOf(arg, GLOBALS_OPTION)));
+                } else if (arg.startsWith(METHODS_OPTION)) {
+                    config.methods(Integer.parseInt(valueOf(arg, METHODS_OPTION)));
+                } else if (arg.startsWith(PARAMETERS_OPTION)) {
+                    config.parameters(Integer.parseInt(valueOf(arg, PARAMETERS_OPTION)));
+                } else if (arg.startsWith(DEPTH_OPTION)) {
+                    config.nestingDepth(Integer.parseInt(valueOf(arg, DEPTH_OPTION)));
+                } else if (arg.startsWith(DECLARATIONS_OPTION)) {
+                    config.declarationsPerLine(Integer.parseInt(valueOf(arg, DECLARATIONS_OPTION)));
+                } else if (arg.startsWith(STATEMENTS_OPTION)) {
+                    config.statements(Integer.parseInt(valueOf(arg, STATEMENTS_OPTION)));
+                } else if (arg.startsWith(CALLS_OPTION)) {
+                    config.callDensity(Double.parseDouble(valueOf(arg, CALLS_OPTION)));
+                } else if (arg.startsWith(FORWARD_OPTION)) {
+                    config.forwardCallRatio(Double.parseDouble(valueOf(arg, FORWARD_OPTION)));
+                } else if (arg.startsWith(SIZE_OPTION)) {
+                    config.targetBytes(sizeOf(valueOf(arg, SIZE_OPTION)));
+                } else if (arg.startsWith(DEFECT_OPTION)) {
+                    defect = Defect.valueOf(valueOf(arg, DEFECT_OPTION));
+                } else if (arg.startsWith(OUT_OPTION)) {
+                    outPath = valueOf(arg, OUT_OPTION);
+                } else {
+                    throw new IllegalArgumentException(arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(ERROR_WRONG_USAGE);
+            System.exit(1);
+            return;
+        }
+        try (Writer out = outPath == null ?
+                new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII), BUFFER_SIZE) :
+                Files.newBufferedWriter(Paths.get(outPath), StandardCharsets.US_ASCII)) {
+            new ProgramGenerator(config, seed).write(out, defect);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static String valueOf(String arg, String option) {
+        return arg.substring(option.length());
+    }
+
+    /*
+     * a number of bytes, with an optional K, M or G suffix
+     */
+    private static long sizeOf(String size) {
+        if (size.isEmpty())
+            throw new IllegalArgumentException(size);
+        int unit = SIZE_UNITS.indexOf(Character.toUpperCase(size.charAt(size.length() - 1)));
+        if (unit < 0)
+            return Long.parseLong(size);
+        return Long.parseLong(size.substring(0, size.length() - 1)) << (UNIT_SHIFT * (unit + 1));
+    }
+}
@@ -0,0 +1,66 @@
+package oop.ex6.corpus;
+
+/**
+ * The defects a generated program may have - one for every error the verifier reports. A program with a
+ * defect is legal except for the defect, so the error of the defect is the first error of the program.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public enum Defect {
+    GLOBAL_CALL(Placement.GLOBALS, "Invalid line in the global scope"),
+    UNDECLARED_ASSIGNMENT(Placement.METHOD, "Trying to assign a value to undeclared variable"),
+    FINAL_ASSIGNMENT(Placement.METHOD, "Trying to assign a value to undeclared variable"),
+    CONSTANT_MISMATCH(Placement.METHOD, "Trying to assign a value from a non matching Constant"),
+    UNINITIALIZED_VALUE(Placement.METHOD, "Trying to assign a value from uninitialized variable"),
+    FINAL_WITHOUT_VALUE(Placement.METHOD, "Declaring a final variable without assigning a value"),
+    VARIABLE_MISMATCH(Placement.METHOD, "Trying to assign a value from a non type-matching variable"),
+    DUPLICATE_VARIABLE(Placement.METHOD, "2 parameters in the same scope with same name"),
+    DUPLICATE_METHOD(Placement.END, "2 Functions with same name"),
+    UNCLOSED_METHOD(Placement.END, "Non matching number of scopes opened and scopes closed"),
+    NESTED_METHOD(Placement.METHOD, "Function declaration inside function body"),
+    UNKNOWN_METHOD(Placement.METHOD, "Trying to call to unknown function"),
+    ARGUMENTS_COUNT(Placement.METHOD, "Number of arguments given to function doesnt match"),
+    UNINITIALIZED_ARGUMENT(Placement.METHOD, "Argument supplied to function is not initialized"),
+    ARGUMENT_MISMATCH(Placement.METHOD, "Mismatch of argument type given to function"),
+    UNINITIALIZED_CONDITION(Placement.METHOD, "Variable in boolean expression is not initializes"),
+    CONDITION_VARIABLE_MISMATCH(Placement.METHOD, "Variable in boolean expression cannot be assigned to boolean"),
+    CONDITION_CONSTANT_MISMATCH(Placement.METHOD, "Const in boolean expression cannot be assigned to boolean"),
+    INVALID_VARIABLE_DECLARATION(Placement.GLOBALS, "Global var declaration is invalid."),
+    INVALID_METHOD_DECLARATION(Placement.GLOBALS, "Global func declaration is invalid."),
+    INVALID_LINE(Placement.METHOD, "There was no match to a valid line.");
+
+    /**
+     * where the lines of a defect are written.
+     */
+    enum Placement {
+        /** after the global lines */
+        GLOBALS,
+        /** at the start of the body of a method */
+        METHOD,
+        /** at the end of the file */
+        END
+    }
+
+    private final Placement placement;
+    private final String message;
+
+    Defect(Placement placement, String message) {
+        this.placement = placement;
+        this.message = message;
+    }
+
+    /**
+     *
+     * @return the error message the verifier reports for the defect.
+     */
+    public String message() {
+        return message;
+    }
+
+    /**
+     *
+     * @return where the lines of the defect are written.
+     */
+    Placement placement() {
+        return placement;
+    }
+}
@@ -0,0 +1,163 @@
+package oop.ex6.corpus;
+
+/**
+ * The parameters of generated programs. Every setter returns the configuration, so a configuration is
+ * written as a chain of the parameters which differ from the defaults.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class GeneratorConfig {
+
+    // defaults.
+    private static final int DEFAULT_GLOBALS = 20;
+    private static final int DEFAULT_METHODS = 50;
+    private static final int DEFAULT_PARAMETERS = 3;
+    private static final int DEFAULT_NESTING_DEPTH = 3;
+    private static final int DEFAULT_DECLARATIONS_PER_LINE = 2;
+    private static final int DEFAULT_STATEMENTS = 12;
+    private static final double DEFAULT_CALL_DENSITY = 0.2;
+    private static final double DEFAULT_FORWARD_CALL_RATIO = 0.5;
+    private static final String NEGATIVE = "must not be negative: ";
+    private static final String NOT_RATIO = "must be between 0 and 1: ";
+
+    private int globals = DEFAULT_GLOBALS;
+    private int methods = DEFAULT_METHODS;
+    private int parameters = DEFAULT_PARAMETERS;
+    private int nestingDepth = DEFAULT_NESTING_DEPTH;
+    private int declarationsPerLine = DEFAULT_DECLARATIONS_PER_LINE;
+    private int statements = DEFAULT_STATEMENTS;
+    private double callDensity = DEFAULT_CALL_DENSITY;
+    private double forwardCallRatio = DEFAULT_FORWARD_CALL_RATIO;
+    private long targetBytes = 0;
+
+    /**
+     * @param globals the number of global variables.
+     * @return this configuration.
+     */
+    public GeneratorConfig globals(int globals) {
+        this.globals = notNegative(globals);
+        return this;
+    }
+
+    /**
+     * @param methods the number of methods, when no target size is given.
+     * @return this configuration.
+     */
+    public GeneratorConfig methods(int methods) {
+        this.methods = notNegative(methods);
+        return this;
+    }
+
+    /**
+     * @param parameters the number of parameters of every method.
+     * @return this configuration.
+     */
+    public GeneratorConfig parameters(int parameters) {
+        this.parameters = notNegative(parameters);
+        return this;
+    }
+
+    /**
+     * @param nestingDepth the maximal depth of if and while blocks inside a method.
+     * @return this configuration.
+     */
+    public GeneratorConfig nestingDepth(int nestingDepth) {
+        this.nestingDepth = notNegative(nestingDepth);
+        return this;
+    }
+
+    /**
+     * @param declarationsPerLine the maximal number of variables of a declaration line.
+     * @return this configuration.
+     */
+    public GeneratorConfig declarationsPerLine(int declarationsPerLine) {
+        this.declarationsPerLine = Math.max(1, declarationsPerLine);
+        return this;
+    }
+
+    /**
+     * @param statements the number of statements of a method body, blocks count their statements too.
+     * @return this configuration.
+     */
+    public GeneratorConfig statements(int statements) {
+        this.statements = notNegative(statements);
+        return this;
+    }
+
+    /**
+     * @param callDensity the part of the statements which are method calls.
+     * @return this configuration.
+     */
+    public GeneratorConfig callDensity(double callDensity) {
+        this.callDensity = ratio(callDensity);
+        return this;
+    }
+
+    /**
+     * @param forwardCallRatio the part of the calls to methods declared later in the file.
+     * @return this configuration.
+     */
+    public GeneratorConfig forwardCallRatio(double forwardCallRatio) {
+        this.forwardCallRatio = ratio(forwardCallRatio);
+        return this;
+    }
+
+    /**
+     * @param targetBytes the size of the program - methods are generated until the size is reached.
+     *                    0 generates the configured number of methods.
+     * @return this configuration.
+     */
+    public GeneratorConfig targetBytes(long targetBytes) {
+        if (targetBytes < 0)
+            throw new IllegalArgumentException(NEGATIVE + targetBytes);
+        this.targetBytes = targetBytes;
+        return this;
+    }
+
+    int globals() {
+        return globals;
+    }
+
+    int methods() {
+        return methods;
+    }
+
+    int parameters() {
+        return parameters;
+    }
+
+    int nestingDepth() {
+        return nestingDepth;
+    }
+
+    int declarationsPerLine() {
+        return declarationsPerLine;
+    }
+
+    int statements() {
+        return statements;
+    }
+
+    double callDensity() {
+        return callDensity;
+    }
+
+    double forwardCallRatio() {
+        return forwardCallRatio;
+    }
+
+    long targetBytes() {
+        return targetBytes;
+    }
+
+    private static int notNegative(int value) {
+        if (value < 0)
+            throw new IllegalArgumentException(NEGATIVE + value);
+        return value;
+    }
+
+    private static double ratio(double value) {
+        if (value < 0 || value > 1)
+            throw new IllegalArgumentException(NOT_RATIO + value);
+        return value;
+    }
+}
@@ -0,0 +1,55 @@
+package oop.ex6.corpus;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Generates s-Java programs of a configured shape. The programs are deterministic - the same
+ * configuration, seed and defect always generate the same program. A program without a defect is
+ * legal, and a program with a defect is legal except for the lines of the defect.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class ProgramGenerator {
+
+    private final GeneratorConfig config;
+    private final long seed;
+
+    /**
+     * constructor.
+     * @param config the shape of the programs.
+     * @param seed the seed of the programs.
+     */
+    public ProgramGenerator(GeneratorConfig config, long seed) {
+        this.config = config;
+        this.seed = seed;
+    }
+
+    /**
+     * writes a program, line by line, so programs larger than the memory may be written to a file.
+     * @param out the writer to write the program to.
+     * @param defect the defect of the program, null for a legal program.
+     * @throws IOException if the writer fails.
+     * @throws IllegalArgumentException if the configuration can't have the defect.
+     */
+    public void write(Writer out, Defect defect) throws IOException {
+        new ProgramWriter(config, seed, defect, out).write();
+    }
+
+    /**
+     *
+     * @param defect the defect of the program, null for a legal program.
+     * @return the program.
+     * @throws IllegalArgumentException if the configuration can't have the defect.
+     */
+    public String generate(Defect defect) {
+        StringWriter out = new StringWriter();
+        try {
+            write(out, defect);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,484 @@
+package oop.ex6.corpus;
+
+import oop.ex6.parsing.Type;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * writes a single generated program. keeps the variables visible at every point of the program, so every
+ * line it writes is legal - the only illegal lines are the lines of the requested defect.
+ * @author Yotam Suliman and Edan Topper.
+ */
+class ProgramWriter {
+
+    // ***************************** //
+    // ********* constants ********* //
+    // ***************************** //
+
+    private static final String NEW_LINE = "\n";
+    private static final String INDENT = "    ";
+    private static final String GLOBAL_PREFIX = "g";
+    private static final String LOCAL_PREFIX = "v";
+    private static final String PARAMETER_PREFIX = "p";
+    private static final String METHOD_PREFIX = "m";
+    private static final String FINAL = "final ";
+    private static final String RETURN = "return;";
+    private static final String CLOSE = "}";
+    private static final String[] OPERATORS = {"||", "&&"};
+    private static final String[] CONDITIONS = {"if (", "while ("};
+    private static final Type[] TYPES = Type.values();
+    private static final long SIGNATURE_MIX = 0x9E3779B97F4A7C15L;
+    private static final int FORWARD_WINDOW = 16;
+    private static final int MAX_INT = 1000;
+    private static final int MAX_OPERANDS = 3;
+    private static final int VARIABLE_TRIES = 4;
+    private static final int FINAL_ONE_IN = 5;
+    private static final int UNINITIALIZED_ONE_IN = 3;
+    private static final int GLOBAL_ASSIGNMENT_ONE_IN = 4;
+    private static final int RETURN_ONE_IN = 10;
+    private static final double BLOCK_SHARE = 0.15;
+    private static final double DECLARATION_SHARE = 0.35;
+
+    private final GeneratorConfig config;
+    private final long seed;
+    private final Defect defect;
+    private final Random random;
+    private final Writer out;
+    private final List<Variable> scope;
+    private final int[] scopeStarts;
+    private long written;
+    private boolean stringLiteral;
+    private boolean charLiteral;
+    private int names;
+    private int lastCalled;
+
+    /**
+     * constructor.
+     * @param config the shape of the program.
+     * @param seed the seed of the program.
+     * @param defect the defect of the program, null for a legal program.
+     * @param out the writer to write the program to.
+     */
+    ProgramWriter(GeneratorConfig config, long seed, Defect defect, Writer out) {
+        this.config = config;
+        this.seed = seed;
+        this.defect = defect;
+        this.random = new Random(seed);
+        this.out = out;
+        this.scope = new ArrayList<>();
+        this.scopeStarts = new int[config.nestingDepth() + 2];
+        this.written = 0;
+        this.names = 0;
+        this.lastCalled = -1;
+    }
+
+    /**
+     * writes the program.
+     * @throws IOException if the writer fails.
+     */
+    void write() throws IOException {
+        if (defect != null && defect.placement() != Defect.Placement.GLOBALS && config.parameters() == 0 &&
+                (defect == Defect.UNINITIALIZED_ARGUMENT || defect == Defect.ARGUMENT_MISMATCH))
+            throw new IllegalArgumentException("The defect " + defect + " needs methods with parameters");
+        writeGlobals();
+        if (defect != null && defect.placement() == Defect.Placement.GLOBALS)
+            writeGlobalDefect();
+        int defectMethod = config.targetBytes() > 0 ? 0 : random.nextInt(Math.max(1, config.methods()));
+        int method = 0;
+        while (moreMethods(method)) {
+            writeMethod(method, defect != null && defect.placement() == Defect.Placement.METHOD &&
+                    method == defectMethod);
+            method++;
+        }
+        if (defect != null && defect.placement() == Defect.Placement.END)
+            writeEndDefect();
+        out.flush();
+    }
+
+    // ***************************** //
+    // ****** program layout ******* //
+    // ***************************** //
+
+    /*
+     * true if another method should be written - until the number of methods, or the size, is reached and
+     * every called method is written
+     */
+    private boolean moreMethods(int method) {
+        if (method <= lastCalled)
+            return true;
+        if (method == 0 && defect != null && defect.placement() != Defect.Placement.GLOBALS)
+            return true;
+        return config.targetBytes() > 0 ? written < config.targetBytes() : method < config.methods();
+    }
+
+    /*
+     * the global declarations, with assignments to some of the uninitialized ones
+     */
+    private void writeGlobals() throws IOException {
+        int declared = 0;
+        while (declared < config.globals()) {
+            int count = Math.min(1 + random.nextInt(config.declarationsPerLine()), config.globals() - declared);
+            writeDeclaration(0, count, GLOBAL_PREFIX);
+            declared += count;
+            if (random.nextInt(GLOBAL_ASSIGNMENT_ONE_IN) == 0)
+                writeAssignment(0);
+        }
+    }
+
+    private void writeMethod(int method, boolean withDefect) throws IOException {
+        int globals = scope.size();
+        Type[] parameters = signature(method);
+        boolean[] finals = finalParameters(method);
+        StringBuilder header = new StringBuilder("void ").append(METHOD_PREFIX).append(method).append('(');
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0)
+                header.append(", ");
+            header.append(finals[i] ? FINAL : "").append(parameters[i]).append(' ')
+                    .append(PARAMETER_PREFIX).append(i);
+            scope.add(new Variable(PARAMETER_PREFIX + i, parameters[i], finals[i], 1, true));
+        }
+        line(0, header.append(") {").toString());
+        names = 0;
+        if (withDefect)
+            writeMethodDefect();
+        writeStatements(1, config.statements(), method);
+        line(1, RETURN);
+        line(0, CLOSE);
+        scope.subList(globals, scope.size()).clear();
+    }
+
+    /*
+     * the given number of statements, a block counts as a statement and takes its statements from the rest
+     */
+    private void writeStatements(int depth, int statements, int method) throws IOException {
+        int remaining = statements;
+        while (remaining > 0) {
+            remaining--;
+            double draw = random.nextDouble();
+            if (draw < config.callDensity()) {
+                writeCall(depth, method);
+            } else if (depth <= config.nestingDepth() && draw < config.callDensity() + BLOCK_SHARE) {
+                int inner = random.nextInt(remaining + 1);
+                remaining -= inner;
+                writeBlock(depth, inner, method);
+            } else if (draw < config.callDensity() + BLOCK_SHARE + DECLARATION_SHARE) {
+                writeDeclaration(depth, 1 + random.nextInt(config.declarationsPerLine()), LOCAL_PREFIX);
+            } else if (depth > 1 && random.nextInt(RETURN_ONE_IN) == 0) {
+                line(depth, RETURN);
+            } else {
+                writeAssignment(depth);
+            }
+        }
+    }
+
+    private void writeBlock(int depth, int statements, int method) throws IOException {
+        startLine();
+        StringBuilder condition = new StringBuilder(CONDITIONS[random.nextInt(CONDITIONS.length)]);
+        int operands = 1 + random.nextInt(MAX_OPERANDS);
+        String operand = null;
+        for (int i = 0; i < operands; i++) {
+            if (i > 0) {
+                // a number which isn't the first operand may not be followed by spaces
+                boolean spaced = i == 1 || Character.isLetter(operand.charAt(0));
+                condition.append(spaced ? " " : "").append(OPERATORS[random.nextInt(OPERATORS.length)]).append(' ');
+            }
+            operand = valueFor(Type.BOOLEAN);
+            condition.append(operand);
+        }
+        line(depth, condition.append(") {").toString());
+        scopeStarts[depth] = scope.size();
+        writeStatements(depth + 1, statements, method);
+        scope.subList(scopeStarts[depth], scope.size()).clear();
+        line(depth, CLOSE);
+    }
+
+    // ***************************** //
+    // ********* statements ******** //
+    // ***************************** //
+
+    private void writeDeclaration(int depth, int count, String prefix) throws IOException {
+        Type type = TYPES[random.nextInt(TYPES.length)];
+        boolean isFinal = random.nextInt(FINAL_ONE_IN) == 0;
+        if (isFinal && isQuoted(type))
+            count = 1;
+        startLine();
+        StringBuilder declaration = new StringBuilder(isFinal ? FINAL : "").append(type).append(' ');
+        List<Variable> declared = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = prefix + names++;
+            String value = isFinal || random.nextInt(UNINITIALIZED_ONE_IN) != 0 ? valueFor(type) : null;
+            boolean initialized = value != null;
+            if (i > 0)
+                declaration.append(", ");
+            declaration.append(name);
+            if (initialized)
+                declaration.append(" = ").append(value);
+            declared.add(new Variable(name, type, isFinal, depth, initialized));
+        }
+        line(depth, declaration.append(';').toString());
+        scope.addAll(declared);
+    }
+
+    /*
+     * assigns a value to a variable which isn't final, if one is visible
+     */
+    private void writeAssignment(int depth) throws IOException {
+        Variable target = pickVariable(null, false);
+        if (target == null)
+            return;
+        startLine();
+        line(depth, target.name() + " = " + valueFor(target.type()) + ";");
+        if (target.depth() == depth)
+            target.setInitialized();
+    }
+
+    /*
+     * calls a method before the current one, the current one or one after it
+     */
+    private void writeCall(int depth, int method) throws IOException {
+        int target;
+        // once the size is reached no more methods are called ahead, so the program ends soon after it
+        int window = config.targetBytes() > 0 ? (written < config.targetBytes() ? FORWARD_WINDOW : 0) :
+                Math.min(FORWARD_WINDOW, config.methods() - method - 1);
+        if (window > 0 && random.nextDouble() < config.forwardCallRatio())
+            target = method + 1 + random.nextInt(window);
+        else
+            target = random.nextInt(method + 1);
+        lastCalled = Math.max(lastCalled, target);
+        startLine();
+        writeCall(depth, target, 0, "");
+    }
+
+    /*
+     * a call of the method, after the given arguments, whose arguments from the given one are legal
+     * values. an argument which can't be a literal of the line is declared in a line before the call
+     */
+    private void writeCall(int depth, int method, int from, String first) throws IOException {
+        StringBuilder call = new StringBuilder(METHOD_PREFIX).append(method).append('(').append(first);
+        Type[] parameters = signature(method);
+        for (int i = from; i < parameters.length; i++) {
+            String value = valueFor(parameters[i]);
+            if (value == null) {
+                value = LOCAL_PREFIX + names++;
+                line(depth, parameters[i] + " " + value + " = " + literalOf(parameters[i]) + ";");
+                scope.add(new Variable(value, parameters[i], false, depth, true));
+            }
+            if (i > 0)
+                call.append(',');
+            call.append(value);
+        }
+        line(depth, call.append(");").toString());
+    }
+
+    // ***************************** //
+    // ********** defects ********** //
+    // ***************************** //
+
+    private void writeGlobalDefect() throws IOException {
+        switch (defect) {
+            case GLOBAL_CALL:
+                line(0, METHOD_PREFIX + "0();");
+                break;
+            case INVALID_VARIABLE_DECLARATION:
+                line(0, "int dA = ;");
+                break;
+            default:
+                line(0, "void dBad(int) {");
+        }
+    }
+
+    /*
+     * the lines of the defect, at the start of a method body
+     */
+    private void writeMethodDefect() throws IOException {
+        switch (defect) {
+            case UNDECLARED_ASSIGNMENT:
+                line(1, "dA = 5;");
+                break;
+            case FINAL_ASSIGNMENT:
+                line(1, "final int dA = 1;");
+                line(1, "dA = 2;");
+                break;
+            case CONSTANT_MISMATCH:
+                line(1, "int dA = 1;");
+                line(1, "dA = \"text\";");
+                break;
+            case UNINITIALIZED_VALUE:
+                line(1, "int dA;");
+                line(1, "int dB = dA;");
+                break;
+            case FINAL_WITHOUT_VALUE:
+                line(1, "final int dA;");
+                break;
+            case VARIABLE_MISMATCH:
+                line(1, "String dA = \"text\";");
+                line(1, "int dB = dA;");
+                break;
+            case DUPLICATE_VARIABLE:
+                line(1, "int dA = 1;");
+                line(1, "int dA = 2;");
+                break;
+            case NESTED_METHOD:
+                line(1, "void dInner() {");
+                line(2, RETURN);
+                line(1, CLOSE);
+                break;
+            case UNKNOWN_METHOD:
+                line(1, "dMissing();");
+                break;
+            case ARGUMENTS_COUNT:
+                StringBuilder arguments = new StringBuilder();
+                for (int i = 0; i <= config.parameters(); i++)
+                    arguments.append(i > 0 ? ",1" : "1");
+                line(1, METHOD_PREFIX + "0(" + arguments + ");");
+                break;
+            case UNINITIALIZED_ARGUMENT:
+                line(1, signature(0)[0] + " dA;");
+                startLine();
+                writeCall(1, 0, 1, "dA");
+                break;
+            case ARGUMENT_MISMATCH:
+                Type mismatched = signature(0)[0] == Type.BOOLEAN ? Type.CHAR :
+                        isQuoted(signature(0)[0]) ? Type.INT : Type.STRING;
+                startLine();
+                useLiteral(mismatched);
+                writeCall(1, 0, 1, literalOf(mismatched));
+                break;
+            case UNINITIALIZED_CONDITION:
+                line(1, "boolean dA;");
+                line(1, "if (dA) {");
+                line(1, CLOSE);
+                break;
+            case CONDITION_VARIABLE_MISMATCH:
+                line(1, "String dA = \"text\";");
+                line(1, "if (dA) {");
+                line(1, CLOSE);
+                break;
+            case CONDITION_CONSTANT_MISMATCH:
+                line(1, "if () {");
+                line(1, CLOSE);
+                break;
+            default:
+                line(1, "dA ++;");
+        }
+    }
+
+    private void writeEndDefect() throws IOException {
+        if (defect == Defect.DUPLICATE_METHOD) {
+            line(0, "void " + METHOD_PREFIX + "0() {");
+            line(1, RETURN);
+            line(0, CLOSE);
+        } else {
+            line(0, "void dUnclosed() {");
+            line(1, RETURN);
+        }
+    }
+
+    // ***************************** //
+    // ********** values *********** //
+    // ***************************** //
+
+    /*
+     * an initialized variable assignable to the type, or a literal of the type. the tokenizer reads a
+     * quoted literal from the first quote of its kind in the line to the last, so a line holds a single
+     * string literal and a single char literal - null if the line has the literal already and no
+     * variable was found
+     */
+    private String valueFor(Type type) {
+        boolean literalUsed = type == Type.STRING ? stringLiteral : type == Type.CHAR && charLiteral;
+        if (literalUsed || random.nextBoolean()) {
+            Variable variable = pickVariable(type, true);
+            if (variable != null)
+                return variable.name();
+            if (literalUsed)
+                return null;
+        }
+        useLiteral(type);
+        return literalOf(type);
+    }
+
+    private void startLine() {
+        stringLiteral = false;
+        charLiteral = false;
+    }
+
+    private void useLiteral(Type type) {
+        stringLiteral |= type == Type.STRING;
+        charLiteral |= type == Type.CHAR;
+    }
+
+    private static boolean isQuoted(Type type) {
+        return type == Type.STRING || type == Type.CHAR;
+    }
+
+    /*
+     * a visible variable - an initialized one assignable to the type, or one which isn't final when the
+     * type is null. null if the tries found none
+     */
+    private Variable pickVariable(Type type, boolean initialized) {
+        if (scope.isEmpty())
+            return null;
+        for (int i = 0; i < VARIABLE_TRIES; i++) {
+            Variable variable = scope.get(random.nextInt(scope.size()));
+            if (type == null ? !variable.isFinal() :
+                    variable.initialized() == initialized && variable.type().isAssignableTo(type))
+                return variable;
+        }
+        return null;
+    }
+
+    private String literalOf(Type type) {
+        switch (type) {
+            case INT:
+                return String.valueOf(random.nextInt(2 * MAX_INT) - MAX_INT);
+            case DOUBLE:
+                return random.nextBoolean() ? literalOf(Type.INT) :
+                        literalOf(Type.INT) + "." + random.nextInt(100);
+            case BOOLEAN:
+                int kind = random.nextInt(4);
+                return kind < 2 ? String.valueOf(kind == 0) : literalOf(kind == 2 ? Type.INT : Type.DOUBLE);
+            case CHAR:
+                return "'" + (char) ('a' + random.nextInt(26)) + "'";
+            default:
+                return "\"s" + random.nextInt(MAX_INT) + "\"";
+        }
+    }
+
+    // ***************************** //
+    // ******** signatures ********* //
+    // ***************************** //
+
+    /*
+     * the types of the parameters of a method depend only on the seed and the method, so a call may be
+     * written before the method is
+     */
+    private Type[] signature(int method) {
+        Random signature = new Random(seed ^ (method + 1) * SIGNATURE_MIX);
+        Type[] types = new Type[config.parameters()];
+        for (int i = 0; i < types.length; i++)
+            types[i] = TYPES[signature.nextInt(TYPES.length)];
+        return types;
+    }
+
+    private boolean[] finalParameters(int method) {
+        Random signature = new Random(seed ^ (method + 1) * SIGNATURE_MIX);
+        boolean[] finals = new boolean[config.parameters()];
+        for (int i = 0; i < finals.length; i++)
+            signature.nextInt(TYPES.length);
+        for (int i = 0; i < finals.length; i++)
+            finals[i] = signature.nextInt(FINAL_ONE_IN) == 0;
+        return finals;
+    }
+
+    private void line(int depth, String text) throws IOException {
+        for (int i = 0; i < depth; i++)
+            out.write(INDENT);
+        out.write(text);
+        out.write(NEW_LINE);
+        written += depth * INDENT.length() + text.length() + NEW_LINE.length();
+    }
+}
@@ -0,0 +1,55 @@
+package oop.ex6.corpus;
+
+import oop.ex6.parsing.Type;
+
+/**
+ * a variable of a generated program, as the generator tracks it to write only legal uses of it.
+ * @author Yotam Suliman and Edan Topper.
+ */
+class Variable {
+    private final String name;
+    private final Type type;
+    private final boolean isFinal;
+    private final int depth;
+    private boolean initialized;
+
+    /**
+     * constructor.
+     * @param name the name of the variable.
+     * @param type the type of the variable.
+     * @param isFinal true if the variable is final.
+     * @param depth the depth of the scope the variable is declared in.
+     * @param initialized true if the variable is initialized.
+     */
+    Variable(String name, Type type, boolean isFinal, int depth, boolean initialized) {
+        this.name = name;
+        this.type = type;
+        this.isFinal = isFinal;
+        this.depth = depth;
+        this.initialized = initialized;
+    }
+
+    String name() {
+        return name;
+    }
+
+    Type type() {
+        return type;
+    }
+
+    boolean isFinal() {
+        return isFinal;
+    }
+
+    int depth() {
+        return depth;
+    }
+
+    boolean initialized() {
+        return initialized;
+    }
+
+    void setInitialized() {
+        this.initialized = true;
+    }
+}
@@ -0,0 +1,24 @@
+package oop.ex6.main;
+
+/**
+ * Asked by the validator before every line whether to stop validating, so a caller may cancel a long
+ * validation. Called on the validating thread, so it should only read a flag or the time.
+ * @author Yotam Suliman and Edan Topper.
+ */
+@FunctionalInterface
+public interface AbortListener {
+
+    /**
+     *
+     * @return true to abort the validation, which then throws a CancellationException.
+     */
+    boolean shouldAbort();
+
+    /**
+     * called by a validator which asks the listener, before its first line, so the listener may follow the
+     * progress of the validation. does nothing by default.
+     * @param validator the validator which asks the listener.
+     */
+    default void watch(Validator validator) {
+    }
+}
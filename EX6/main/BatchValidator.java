@@ -0,0 +1,182 @@
+package oop.ex6.main;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Validates many sjava files in one run, on a work stealing pool sized to the machine.
+ * Prints a result line for every file as soon as it is validated and a summary at the end.
+ * Every file is validated on its own, so an exception or an error of one file, even running out of memory,
+ * only fails that file.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class BatchValidator {
+
+    // constants.
+    private static final String SJAVA_SUFFIX = ".sjava";
+    private static final String GLOB_PREFIX = "glob:";
+    private static final String GLOB_CHARS = "*?[{";
+    private static final String SEPARATOR = "\t";
+    private static final String PATH_SEPARATOR = "/";
+    private static final String SUMMARY_FORMAT = "Validated %d files: %d passed, %d with illegal code, " +
+            "%d could not be read";
+    private static final String OVER_BUDGET_FORMAT = ", %d over their budget";
+
+    // class fields.
+    private final PrintStream out;
+    private final SjavaVerifier verifier;
+    private final AtomicInteger[] codeCounters;
+
+    /**
+     * constructor.
+     * @param out the stream to print the results to.
+     * @param verifier the verifier of the files.
+     */
+    public BatchValidator(PrintStream out, SjavaVerifier verifier) {
+        this.out = out;
+        this.verifier = verifier;
+        this.codeCounters = new AtomicInteger[ValidationResult.BUDGET_EXCEEDED + 1];
+        for (int code = 0; code < codeCounters.length; code++)
+            codeCounters[code] = new AtomicInteger();
+    }
+
+    /**
+     * validates every sjava file found in the given files, directories and globs.
+     * @param paths files, directories (searched recursively) or globs.
+     */
+    public void run(List<String> paths) {
+        ExecutorService pool = Executors.newWorkStealingPool();
+        List<Future<?>> tasks = new ArrayList<>();
+        try {
+            for (String path : paths) {
+                for (Path file : findFiles(path))
+                    tasks.add(pool.submit(() -> validate(file)));
+            }
+            for (Future<?> task : tasks)
+                task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // validate handles every exception and error of its file
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+            printSummary();
+        }
+    }
+
+    /*
+     * validates a single file and prints its result line
+     */
+    private void validate(Path file) {
+        ValidationResult result;
+        try {
+            result = verifier.validate(file);
+        } catch (Error e) {
+            // an error the verifier leaves, such as running out of memory on a huge file, fails only that file
+            result = ValidationResult.internalError(e);
+        }
+        codeCounters[result.code()].incrementAndGet();
+        out.println(file + SEPARATOR + result.code() + SEPARATOR + result.message());
+    }
+
+    /**
+     * the files of a path - the file itself, the sjava files of a directory or the matches of a glob.
+     * @param path a file, a directory (searched recursively) or a glob.
+     * @return the files of the path.
+     */
+    static List<Path> findFiles(String path) {
+        List<Path> files = new ArrayList<>();
+        String basePath = globBase(path);
+        boolean isGlob = !basePath.equals(path);
+        Path base = Paths.get(basePath);
+        if (!isGlob && !Files.isDirectory(base)) {
+            files.add(base); // a missing file is reported by its own result line
+            return files;
+        }
+        // the rest of the glob is matched against the paths of the files relative to its base
+        PathMatcher matcher = isGlob ?
+                FileSystems.getDefault().getPathMatcher(GLOB_PREFIX + globRest(path, basePath)) : null;
+        try (Stream<Path> walk = Files.walk(base)) {
+            walk.filter(Files::isRegularFile)
+                    .filter(file -> matcher == null ? file.toString().endsWith(SJAVA_SUFFIX)
+                            : matcher.matches(base.relativize(file)))
+                    .forEach(files::add);
+        } catch (IOException e) {
+            files.add(base);
+        }
+        return files;
+    }
+
+    /*
+     * returns the longest directory prefix of the path without glob characters
+     */
+    private static String globBase(String path) {
+        int firstGlobChar = path.length();
+        for (char c : GLOB_CHARS.toCharArray()) {
+            int index = path.indexOf(c);
+            if (index != -1 && index < firstGlobChar)
+                firstGlobChar = index;
+        }
+        if (firstGlobChar == path.length())
+            return path;
+        int lastSeparator = path.lastIndexOf(PATH_SEPARATOR, firstGlobChar);
+        return lastSeparator == -1 ? "." : path.substring(0, lastSeparator + 1);
+    }
+
+    /*
+     * returns the glob after its base - all of it when the base is the current directory it doesn't name
+     */
+    private static String globRest(String glob, String basePath) {
+        return basePath.endsWith(PATH_SEPARATOR) ? glob.substring(basePath.length()) : glob;
+    }
+
+    /*
+     * prints the aggregated results of the run
+     */
+    private void printSummary() {
+        int passed = codeCounters[ValidationResult.PASSED].get();
+        int illegal = codeCounters[ValidationResult.CONTENT_ERROR].get();
+        int unreadable = codeCounters[ValidationResult.FILE_ERROR].get();
+        int overBudget = codeCounters[ValidationResult.BUDGET_EXCEEDED].get();
+        out.println(summaryOf(passed, illegal, unreadable, overBudget));
+    }
+
+    /**
+     *
+     * @param passed the number of files which passed.
+     * @param illegal the number of files with illegal code.
+     * @param unreadable the number of files which could not be read.
+     * @return the summary line of a run.
+     */
+    static String summaryOf(int passed, int illegal, int unreadable) {
+        return summaryOf(passed, illegal, unreadable, 0);
+    }
+
+    /**
+     *
+     * @param passed the number of files which passed.
+     * @param illegal the number of files with illegal code.
+     * @param unreadable the number of files which could not be read.
+     * @param overBudget the number of files whose validation exceeded its budget, counted only if there are.
+     * @return the summary line of a run.
+     */
+    static String summaryOf(int passed, int illegal, int unreadable, int overBudget) {
+        String summary = String.format(SUMMARY_FORMAT, passed + illegal + unreadable + overBudget, passed, illegal,
+                unreadable);
+        return overBudget == 0 ? summary : summary + String.format(OVER_BUDGET_FORMAT, overBudget);
+    }
+}
@@ -0,0 +1,55 @@
+package oop.ex6.main;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A reader which fails once a line of its input is longer than a limit, so a BufferedReader reading lines
+ * from it never holds more than the limit of a single line. \n and \r end a line.
+ * @author Yotam Suliman and Edan Topper.
+ */
+class BoundedLineReader extends FilterReader {
+
+    private static final String LINE_TOO_LONG_ERR = "A line is longer than the limit of %d characters";
+
+    private final long lineLimit;
+    private long lineLength;
+
+    /**
+     * constructor.
+     * @param in the reader of the input.
+     * @param lineLimit the most characters of a line, without its line terminator.
+     */
+    BoundedLineReader(Reader in, long lineLimit) {
+        super(in);
+        this.lineLimit = lineLimit;
+        this.lineLength = 0;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int c = super.read();
+        if (c != -1)
+            count((char) c);
+        return c;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        for (int i = offset; i < offset + read; i++)
+            count(buffer[i]);
+        return read;
+    }
+
+    /*
+     * counts a character of the current line, throws once the line is longer than the limit
+     */
+    private void count(char c) throws IOException {
+        if (c == '\n' || c == '\r')
+            lineLength = 0;
+        else if (++lineLength > lineLimit)
+            throw new IOException(String.format(LINE_TOO_LONG_ERR, lineLimit));
+    }
+}
@@ -0,0 +1,48 @@
+package oop.ex6.main;
+
+/**
+ * A single error of a sjava file, with the line it was found on.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class Diagnostic {
+
+    private static final String FORMAT = "line %d: %s";
+
+    private final long line;
+    private final String message;
+
+    /**
+     * constructor.
+     * @param line the number of the line of the error, counting from 1.
+     * @param message the error message.
+     */
+    Diagnostic(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    /**
+     *
+     * @return the number of the line of the error, counting from 1.
+     */
+    public long line() {
+        return line;
+    }
+
+    /**
+     *
+     * @return the error message.
+     */
+    public String message() {
+        return message;
+    }
+
+    /**
+     *
+     * @return the error as "line &lt;line&gt;: &lt;message&gt;".
+     */
+    @Override
+    public String toString() {
+        return String.format(FORMAT, line, message);
+    }
+}
@@ -0,0 +1,62 @@
+package oop.ex6.main;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The errors collected by a validator which recovers after every error instead of stopping at the first
+ * one, up to a limit of errors.
+ * @author Yotam Suliman and Edan Topper.
+ */
+class Diagnostics {
+
+    private final int limit;
+    private final List<Diagnostic> diagnostics;
+
+    /**
+     * constructor.
+     * @param limit the most errors to collect, at least 1.
+     */
+    Diagnostics(int limit) {
+        this.limit = limit;
+        this.diagnostics = new ArrayList<>();
+    }
+
+    /**
+     * adds an error.
+     * @param line the number of the line of the error.
+     * @param message the error message.
+     */
+    void add(long line, String message) {
+        diagnostics.add(new Diagnostic(line, message));
+    }
+
+    /**
+     *
+     * @return true if the limit of errors was reached, so the validation should stop.
+     */
+    boolean isFull() {
+        return diagnostics.size() >= limit;
+    }
+
+    /**
+     *
+     * @return true if no error was collected.
+     */
+    boolean isEmpty() {
+        return diagnostics.isEmpty();
+    }
+
+    /**
+     * the result of a validation which found the collected errors. the message is of the first error
+     * found, as a validation which stops at the first error reports, and the errors are in the order
+     * of their lines.
+     * @return a content error result with the collected errors.
+     */
+    ValidationResult result() {
+        List<Diagnostic> sorted = new ArrayList<>(diagnostics);
+        sorted.sort(Comparator.comparingLong(Diagnostic::line));
+        return new ValidationResult(ValidationResult.CONTENT_ERROR, diagnostics.get(0).message(), sorted);
+    }
+}
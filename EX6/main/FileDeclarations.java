@@ -0,0 +1,126 @@
+package oop.ex6.main;
+
+import oop.ex6.parsing.LineClassifier;
+import oop.ex6.parsing.Type;
+import oop.ex6.symbol_table.VarData;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * What the first pass of a file of a project gives the index - the result of validating the global scope of
+ * the file on its own, the variables it declares in the global scope and the signatures of its methods,
+ * and the lines of its methods, kept aside for the second pass. A file whose global scope is illegal
+ * declares nothing. The declarations are immutable once taken from the validator.
+ * @author Yotam Suliman and Edan Topper.
+ */
+class FileDeclarations {
+
+    private final ValidationResult result;
+    private final Map<String, VarData> globals;
+    private final Map<String, Type[]> signatures;
+    private final String methodLines;
+
+    /*
+     * declarations of the given maps, which are never changed
+     */
+    private FileDeclarations(ValidationResult result, Map<String, VarData> globals,
+                             Map<String, Type[]> signatures, String methodLines) {
+        this.result = result;
+        this.globals = Collections.unmodifiableMap(globals);
+        this.signatures = Collections.unmodifiableMap(signatures);
+        this.methodLines = methodLines;
+    }
+
+    /**
+     * runs the first pass of a file - validates its global scope and takes its declarations.
+     * @param source the lines of the file.
+     * @param classifier the classifier of the lines.
+     * @return the declarations of the file.
+     */
+    static FileDeclarations of(String source, LineClassifier classifier) {
+        Validator validator = new Validator(SourceOutline.tokensOf(source), null, classifier);
+        ValidationResult result;
+        try {
+            result = SjavaVerifier.resultOf(validator::validateGlobalScope);
+        } catch (RuntimeException | StackOverflowError e) {
+            result = ValidationResult.internalError(e);
+        }
+        if (!result.passed())
+            return failed(result);
+        Map<String, VarData> globals = new TreeMap<>();
+        for (Map.Entry<String, VarData> global : validator.globals().entrySet()) {
+            globals.put(global.getKey(), global.getValue()); // the data is immutable
+        }
+        return new FileDeclarations(result, globals, new TreeMap<>(validator.signatures()),
+                validator.methodLines());
+    }
+
+    /**
+     * the declarations of a file which failed before its global scope was validated, such as a file which
+     * can't be read.
+     * @param result the result of the file.
+     * @return declarations of nothing, with the given result.
+     */
+    static FileDeclarations failed(ValidationResult result) {
+        return new FileDeclarations(result, new TreeMap<>(), new TreeMap<>(), "");
+    }
+
+    /**
+     *
+     * @return the result of validating the global scope of the file.
+     */
+    ValidationResult result() {
+        return result;
+    }
+
+    /**
+     *
+     * @return the variables of the global scope by their names.
+     */
+    Map<String, VarData> globals() {
+        return globals;
+    }
+
+    /**
+     *
+     * @return the types of the parameters of every method, by the method names.
+     */
+    Map<String, Type[]> signatures() {
+        return signatures;
+    }
+
+    /**
+     *
+     * @return the lines of the methods of the file.
+     */
+    String methodLines() {
+        return methodLines;
+    }
+
+    /**
+     * checks whether the files declare the same names, with the same types, the same final and initialized
+     * data and the same parameters - if so, the other files of the project see no change between them.
+     * @param other the declarations of another version of the file, may be null.
+     * @return true if the declarations are the same.
+     */
+    boolean sameDeclarations(FileDeclarations other) {
+        if (other == null || !globals.keySet().equals(other.globals.keySet()) ||
+                !signatures.keySet().equals(other.signatures.keySet()))
+            return false;
+        for (Map.Entry<String, VarData> global : globals.entrySet()) {
+            VarData mine = global.getValue();
+            VarData theirs = other.globals.get(global.getKey());
+            if (mine.type() != theirs.type() || mine.isFinal() != theirs.isFinal() ||
+                    mine.initialized() != theirs.initialized())
+                return false;
+        }
+        for (Map.Entry<String, Type[]> signature : signatures.entrySet()) {
+            if (!Arrays.equals(signature.getValue(), other.signatures.get(signature.getKey())))
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,34 @@
+package oop.ex6.main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event of the validation of a single file, from reading it to its result.
+ * @author Yotam Suliman and Edan Topper.
+ */
+@Name("oop.ex6.FileValidation")
+@Label("File Validation")
+@Category("Sjavac")
+@Description("The validation of a single sjava file")
+class FileValidationEvent extends Event {
+
+    @Label("Path")
+    private String path;
+
+    @Label("Result Code")
+    private int code;
+
+    /**
+     * sets the file and the result of the validation, before the event is committed.
+     * @param path the path of the file.
+     * @param result the result of the validation.
+     */
+    void setResult(String path, ValidationResult result) {
+        this.path = path;
+        this.code = result.code();
+    }
+}
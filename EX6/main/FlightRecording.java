@@ -0,0 +1,21 @@
+package oop.ex6.main;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Tells whether the flight recorder events of the validations should be created. The first event of a
+ * process initializes the flight recorder, which takes longer than validating a small file, so the events
+ * are created only once the flight recorder was initialized - by -XX:StartFlightRecording, or by a
+ * recording started while the process runs, such as by jcmd JFR.start.
+ * @author Yotam Suliman and Edan Topper.
+ */
+class FlightRecording {
+
+    /**
+     *
+     * @return true if the flight recorder was initialized, so its events may be recorded.
+     */
+    static boolean isEnabled() {
+        return FlightRecorder.isInitialized();
+    }
+}
@@ -0,0 +1,169 @@
+package oop.ex6.main;
+
+import oop.ex6.parsing.Type;
+import oop.ex6.symbol_table.SymbolIds;
+import oop.ex6.symbol_table.SymbolTable;
+import oop.ex6.symbol_table.SymbolTableManager;
+import oop.ex6.symbol_table.VarData;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The global declarations of every file of a project - the variables of the global scopes, in a single
+ * symbol table by interned ids, and the signatures of the methods - built once from the first passes of
+ * the files and shared read-only by the validators of the methods of all the files.
+ * A name declared by more than one file belongs to the first file of the project which declares it, and is
+ * a conflict of the others. An index is immutable - a changed file gives a new index, which takes the
+ * first passes of the other files as they are. If the changed file declares the same names as before,
+ * only its entries are replaced, and otherwise the kept declarations are merged again, which doesn't
+ * validate any file again.
+ * The ids of the index are shared with the validators of the methods, which intern their local names
+ * concurrently, as the methods of a single file do in ParallelValidator.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class GlobalIndex {
+
+    // constants.
+    private static final String DUPLICATE_GLOBAL_ERR = "Global variable declared in another file of the project: ";
+    private static final String DUPLICATE_METHOD_ERR = "Function declared in another file of the project: ";
+
+    // class fields.
+    private final Map<Path, FileDeclarations> files;
+    private final SymbolIds symbolIds;
+    private final SymbolTable globalScope;
+    private final Map<String, Type[]> signatures;
+    private final Map<Path, String> conflicts;
+
+    /**
+     * an index of the given files.
+     * @param files the declarations of every file, in the order of the project.
+     */
+    GlobalIndex(Map<Path, FileDeclarations> files) {
+        this.files = Collections.unmodifiableMap(new LinkedHashMap<>(files));
+        this.symbolIds = new SymbolIds();
+        this.globalScope = new SymbolTable();
+        Map<String, Type[]> signatures = new HashMap<>();
+        Map<Path, String> conflicts = new HashMap<>();
+        for (Map.Entry<Path, FileDeclarations> file : this.files.entrySet()) {
+            String conflict = add(file.getValue(), signatures);
+            if (conflict != null)
+                conflicts.put(file.getKey(), conflict);
+        }
+        this.signatures = Collections.unmodifiableMap(signatures);
+        this.conflicts = conflicts;
+    }
+
+    /**
+     * an empty index.
+     */
+    public GlobalIndex() {
+        this(Collections.emptyMap());
+    }
+
+    /*
+     * an index of the given files, whose global scope and signatures are of another index with the same
+     * declarations
+     */
+    private GlobalIndex(Map<Path, FileDeclarations> files, GlobalIndex declarations) {
+        this.files = Collections.unmodifiableMap(files);
+        this.symbolIds = declarations.symbolIds;
+        this.globalScope = declarations.globalScope;
+        this.signatures = declarations.signatures;
+        this.conflicts = declarations.conflicts;
+    }
+
+    /**
+     * the index of the project after files changed. if the changed files declare the same names as before,
+     * only their entries are replaced and the global scope and the signatures are shared with this index.
+     * @param changed the declarations of the new versions of the changed files. new files are added to the
+     * end of the project.
+     * @return a new index, with the entries of the changed files replaced.
+     */
+    GlobalIndex with(Map<Path, FileDeclarations> changed) {
+        Map<Path, FileDeclarations> updated = new LinkedHashMap<>(files);
+        boolean sameDeclarations = true;
+        for (Map.Entry<Path, FileDeclarations> file : changed.entrySet()) {
+            FileDeclarations previous = updated.put(file.getKey(), file.getValue());
+            sameDeclarations &= file.getValue().sameDeclarations(previous);
+        }
+        if (sameDeclarations)
+            return new GlobalIndex(Collections.unmodifiableMap(updated), this);
+        return new GlobalIndex(updated);
+    }
+
+    /*
+     * adds the declarations of a file which weren't declared by an earlier file, returns the conflict of
+     * the first name which was, or null
+     */
+    private String add(FileDeclarations declarations, Map<String, Type[]> signatures) {
+        String conflict = null;
+        for (Map.Entry<String, VarData> global : declarations.globals().entrySet()) {
+            int id = symbolIds.intern(global.getKey());
+            VarData varData = global.getValue();
+            if (globalScope.getVarData(id) == null)
+                globalScope.add(id, varData.type(), varData.isFinal(), varData.initialized());
+            else if (conflict == null)
+                conflict = DUPLICATE_GLOBAL_ERR + global.getKey();
+        }
+        for (Map.Entry<String, Type[]> signature : declarations.signatures().entrySet()) {
+            if (signatures.putIfAbsent(signature.getKey(), signature.getValue()) != null && conflict == null)
+                conflict = DUPLICATE_METHOD_ERR + signature.getKey();
+        }
+        return conflict;
+    }
+
+    /**
+     *
+     * @return the files of the project, in their order.
+     */
+    public Set<Path> files() {
+        return files.keySet();
+    }
+
+    /**
+     *
+     * @return the number of methods of all the files.
+     */
+    public int methodsCount() {
+        return signatures.size();
+    }
+
+    /**
+     *
+     * @param file a file of the project.
+     * @return the declarations of the file, null if it isn't in the project.
+     */
+    FileDeclarations declarationsOf(Path file) {
+        return files.get(file);
+    }
+
+    /**
+     *
+     * @param file a file of the project.
+     * @return the error of a name the file declares which an earlier file declared, null if there is none.
+     */
+    String conflictOf(Path file) {
+        return conflicts.get(file);
+    }
+
+    /**
+     *
+     * @return a new manager whose only scope is the global scope of the project.
+     */
+    SymbolTableManager scopeView() {
+        return new SymbolTableManager(symbolIds, globalScope);
+    }
+
+    /**
+     *
+     * @return the methods signatures of the project - the types of the parameters of each method.
+     */
+    Map<String, Type[]> signatures() {
+        return signatures;
+    }
+}
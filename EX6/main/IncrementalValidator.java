@@ -0,0 +1,124 @@
+package oop.ex6.main;
+
+import oop.ex6.parsing.LineClassifier;
+import oop.ex6.parsing.Type;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validates the versions of an edited file incrementally, in the granularity of methods.
+ * The file is split to its global lines and its methods, splitting again only the part of the file the edit
+ * touched. The global lines and the methods declarations
+ * (the skeleton of the file) are validated again only if they changed, and the body of a method only if it
+ * changed, if the global lines changed, or if it calls a method whose signature changed.
+ * A file which can't be split - a global line which isn't a declaration or an assignment, or a method
+ * whose scopes aren't closed - is validated as a whole, and gives the same result as Validator.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class IncrementalValidator {
+
+    private final LineClassifier classifier;
+
+    /**
+     * constructor.
+     * @param classifier the classifier of the lines.
+     */
+    public IncrementalValidator(LineClassifier classifier) {
+        this.classifier = classifier;
+    }
+
+    /**
+     * validates a new version of a file, reusing what didn't change since the previous version.
+     * @param previous the state of the previous version of the file, null for the first version.
+     * @param source the new version of the file.
+     * @return the state of the new version, with the result of its validation.
+     */
+    public ValidationState validate(ValidationState previous, String source) {
+        SourceOutline previousOutline = previous == null ? null : previous.outline();
+        SourceOutline outline = SourceOutline.update(previousOutline, previous == null ? null : previous.source(),
+                source, classifier);
+        if (outline == null)
+            return new ValidationState(SjavaVerifier.validateSource(source, classifier, null));
+        String globals = outline.globalLines();
+        String skeleton = outline.skeleton();
+        boolean globalsChanged = previousOutline == null || !globals.equals(previousOutline.globalLines());
+        Validator globalScope;
+        Set<String> changedSignatures;
+        if (!globalsChanged && skeleton.equals(previousOutline.skeleton())) {
+            globalScope = previous.globalScope();
+            if (globalScope == null)
+                return new ValidationState(previous.result(), source, outline, null, Collections.emptyMap());
+            changedSignatures = Collections.emptySet();
+        } else {
+            globalScope = new Validator(SourceOutline.tokensOf(skeleton), null, classifier);
+            ValidationResult result = SjavaVerifier.resultOf(globalScope::validateGlobalScope);
+            if (!result.passed())
+                return new ValidationState(result, source, outline, null, Collections.emptyMap());
+            changedSignatures = globalsChanged ? null : changedSignatures(previous.globalScope(), globalScope);
+        }
+        return validateMethods(previous, source, outline, globalScope, changedSignatures);
+    }
+
+    /*
+     * validates the methods which changed or call a method whose signature changed, null as the changed
+     * signatures validates all the methods
+     */
+    private ValidationState validateMethods(ValidationState previous, String source, SourceOutline outline,
+                                            Validator globalScope, Set<String> changedSignatures) {
+        Map<String, MethodState> states = new HashMap<>();
+        ValidationResult result = new ValidationResult(ValidationResult.PASSED, null);
+        for (int i = 0; i < outline.methodsCount(); i++) {
+            String lines = outline.methodLines(i);
+            MethodState state = previous == null ? null : previous.method(outline.methodName(i));
+            if (state == null || changedSignatures == null || !state.lines().equals(lines) ||
+                    state.callsAny(changedSignatures))
+                state = validateMethod(lines, globalScope);
+            states.put(outline.methodName(i), state);
+            // the first illegal method of the file is the one reported
+            if (result.passed())
+                result = state.result();
+        }
+        return new ValidationState(result, source, outline, globalScope, states);
+    }
+
+    /*
+     * validates the body of a single method over the validated global scope
+     */
+    private MethodState validateMethod(String lines, Validator globalScope) {
+        Set<String> calls = new HashSet<>();
+        ValidationResult result;
+        try {
+            result = SjavaVerifier.resultOf(() -> {
+                Validator validator = new Validator(globalScope, SourceOutline.tokensOf(lines), classifier);
+                validator.collectCalls(calls);
+                validator.validateMethods();
+            });
+        } catch (RuntimeException | StackOverflowError e) {
+            result = ValidationResult.internalError(e);
+        }
+        return new MethodState(lines, calls, result);
+    }
+
+    /*
+     * returns the names of the methods which were added, removed or whose parameters changed
+     */
+    private static Set<String> changedSignatures(Validator previous, Validator current) {
+        Map<String, Type[]> before = previous == null ? Collections.emptyMap() : previous.signatures();
+        Map<String, Type[]> after = current.signatures();
+        Set<String> changed = new HashSet<>();
+        for (String name : before.keySet()) {
+            if (!Arrays.equals(before.get(name), after.get(name)))
+                changed.add(name);
+        }
+        for (String name : after.keySet()) {
+            if (!before.containsKey(name))
+                changed.add(name);
+        }
+        return changed;
+    }
+}
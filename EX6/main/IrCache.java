@@ -0,0 +1,103 @@
+package oop.ex6.main;
+
+import oop.ex6.parsing.ProgramIr;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A persistent cache of the parsed IR of files on the disk, keyed by a digest of the file contents and the
+ * version of the IR format, so the semantic checks of an unchanged file read its IR instead of parsing it.
+ * Every IR is an entry file of its own in the binary format of ProgramIr, written to a temporary file and
+ * moved into place atomically. An entry which can't be read, or isn't a whole IR of the current version,
+ * is a miss.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class IrCache {
+
+    // constants.
+    private static final String VERSION_PREFIX = "sjir-";
+    private static final String VERSION_SEPARATOR = "-";
+    private static final String ENTRY_SUFFIX = ".ir";
+    private static final String TEMP_PREFIX = ".tmp-";
+
+    // class fields.
+    private final Path directory;
+
+    /**
+     * constructor.
+     * @param directory the directory of the cache, created if it doesn't exist.
+     * @throws IOException if the directory can't be created.
+     */
+    public IrCache(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * the key of a file in the cache - a digest of its contents, of the version of the IR format and of the
+     * version of the verifier, which classified the lines of the IR.
+     * @param content the contents of the file.
+     * @return the key of the contents.
+     */
+    public String keyOf(byte[] content) {
+        return ResultCache.digestOf(VERSION_PREFIX + ProgramIr.FORMAT_VERSION + VERSION_SEPARATOR +
+                ResultCache.VERIFIER_VERSION, content);
+    }
+
+    /**
+     * looks up the IR of a key.
+     * @param key the key of the file.
+     * @return the cached IR, or null if the key isn't cached or its entry is corrupted.
+     */
+    public ProgramIr get(String key) {
+        Path entry = entryOf(key);
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(entry))) {
+            return ProgramIr.read(input);
+        } catch (IOException e) {
+            deleteCorrupted(entry);
+            return null;
+        }
+    }
+
+    /**
+     * stores the IR of a key. a failure to store is ignored, the cache only saves work.
+     * @param key the key of the file.
+     * @param ir the IR of the file.
+     */
+    public void put(String key, ProgramIr ir) {
+        try {
+            Path temp = Files.createTempFile(directory, TEMP_PREFIX, ENTRY_SUFFIX);
+            try {
+                try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                    ir.write(output);
+                }
+                ResultCache.moveIntoPlace(temp, entryOf(key));
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            // the IR is just not cached
+        }
+    }
+
+    private Path entryOf(String key) {
+        return directory.resolve(key + ENTRY_SUFFIX);
+    }
+
+    /*
+     * deletes an entry which exists but can't be read as an IR, so it is parsed and written again
+     */
+    private static void deleteCorrupted(Path entry) {
+        try {
+            if (Files.exists(entry))
+                Files.delete(entry);
+        } catch (IOException e) {
+            // another process replaced the entry
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package oop.ex6.main;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The memory a streaming validation may take. A streaming validation reads its file twice, so it keeps
+ * only the current line and the symbols - the interned identifiers, the bindings of the open scopes and
+ * the methods signatures - never the lines it already read. Half of the limit is of the current line,
+ * whose length is bounded by its readers, and half of the symbols, which the budget counts before every
+ * line. A validation over its budget is stopped before it runs out of memory.
+ * @author Yotam Suliman and Edan Topper.
+ */
+class MemoryBudget implements AbortListener {
+
+    // the most bytes a symbol takes - its interned name, its entries in the tables and its data.
+    private static final long SYMBOL_BYTES = 128;
+    // the most bytes a character of the current line takes - the line, the buffer it is read to and its tokens.
+    private static final long LINE_CHAR_BYTES = 64;
+    private static final long LINE_SHARE = 2;
+    private static final String MEMORY_LIMIT_ERR =
+            "The validation needs more than the memory limit of %d bytes: more than %d symbols";
+    private static final String OUT_OF_MEMORY_ERR =
+            "The validation ran out of memory before reaching the memory limit of %d bytes";
+
+    private final long limit;
+    private final long symbolsLimit;
+    private final AbortListener listener;
+    private Validator validator;
+    private boolean exceeded;
+
+    /**
+     * constructor.
+     * @param limit the most bytes the validation may take.
+     * @param listener the listener of the validation, asked whether to abort it as well, null to abort only
+     *                 when the budget is exceeded.
+     */
+    MemoryBudget(long limit, AbortListener listener) {
+        this.limit = limit;
+        this.symbolsLimit = (limit - limit / LINE_SHARE) / SYMBOL_BYTES;
+        this.listener = listener;
+        this.exceeded = false;
+    }
+
+    /**
+     *
+     * @param file a file to validate.
+     * @return a reader of the lines of the file, which fails on a line longer than the budget of a line.
+     * @throws IOException if the file can't be opened.
+     */
+    BufferedReader open(Path file) throws IOException {
+        long lineLimit = Math.max(1, limit / LINE_SHARE / LINE_CHAR_BYTES);
+        return new BufferedReader(new BoundedLineReader(new FileReader(file.toFile()), lineLimit));
+    }
+
+    /**
+     * counts the symbols of the validator before every line.
+     * @param validator the validator of the budget.
+     */
+    @Override
+    public void watch(Validator validator) {
+        this.validator = validator;
+        if (listener != null)
+            listener.watch(validator);
+    }
+
+    @Override
+    public boolean shouldAbort() {
+        exceeded |= validator != null && validator.symbolsCount() > symbolsLimit;
+        return exceeded || (listener != null && listener.shouldAbort());
+    }
+
+    /**
+     *
+     * @return true if the validation was stopped since it exceeded the budget.
+     */
+    boolean exceeded() {
+        return exceeded;
+    }
+
+    /**
+     *
+     * @return the result of a validation which exceeded the budget.
+     */
+    ValidationResult exceededResult() {
+        return new ValidationResult(ValidationResult.FILE_ERROR, String.format(MEMORY_LIMIT_ERR, limit, symbolsLimit));
+    }
+
+    /**
+     *
+     * @return the result of a validation which ran out of memory, though it didn't exceed the budget.
+     */
+    ValidationResult outOfMemoryResult() {
+        return new ValidationResult(ValidationResult.FILE_ERROR, String.format(OUT_OF_MEMORY_ERR, limit));
+    }
+}
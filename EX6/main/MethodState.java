@@ -0,0 +1,56 @@
+package oop.ex6.main;
+
+import java.util.Set;
+
+/**
+ * The state of a single method of an incrementally validated file - its lines, the methods it calls and
+ * the result of validating its body.
+ * @author Yotam Suliman and Edan Topper.
+ */
+class MethodState {
+
+    private final String lines;
+    private final Set<String> calls;
+    private final ValidationResult result;
+
+    /**
+     * constructor.
+     * @param lines the lines of the method, from its declaration to its closing line.
+     * @param calls the names of the methods it calls.
+     * @param result the result of validating the method body.
+     */
+    MethodState(String lines, Set<String> calls, ValidationResult result) {
+        this.lines = lines;
+        this.calls = calls;
+        this.result = result;
+    }
+
+    /**
+     *
+     * @return the lines of the method.
+     */
+    String lines() {
+        return lines;
+    }
+
+    /**
+     *
+     * @param methods names of methods.
+     * @return true if the method calls any of the given methods.
+     */
+    boolean callsAny(Set<String> methods) {
+        for (String call : calls) {
+            if (methods.contains(call))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     *
+     * @return the result of validating the method body.
+     */
+    ValidationResult result() {
+        return result;
+    }
+}
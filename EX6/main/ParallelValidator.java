@@ -0,0 +1,118 @@
+package oop.ex6.main;
+
+import oop.ex6.parsing.LineClassifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Validates the methods of a single file concurrently. The skeleton of the file (its global lines and
+ * methods declarations) is validated first, and then the body of every method is validated on its own
+ * over the validated global scope, which none of the methods changes. The reported error is the error of
+ * the skeleton, or else of the first illegal method in the file, so the result is the same as Validator's.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class ParallelValidator {
+
+    // files with fewer methods are validated on the calling thread.
+    private static final int MIN_PARALLEL_METHODS = 2;
+
+    private final LineClassifier classifier;
+    private final ForkJoinPool pool;
+
+    /**
+     * constructor.
+     * @param classifier the classifier of the lines, shared by all the methods.
+     * @param pool the pool the methods are validated on.
+     */
+    public ParallelValidator(LineClassifier classifier, ForkJoinPool pool) {
+        this.classifier = classifier;
+        this.pool = pool;
+    }
+
+    /**
+     * validates a file.
+     * @param source the lines of the file.
+     * @return the result of the validation.
+     */
+    public ValidationResult validate(String source) {
+        return validate(source, null);
+    }
+
+    /**
+     * validates a file, asking the listener before every line whether to abort.
+     * @param source the lines of the file.
+     * @param listener the listener, null to never abort.
+     * @return the result of the validation.
+     * @throws CancellationException if the listener aborted the validation.
+     */
+    public ValidationResult validate(String source, AbortListener listener) {
+        SourceOutline outline = SourceOutline.split(source, classifier);
+        if (outline == null)
+            return SjavaVerifier.validateSource(source, classifier, listener);
+        Validator globalScope = new Validator(SourceOutline.tokensOf(outline.skeleton()), null, classifier);
+        globalScope.abortWhen(listener);
+        ValidationResult result = SjavaVerifier.resultOf(globalScope::validateGlobalScope);
+        if (!result.passed())
+            return result;
+        if (outline.methodsCount() < MIN_PARALLEL_METHODS) {
+            for (int i = 0; i < outline.methodsCount() && result.passed(); i++)
+                result = validateMethod(outline.methodLines(i), globalScope, listener);
+            return result;
+        }
+        List<Future<ValidationResult>> methods = new ArrayList<>();
+        for (int i = 0; i < outline.methodsCount(); i++) {
+            String lines = outline.methodLines(i);
+            methods.add(pool.submit(() -> validateMethod(lines, globalScope, listener)));
+        }
+        return firstFailure(methods);
+    }
+
+    /*
+     * returns the result of the first method which failed, in the order of the file, and cancels the
+     * validation of the methods after it
+     */
+    private static ValidationResult firstFailure(List<Future<ValidationResult>> methods) {
+        ValidationResult result = new ValidationResult(ValidationResult.PASSED, null);
+        try {
+            for (Future<ValidationResult> method : methods) {
+                if (!result.passed())
+                    method.cancel(false);
+                else
+                    result = method.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Future<ValidationResult> method : methods)
+                method.cancel(false);
+            return ValidationResult.internalError(e);
+        } catch (ExecutionException e) {
+            // validateMethod handles every exception of its method, but for an abort of the validation
+            for (Future<ValidationResult> method : methods)
+                method.cancel(false);
+            if (e.getCause() instanceof CancellationException)
+                throw (CancellationException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+        return result;
+    }
+
+    /*
+     * validates the body of a single method over the validated global scope
+     */
+    private ValidationResult validateMethod(String lines, Validator globalScope, AbortListener listener) {
+        Validator validator = new Validator(globalScope, SourceOutline.tokensOf(lines), classifier);
+        validator.abortWhen(listener);
+        try {
+            return SjavaVerifier.resultOf(validator::validateMethods);
+        } catch (CancellationException e) {
+            throw e;
+        } catch (RuntimeException | StackOverflowError e) {
+            return ValidationResult.internalError(e);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package oop.ex6.main;
+
+import oop.ex6.parsing.LineClassifier;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Validates many sjava files as a single project, in which the methods of every file see the global
+ * variables and the methods of all the files. The global scope of every file is validated once, on its own,
+ * and its declarations are merged into a GlobalIndex, which the methods of all the files are then validated
+ * over, concurrently and without changing it. When files change, only their global scopes are validated
+ * again - the methods of the other files are validated again only if the declarations of a changed file
+ * changed, and otherwise only the methods of the changed files are.
+ * The global lines of a file see only its own declarations, so the result of a file doesn't depend on the
+ * order of the files, but for a name declared by more than one file, which is an error of every file but
+ * the first. A project is updated by a single thread at a time.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class ProjectValidator {
+
+    // constants.
+    private static final String SEPARATOR = "\t";
+
+    // class fields.
+    private final LineClassifier classifier;
+    private final ForkJoinPool pool;
+    private final Map<Path, ValidationResult> results;
+    private GlobalIndex index;
+
+    /**
+     * constructor.
+     * @param classifier the classifier of the lines, shared by all the files.
+     * @param pool the pool the files are validated on.
+     */
+    public ProjectValidator(LineClassifier classifier, ForkJoinPool pool) {
+        this.classifier = classifier;
+        this.pool = pool;
+        this.results = new LinkedHashMap<>();
+        this.index = new GlobalIndex();
+    }
+
+    /**
+     * validates the sjava files of the given files, directories and globs as a project, and prints a
+     * result line for every file, in the order of the project, and a summary.
+     * @param paths files, directories (searched recursively) or globs.
+     * @param out the stream to print the results to.
+     */
+    public void run(List<String> paths, PrintStream out) {
+        Set<Path> files = new LinkedHashSet<>();
+        for (String path : paths) {
+            List<Path> found = BatchValidator.findFiles(path);
+            Collections.sort(found); // the order of a directory decides which file owns a duplicate name
+            files.addAll(found);
+        }
+        int[] codeCounters = new int[ValidationResult.FILE_ERROR + 1];
+        for (Map.Entry<Path, ValidationResult> file : update(files).entrySet()) {
+            ValidationResult result = file.getValue();
+            codeCounters[result.code()]++;
+            out.println(file.getKey() + SEPARATOR + result.code() + SEPARATOR + result.message());
+        }
+        out.println(BatchValidator.summaryOf(codeCounters[ValidationResult.PASSED],
+                codeCounters[ValidationResult.CONTENT_ERROR], codeCounters[ValidationResult.FILE_ERROR]));
+    }
+
+    /**
+     * validates the given files again, after they were created or changed. a new file is added to the end
+     * of the project.
+     * @param changed the changed files.
+     * @return the results of the changed files and of every other file whose result changed, in the order
+     * of the project.
+     */
+    public Map<Path, ValidationResult> update(Collection<Path> changed) {
+        Map<Path, FileDeclarations> declarations = invokeAll(changed, this::declarationsOf);
+        boolean declarationsChanged = false;
+        for (Map.Entry<Path, FileDeclarations> file : declarations.entrySet())
+            declarationsChanged |= !file.getValue().sameDeclarations(index.declarationsOf(file.getKey()));
+        index = index.with(declarations);
+        // the methods of every file see the declarations of the changed files
+        Collection<Path> affected = declarationsChanged ? index.files() : declarations.keySet();
+        Map<Path, ValidationResult> validated = invokeAll(affected, this::validateMethods);
+        Map<Path, ValidationResult> updated = new LinkedHashMap<>();
+        for (Path file : index.files()) {
+            ValidationResult result = validated.get(file);
+            if (result == null)
+                continue;
+            ValidationResult previous = results.put(file, result);
+            if (declarations.containsKey(file) || previous == null || !sameResult(previous, result))
+                updated.put(file, result);
+        }
+        return updated;
+    }
+
+    /**
+     *
+     * @return the index of the project, as of the last update.
+     */
+    public GlobalIndex index() {
+        return index;
+    }
+
+    /**
+     *
+     * @param file a file of the project.
+     * @return the result of the file, as of the last update, null if it isn't in the project.
+     */
+    public ValidationResult resultOf(Path file) {
+        return results.get(file);
+    }
+
+    /*
+     * the first pass of a file - validates its global scope and takes its declarations
+     */
+    private FileDeclarations declarationsOf(Path file) {
+        String source;
+        try {
+            source = new String(Files.readAllBytes(file), Charset.defaultCharset());
+        } catch (IOException e) {
+            return FileDeclarations.failed(new ValidationResult(ValidationResult.FILE_ERROR, e.getMessage()));
+        }
+        return FileDeclarations.of(source, classifier);
+    }
+
+    /*
+     * the result of a file - the error of its global scope, of a name an earlier file declared, or else of
+     * its methods, validated over the index
+     */
+    private ValidationResult validateMethods(Path file) {
+        FileDeclarations declarations = index.declarationsOf(file);
+        if (!declarations.result().passed())
+            return declarations.result();
+        String conflict = index.conflictOf(file);
+        if (conflict != null)
+            return new ValidationResult(ValidationResult.CONTENT_ERROR, conflict);
+        GlobalIndex globals = index;
+        try {
+            return SjavaVerifier.resultOf(() -> new Validator(globals,
+                    SourceOutline.tokensOf(declarations.methodLines()), classifier).validateMethods());
+        } catch (RuntimeException | StackOverflowError e) {
+            return ValidationResult.internalError(e);
+        }
+    }
+
+    /*
+     * applies the task to every file on the pool, returns the values by the files, in their order
+     */
+    private <T> Map<Path, T> invokeAll(Collection<Path> files, Function<Path, T> task) {
+        List<Callable<T>> tasks = new ArrayList<>();
+        for (Path file : files)
+            tasks.add(() -> task.apply(file));
+        List<Future<T>> futures = pool.invokeAll(tasks);
+        Map<Path, T> values = new LinkedHashMap<>();
+        int i = 0;
+        try {
+            for (Path file : files)
+                values.put(file, futures.get(i++).get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            // the tasks handle every exception of their files
+            throw new IllegalStateException(e.getCause());
+        }
+        return values;
+    }
+
+    private static boolean sameResult(ValidationResult first, ValidationResult second) {
+        return first.code() == second.code() && first.message().equals(second.message());
+    }
+}
@@ -0,0 +1,258 @@
+package oop.ex6.main;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * A persistent cache of validation results on the disk, keyed by a digest of the file contents and the
+ * version of the verifier. Every result is an entry file of its own, written to a temporary file and moved
+ * into place atomically, so processes sharing the directory never see a partial entry. An entry which
+ * can't be read or whose checksum doesn't match is a miss. The least recently used entries are evicted,
+ * under a lock of the directory, once the cache holds more than its maximal number of entries.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class ResultCache {
+
+    /**
+     * the version of the verifier, bumped by every change which may change a result of the verifier or the
+     * kind of a line, so the results and the IR cached by an older verifier are never read
+     */
+    static final String VERIFIER_VERSION = "sjavac-2";
+
+    // constants.
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String MAGIC = "SJAVAC-RESULT";
+    private static final String LINE_SEPARATOR = "\n";
+    private static final String ENTRY_SUFFIX = ".result";
+    private static final String ENTRY_GLOB = "*" + ENTRY_SUFFIX;
+    private static final String TEMP_PREFIX = ".tmp-";
+    private static final String LOCK_FILE = ".lock";
+    private static final String HEX_DIGITS = "0123456789abcdef";
+    private static final int HEADER_LINES = 3;
+    private static final int EVICTION_CHECKS = 16;
+    private static final int PERCENT = 100;
+    private static final int KEPT_PERCENT = 75;
+    private static final long STALE_TEMP_MILLIS = 60 * 60 * 1000;
+
+    // class fields.
+    private final Path directory;
+    private final int maxEntries;
+    private final AtomicInteger puts;
+
+    /**
+     * constructor.
+     * @param directory the directory of the cache, created if it doesn't exist.
+     * @param maxEntries the maximal number of results kept in the cache.
+     * @throws IOException if the directory can't be created.
+     */
+    public ResultCache(Path directory, int maxEntries) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxEntries = maxEntries;
+        this.puts = new AtomicInteger();
+    }
+
+    /**
+     * the key of a file in the cache - a digest of its contents and of the version of the verifier.
+     * @param content the contents of the file.
+     * @return the key of the contents.
+     */
+    public String keyOf(byte[] content) {
+        return digestOf(VERIFIER_VERSION, content);
+    }
+
+    /**
+     * a digest of the contents of a file and of a version, as the hex digits of its bytes.
+     * @param version the version of what is kept of the file.
+     * @param content the contents of the file.
+     * @return the digest.
+     */
+    static String digestOf(String version, byte[] content) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // every java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+        digest.update(version.getBytes(StandardCharsets.UTF_8));
+        digest.update(content);
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest())
+            key.append(HEX_DIGITS.charAt((b >> 4) & 0xF)).append(HEX_DIGITS.charAt(b & 0xF));
+        return key.toString();
+    }
+
+    /**
+     * looks up the result of a key, and marks it as the most recently used.
+     * @param key the key of the file.
+     * @return the cached result, or null if the key isn't cached or its entry is corrupted.
+     */
+    public ValidationResult get(String key) {
+        Path entry = entryOf(key);
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(entry);
+        } catch (IOException e) {
+            return null;
+        }
+        ValidationResult result = parse(new String(bytes, StandardCharsets.UTF_8));
+        try {
+            if (result == null)
+                Files.deleteIfExists(entry);
+            else
+                Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // another process replaced or evicted the entry - the result is still good
+        }
+        return result;
+    }
+
+    /**
+     * stores the result of a key. a failure to store is ignored, the cache only saves work.
+     * @param key the key of the file.
+     * @param result the result of validating the file.
+     */
+    public void put(String key, ValidationResult result) {
+        try {
+            Path temp = Files.createTempFile(directory, TEMP_PREFIX, ENTRY_SUFFIX);
+            try {
+                Files.write(temp, format(result).getBytes(StandardCharsets.UTF_8));
+                moveIntoPlace(temp, entryOf(key));
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            int count = puts.getAndIncrement();
+            if (count % Math.max(1, maxEntries / EVICTION_CHECKS) == 0)
+                evictIfFull();
+        } catch (IOException e) {
+            // the result is just not cached
+        }
+    }
+
+    // ***************************** //
+    // *********** Entries ********* //
+    // ***************************** //
+
+    private Path entryOf(String key) {
+        return directory.resolve(key + ENTRY_SUFFIX);
+    }
+
+    /*
+     * the text of an entry - a magic line, the code, a checksum of the code and the message, and the message
+     */
+    private static String format(ValidationResult result) {
+        return MAGIC + LINE_SEPARATOR + result.code() + LINE_SEPARATOR +
+                checksum(result.code(), result.message()) + LINE_SEPARATOR + result.message();
+    }
+
+    /*
+     * returns the result of the text of an entry, null if the text isn't a whole entry
+     */
+    private static ValidationResult parse(String text) {
+        String[] parts = text.split(LINE_SEPARATOR, HEADER_LINES + 1);
+        if (parts.length != HEADER_LINES + 1 || !parts[0].equals(MAGIC))
+            return null;
+        try {
+            int code = Integer.parseInt(parts[1]);
+            if (code < ValidationResult.PASSED || code > ValidationResult.FILE_ERROR ||
+                    Long.parseLong(parts[2]) != checksum(code, parts[3]))
+                return null;
+            return new ValidationResult(code, parts[3]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long checksum(int code, String message) {
+        CRC32 crc = new CRC32();
+        crc.update(code);
+        crc.update(message.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * moves a written temporary file to its entry, atomically where the file system can.
+     * @param temp the written file.
+     * @param entry the path of the entry.
+     * @throws IOException if moving failed.
+     */
+    static void moveIntoPlace(Path temp, Path entry) throws IOException {
+        try {
+            Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // ***************************** //
+    // *********** Eviction ******** //
+    // ***************************** //
+
+    /*
+     * evicts the least recently used entries if the cache is full. only one process evicts at a time,
+     * the others skip the eviction
+     */
+    private synchronized void evictIfFull() throws IOException {
+        try (FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = lockChannel.tryLock()) {
+            if (lock == null)
+                return;
+            List<Path> entries = new ArrayList<>();
+            Map<Path, Long> lastUsed = new HashMap<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, ENTRY_GLOB)) {
+                for (Path entry : stream) {
+                    if (entry.getFileName().toString().startsWith(TEMP_PREFIX)) {
+                        deleteIfStale(entry);
+                        continue;
+                    }
+                    entries.add(entry);
+                    lastUsed.put(entry, lastModified(entry));
+                }
+            }
+            if (entries.size() <= maxEntries)
+                return;
+            entries.sort(Comparator.comparing(lastUsed::get));
+            int toEvict = entries.size() - maxEntries * KEPT_PERCENT / PERCENT;
+            for (int i = 0; i < toEvict; i++)
+                Files.deleteIfExists(entries.get(i));
+        } catch (OverlappingFileLockException e) {
+            // the directory is already locked by this process
+        }
+    }
+
+    /*
+     * deletes a temporary file left by a process which stopped in the middle of writing it
+     */
+    private static void deleteIfStale(Path temp) throws IOException {
+        if (System.currentTimeMillis() - lastModified(temp) > STALE_TEMP_MILLIS)
+            Files.deleteIfExists(temp);
+    }
+
+    private static long lastModified(Path entry) {
+        try {
+            return Files.getLastModifiedTime(entry).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,627 @@
+package oop.ex6.main;
+
+import oop.ex6.parsing.CachingClassifier;
+import oop.ex6.parsing.DispatchClassifier;
+import oop.ex6.parsing.InstrumentedClassifier;
+import oop.ex6.parsing.LineClassifier;
+import oop.ex6.parsing.MappedTokenizer;
+import oop.ex6.parsing.ProgramIr;
+import oop.ex6.parsing.SourceIndex;
+import oop.ex6.parsing.StructureException;
+import oop.ex6.parsing.Tokenizer;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The verifier of sjava code, for validating in the process instead of running Sjavac. A verifier is
+ * immutable and may be used by any number of threads at once - every validation has validators of its
+ * own, and only the classifier, the compiled patterns and the cache are shared. The with methods return
+ * a verifier with another option.
+ * A validation never throws, but for a CancellationException when its abort listener aborts it - a file
+ * which can't be read, and an unexpected error of the validator, are file error results.
+ * By default a validation stops at the first error of the file, and with diagnostics it collects the
+ * errors of the whole file with their lines.
+ * With an IR cache, a file or a stream is parsed once into its IR, and validated over the IR - an unchanged
+ * file is validated over the IR read from the cache, without reading and classifying its lines again.
+ * With streaming, a file is read twice instead of being kept in the memory, and a stream is spooled to a
+ * temporary file first - the memory of a validation is of its current line and its symbols, not of the size
+ * of the file, and a validation which needs more than its memory limit is a file error.
+ * With limits, a validation which takes more time, lines, tokens or nested scopes than its budget is
+ * aborted, and its result is of its own code.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class SjavaVerifier {
+
+    private static final LineClassifier DEFAULT_CLASSIFIER = new DispatchClassifier();
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final int FIRST_ERROR_ONLY = 0;
+    private static final long NO_STREAMING = 0;
+    private static final String SPOOL_PREFIX = "sjava-stream";
+    private static final String SPOOL_SUFFIX = ".sjava";
+
+    private final LineClassifier classifier;
+    private final boolean mapped;
+    private final ResultCache cache;
+    private final ForkJoinPool pool;
+    private final int errorLimit;
+    private final IrCache irCache;
+    private final long memoryLimit;
+    private final ValidationLimits limits;
+
+    /**
+     * constructor of a verifier which classifies the lines with a DispatchClassifier, reads the files
+     * with a reader, has no cache and validates every file on the calling thread.
+     */
+    public SjavaVerifier() {
+        this(DEFAULT_CLASSIFIER, false, null, null, FIRST_ERROR_ONLY, null, NO_STREAMING, null);
+    }
+
+    /*
+     * a verifier of the given options
+     */
+    private SjavaVerifier(LineClassifier classifier, boolean mapped, ResultCache cache, ForkJoinPool pool,
+                          int errorLimit, IrCache irCache, long memoryLimit, ValidationLimits limits) {
+        this.classifier = classifier;
+        this.mapped = mapped;
+        this.cache = cache;
+        this.pool = pool;
+        this.errorLimit = errorLimit;
+        this.irCache = irCache;
+        this.memoryLimit = memoryLimit;
+        this.limits = limits;
+    }
+
+    /**
+     * @param classifier the classifier of the lines, shared by all the validations so it must be
+     *                   thread safe as the classifiers of the parsing package are.
+     * @return a verifier which classifies the lines with the classifier.
+     */
+    public SjavaVerifier withClassifier(LineClassifier classifier) {
+        return new SjavaVerifier(classifier, mapped, cache, pool, errorLimit, irCache, memoryLimit, limits);
+    }
+
+    /**
+     * files are mapped only if the default charset is one the mapped tokenizer supports, and are read as
+     * without mapping otherwise, so mapping never changes the result of a file.
+     * @param mapped true to read the files through memory mapping.
+     * @return a verifier which reads the files with the given way.
+     */
+    public SjavaVerifier withMapping(boolean mapped) {
+        return new SjavaVerifier(classifier, mapped, cache, pool, errorLimit, irCache, memoryLimit, limits);
+    }
+
+    /**
+     * @param cache the cache of the results of files and streams, null for no cache.
+     * @return a verifier which answers contents already validated from the cache.
+     */
+    public SjavaVerifier withCache(ResultCache cache) {
+        return new SjavaVerifier(classifier, mapped, cache, pool, errorLimit, irCache, memoryLimit, limits);
+    }
+
+    /**
+     * @param pool the pool to validate the methods of a file on concurrently, null to validate every
+     *             file on the calling thread.
+     * @return a verifier which validates the methods of a file on the pool.
+     */
+    public SjavaVerifier withPool(ForkJoinPool pool) {
+        return new SjavaVerifier(classifier, mapped, cache, pool, errorLimit, irCache, memoryLimit, limits);
+    }
+
+    /**
+     * with diagnostics, every file is validated on the calling thread without the cache.
+     * @param errorLimit the most errors to collect from a file, recovering after every error instead of
+     *                   stopping at the first one. 0 to stop at the first error.
+     * @return a verifier which collects the errors of every file into the diagnostics of its result.
+     */
+    public SjavaVerifier withDiagnostics(int errorLimit) {
+        return new SjavaVerifier(classifier, mapped, cache, pool, Math.max(errorLimit, FIRST_ERROR_ONLY),
+                irCache, memoryLimit, limits);
+    }
+
+    /**
+     * with an IR cache, the files and the streams are validated on the calling thread, over their IR.
+     * @param irCache the cache of the IR of files and streams, null to read and classify the lines of
+     *                every file.
+     * @return a verifier which parses every file once, or reads its IR from the cache.
+     */
+    public SjavaVerifier withIrCache(IrCache irCache) {
+        return new SjavaVerifier(classifier, mapped, cache, pool, errorLimit, irCache, memoryLimit, limits);
+    }
+
+    /**
+     * with streaming, the files and the streams are validated on the calling thread without the caches, and
+     * a file is read twice, through a reader, instead of keeping the lines of its methods - a validation
+     * takes at most the memory of its longest line and of its symbols, whichever the size of the file.
+     * a file with a line longer than the budget of a line, or with more symbols than the budget of the
+     * symbols, is a file error instead of running out of memory.
+     * @param memoryLimit the most bytes a validation may take, half of them for the current line and half
+     *                    for the symbols. 0 to read every file once, keeping the lines of its methods.
+     * @return a verifier which streams every file within the memory limit.
+     */
+    public SjavaVerifier withStreaming(long memoryLimit) {
+        return new SjavaVerifier(classifier, mapped, cache, pool, errorLimit, irCache,
+                Math.max(memoryLimit, NO_STREAMING), limits);
+    }
+
+    /**
+     * with limits, every file and stream is validated on the calling thread, within a budget of the limits -
+     * a validation over its budget is aborted, and its result is of the BUDGET_EXCEEDED code.
+     * @param limits the limits of every validation, null for no limits.
+     * @return a verifier which validates within the limits.
+     */
+    public SjavaVerifier withLimits(ValidationLimits limits) {
+        return new SjavaVerifier(classifier, mapped, cache, pool, errorLimit, irCache, memoryLimit,
+                limits != null && limits.isLimited() ? limits : null);
+    }
+
+    // ***************************** //
+    // ********* validation ******** //
+    // ***************************** //
+
+    /**
+     * validates a file.
+     * @param file the path of the file.
+     * @return the result of the validation.
+     */
+    public ValidationResult validate(Path file) {
+        return validate(file, null, null);
+    }
+
+    /**
+     * validates a file. with stats, the file is validated on the calling thread without the cache.
+     * @param file the path of the file.
+     * @param listener the listener asked before every line whether to abort, null to never abort.
+     * @param stats the statistics to add the statistics of the validation to, null to keep none.
+     * @return the result of the validation.
+     * @throws CancellationException if the listener aborted the validation.
+     */
+    public ValidationResult validate(Path file, AbortListener listener, ValidationStats stats) {
+        if (limits != null)
+            return budgeted(listener, (verifier, budget) -> verifier.validate(file, budget, stats));
+        return recorded(file.toString(), () -> {
+            if (memoryLimit != NO_STREAMING)
+                return streamed(file, listener, stats);
+            if (stats == null && errorLimit == FIRST_ERROR_ONLY && (cache != null || pool != null)) {
+                try (InputStream input = new FileInputStream(file.toFile())) {
+                    return validateContent(readAll(input), listener);
+                } catch (IOException e) {
+                    return new ValidationResult(ValidationResult.FILE_ERROR, e.getMessage());
+                }
+            }
+            return measured(stats, (lines, diagnostics) -> resultOf(() -> {
+                if (irCache != null) {
+                    try (InputStream input = new FileInputStream(file.toFile())) {
+                        validateIr(readAll(input), lines, listener, stats, diagnostics);
+                    }
+                    return;
+                }
+                if (mapped && MappedTokenizer.supports(Charset.defaultCharset())) {
+                    validateMapped(file, lines, listener, stats, diagnostics);
+                    return;
+                }
+                try (Reader reader = new FileReader(file.toFile())) {
+                    validateReader(reader, lines, listener, stats, diagnostics);
+                }
+            }));
+        });
+    }
+
+    /**
+     * validates a new version of a file incrementally, over the state of its previous version - only the
+     * global scope and the methods which changed are validated again, so the cost is of the edit and not of
+     * the file. the result is the same as of validate. a verifier which collects all the errors, streams or
+     * has limits validates the whole file, and so does a file which can't be read.
+     * @param previous the state of the previous version of the file, null for its first version.
+     * @param file the path of the file.
+     * @return the state of the new version, with the result of its validation.
+     */
+    public ValidationState validate(ValidationState previous, Path file) {
+        if (errorLimit != FIRST_ERROR_ONLY || memoryLimit != NO_STREAMING || limits != null)
+            return new ValidationState(validate(file));
+        String source;
+        try {
+            source = new String(Files.readAllBytes(file), Charset.defaultCharset());
+        } catch (IOException e) {
+            // the error of the file is the one validate reports
+            return new ValidationState(validate(file));
+        }
+        try {
+            return new IncrementalValidator(classifier).validate(previous, source);
+        } catch (RuntimeException | StackOverflowError e) {
+            return new ValidationState(ValidationResult.internalError(e));
+        }
+    }
+
+    /**
+     * validates sjava code.
+     * @param source the code.
+     * @return the result of the validation.
+     */
+    public ValidationResult validate(CharSequence source) {
+        return validate(source, null, null);
+    }
+
+    /**
+     * validates sjava code. the results of code aren't cached.
+     * with stats, the code is validated on the calling thread.
+     * @param source the code.
+     * @param listener the listener asked before every line whether to abort, null to never abort.
+     * @param stats the statistics to add the statistics of the validation to, null to keep none.
+     * @return the result of the validation.
+     * @throws CancellationException if the listener aborted the validation.
+     */
+    public ValidationResult validate(CharSequence source, AbortListener listener, ValidationStats stats) {
+        if (limits != null)
+            return budgeted(listener, (verifier, budget) -> verifier.validate(source, budget, stats));
+        return recorded(null, () -> stats == null && errorLimit == FIRST_ERROR_ONLY ?
+                validateText(source.toString(), listener) :
+                measured(stats, (lines, diagnostics) -> resultOf(() ->
+                        validateIndexed(source.toString(), lines, listener, stats, diagnostics))));
+    }
+
+    /**
+     * validates sjava code read from a stream, decoded with the default charset. the stream isn't closed.
+     * @param input the stream of the code.
+     * @return the result of the validation.
+     */
+    public ValidationResult validate(InputStream input) {
+        return validate(input, null, null);
+    }
+
+    /**
+     * validates sjava code read from a stream, decoded with the default charset. the stream isn't closed.
+     * with stats, the code is validated on the calling thread without the cache.
+     * @param input the stream of the code.
+     * @param listener the listener asked before every line whether to abort, null to never abort.
+     * @param stats the statistics to add the statistics of the validation to, null to keep none.
+     * @return the result of the validation.
+     * @throws CancellationException if the listener aborted the validation.
+     */
+    public ValidationResult validate(InputStream input, AbortListener listener, ValidationStats stats) {
+        if (limits != null)
+            return budgeted(listener, (verifier, budget) -> verifier.validate(input, budget, stats));
+        return recorded(null, () -> {
+            if (memoryLimit != NO_STREAMING)
+                return spooled(input, file -> streamed(file, listener, stats));
+            if (stats == null && errorLimit == FIRST_ERROR_ONLY && (cache != null || pool != null)) {
+                try {
+                    return validateContent(readAll(input), listener);
+                } catch (IOException e) {
+                    return new ValidationResult(ValidationResult.FILE_ERROR, e.getMessage());
+                }
+            }
+            if (irCache != null)
+                return measured(stats, (lines, diagnostics) ->
+                        resultOf(() -> validateIr(readAll(input), lines, listener, stats, diagnostics)));
+            Reader reader = new InputStreamReader(input, Charset.defaultCharset());
+            return measured(stats, (lines, diagnostics) ->
+                    resultOf(() -> validateReader(reader, lines, listener, stats, diagnostics)));
+        });
+    }
+
+    /**
+     * validates a file on the executor. cancelling the future aborts the validation.
+     * @param file the path of the file.
+     * @param executor the executor to validate on.
+     * @return the future result of the validation.
+     */
+    public CompletableFuture<ValidationResult> validateAsync(Path file, Executor executor) {
+        return async(listener -> validate(file, listener, null), executor);
+    }
+
+    /**
+     * validates sjava code on the executor. cancelling the future aborts the validation.
+     * @param source the code, which must not change until the validation ends.
+     * @param executor the executor to validate on.
+     * @return the future result of the validation.
+     */
+    public CompletableFuture<ValidationResult> validateAsync(CharSequence source, Executor executor) {
+        return async(listener -> validate(source, listener, null), executor);
+    }
+
+    // ***************************** //
+    // ****** shared validation **** //
+    // ***************************** //
+
+    /*
+     * a validation which may fail
+     */
+    interface Validation {
+        void run() throws IOException, StructureException, LogicalException;
+    }
+
+    /*
+     * runs the validation and returns its result
+     */
+    static ValidationResult resultOf(Validation validation) {
+        try {
+            validation.run();
+        }
+        // Some File Exception
+        catch (IOException e){
+            return new ValidationResult(ValidationResult.FILE_ERROR, e.getMessage());
+        }
+        // Some Validation Exception
+        catch (StructureException | LogicalException e){
+            return new ValidationResult(ValidationResult.CONTENT_ERROR, e.getMessage());
+        }
+        // Code is OK
+        return new ValidationResult(ValidationResult.PASSED, null);
+    }
+
+    /*
+     * validates sjava code on the current thread, over the index of the code
+     */
+    static ValidationResult validateSource(String source, LineClassifier classifier, AbortListener listener) {
+        return resultOf(() -> validateIndexed(source, classifier, listener, null, null));
+    }
+
+    /*
+     * validates code which is in memory over its index - the first pass jumps over the methods bodies, and
+     * the second pass reads the code again instead of a copy of the methods
+     */
+    private static void validateIndexed(String source, LineClassifier classifier, AbortListener listener,
+                                        ValidationStats stats, Diagnostics diagnostics)
+            throws IOException, StructureException, LogicalException {
+        SourceIndex index = SourceIndex.of(source);
+        Validator validator = new Validator(index.tokens(), index.tokens(), classifier);
+        validator.recordStats(stats);
+        validator.abortWhen(listener);
+        validator.collectDiagnostics(diagnostics);
+        validator.run();
+    }
+
+    /*
+     * validates the code read from the reader once. the reader isn't closed
+     */
+    private static void validateReader(Reader input, LineClassifier classifier, AbortListener listener,
+                                       ValidationStats stats, Diagnostics diagnostics)
+            throws IOException, StructureException, LogicalException {
+        Validator validator = new Validator(new BufferedReader(input), classifier);
+        validator.recordStats(stats);
+        validator.abortWhen(listener);
+        validator.collectDiagnostics(diagnostics);
+        validator.run();
+    }
+
+    /*
+     * validates the file mapping it for each pass
+     */
+    private static void validateMapped(Path file, LineClassifier classifier, AbortListener listener,
+                                       ValidationStats stats, Diagnostics diagnostics)
+            throws IOException, StructureException, LogicalException {
+        try (MappedTokenizer tokenizer1 = new MappedTokenizer(file);
+             MappedTokenizer tokenizer2 = new MappedTokenizer(file)) {
+            Validator validator = new Validator(tokenizer1, tokenizer2, classifier);
+            validator.recordStats(stats);
+            validator.abortWhen(listener);
+            validator.collectDiagnostics(diagnostics);
+            validator.run();
+        }
+    }
+
+    /*
+     * validates the contents over their IR, read from the IR cache or parsed and cached
+     */
+    private void validateIr(byte[] content, LineClassifier lines, AbortListener listener,
+                            ValidationStats stats, Diagnostics diagnostics)
+            throws IOException, StructureException, LogicalException {
+        String key = irCache.keyOf(content);
+        ProgramIr ir = irCache.get(key);
+        if (ir == null) {
+            Reader reader = new StringReader(new String(content, Charset.defaultCharset()));
+            ir = ProgramIr.parse(new Tokenizer(new BufferedReader(reader)), lines);
+            irCache.put(key, ir);
+        }
+        Validator validator = new Validator(ir.tokens(), ir.tokens(), lines);
+        validator.recordStats(stats);
+        validator.abortWhen(listener);
+        validator.collectDiagnostics(diagnostics);
+        validator.run();
+    }
+
+    /*
+     * answers the contents from the cache if they were already validated, and otherwise validates them
+     * and caches the result. a null cache only validates
+     */
+    private ValidationResult validateContent(byte[] content, AbortListener listener) {
+        String key = cache == null ? null : cache.keyOf(content);
+        ValidationResult result = cache == null ? null : cache.get(key);
+        if (result == null) {
+            result = irCache != null ? resultOf(() -> validateIr(content, classifier, listener, null, null)) :
+                    validateText(new String(content, Charset.defaultCharset()), listener);
+            if (cache != null && result.code() != ValidationResult.FILE_ERROR)
+                cache.put(key, result);
+        }
+        return result;
+    }
+
+    /*
+     * validates the file reading it for each pass, within the memory limit
+     */
+    private ValidationResult streamed(Path file, AbortListener listener, ValidationStats stats) {
+        MemoryBudget budget = new MemoryBudget(memoryLimit, listener);
+        try {
+            return measured(stats, (lines, diagnostics) -> resultOf(() -> {
+                try (BufferedReader reader1 = budget.open(file);
+                     BufferedReader reader2 = budget.open(file)) {
+                    Validator validator = new Validator(reader1, reader2, lines);
+                    validator.recordStats(stats);
+                    validator.abortWhen(budget);
+                    validator.collectDiagnostics(diagnostics);
+                    validator.run();
+                }
+            }));
+        } catch (CancellationException e) {
+            if (!budget.exceeded())
+                throw e;
+            return budget.exceededResult();
+        } catch (OutOfMemoryError e) {
+            // the budget is an estimate, the validation is garbage by now
+            return budget.outOfMemoryResult();
+        }
+    }
+
+    /*
+     * validates within a budget of the limits, by a verifier of no limits which validates on the calling
+     * thread, classifies by the classifier of the budget and asks the budget whether to abort
+     */
+    private ValidationResult budgeted(AbortListener listener,
+                                      BiFunction<SjavaVerifier, AbortListener, ValidationResult> validation) {
+        ValidationBudget budget = new ValidationBudget(limits, listener);
+        SjavaVerifier verifier = new SjavaVerifier(budget.classifierOf(classifier), mapped, cache, null,
+                errorLimit, irCache, memoryLimit, null);
+        try {
+            return validation.apply(verifier, budget);
+        } catch (CancellationException e) {
+            if (!budget.exceeded())
+                throw e;
+            return budget.exceededResult();
+        } finally {
+            budget.close();
+        }
+    }
+
+    /*
+     * copies the stream to a temporary file, so it may be read twice, and validates the file
+     */
+    private static ValidationResult spooled(InputStream input, Function<Path, ValidationResult> validation) {
+        Path file = null;
+        try {
+            file = Files.createTempFile(SPOOL_PREFIX, SPOOL_SUFFIX);
+            Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+            return validation.apply(file);
+        } catch (IOException e) {
+            return new ValidationResult(ValidationResult.FILE_ERROR, e.getMessage());
+        } finally {
+            try {
+                if (file != null)
+                    Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // a temporary file which can't be deleted doesn't change the result
+            }
+        }
+    }
+
+    /*
+     * validates the code on the pool, or on the current thread if there is no pool
+     */
+    private ValidationResult validateText(String source, AbortListener listener) {
+        if (pool != null)
+            return new ParallelValidator(classifier, pool).validate(source, listener);
+        return validateSource(source, classifier, listener);
+    }
+
+    /*
+     * runs the validation with the classifier and the diagnostics, and with stats also counts the
+     * classifications, the allocated bytes and the lines answered by a line cache
+     */
+    private ValidationResult measured(ValidationStats stats,
+                                      BiFunction<LineClassifier, Diagnostics, ValidationResult> validation) {
+        if (stats == null)
+            return diagnosed(classifier, validation);
+        InstrumentedClassifier instrumented = new InstrumentedClassifier(classifier);
+        CachingClassifier lineCache = classifier instanceof CachingClassifier ? (CachingClassifier) classifier : null;
+        long hitsBefore = lineCache == null ? 0 : lineCache.hits();
+        long missesBefore = lineCache == null ? 0 : lineCache.misses();
+        long allocatedBefore = ValidationStats.allocatedBytes();
+        ValidationResult result = diagnosed(instrumented, validation);
+        if (allocatedBefore >= 0)
+            stats.setBytesAllocated(ValidationStats.allocatedBytes() - allocatedBefore);
+        stats.addClassifications(instrumented);
+        if (lineCache != null) // the cache may be shared, so only the lines of this validation are added
+            stats.addLineCache(lineCache.hits() - hitsBefore, lineCache.misses() - missesBefore);
+        return result;
+    }
+
+    /*
+     * runs the validation collecting its errors if the verifier has diagnostics. the errors of a file
+     * which could be read are the result
+     */
+    private ValidationResult diagnosed(LineClassifier lines,
+                                       BiFunction<LineClassifier, Diagnostics, ValidationResult> validation) {
+        if (errorLimit == FIRST_ERROR_ONLY)
+            return validation.apply(lines, null);
+        Diagnostics diagnostics = new Diagnostics(errorLimit);
+        ValidationResult result = validation.apply(lines, diagnostics);
+        if (diagnostics.isEmpty() || result.code() == ValidationResult.FILE_ERROR)
+            return result;
+        return diagnostics.result();
+    }
+
+    /*
+     * runs the validation inside a flight recorder event, once the flight recorder was initialized, and
+     * turns an unexpected error of the validator to a file error result
+     */
+    private static ValidationResult recorded(String path, Supplier<ValidationResult> validation) {
+        FileValidationEvent event = null;
+        if (FlightRecording.isEnabled()) {
+            event = new FileValidationEvent();
+            event.begin();
+        }
+        ValidationResult result;
+        try {
+            result = validation.get();
+        } catch (CancellationException e) {
+            throw e;
+        } catch (RuntimeException | StackOverflowError e) {
+            result = ValidationResult.internalError(e);
+        }
+        if (event != null) {
+            event.setResult(path, result);
+            event.commit();
+        }
+        return result;
+    }
+
+    /*
+     * runs the validation on the executor, aborting it once the future is cancelled
+     */
+    private static CompletableFuture<ValidationResult> async(Function<AbortListener, ValidationResult> validation,
+                                                            Executor executor) {
+        CompletableFuture<ValidationResult> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (future.isDone())
+                return;
+            try {
+                future.complete(validation.apply(future::isCancelled));
+            } catch (CancellationException e) {
+                future.cancel(false);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /*
+     * reads the whole input
+     */
+    private static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        int read;
+        while ((read = input.read(buffer)) != -1)
+            content.write(buffer, 0, read);
+        return content.toByteArray();
+    }
+}
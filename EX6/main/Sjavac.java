@@ -1,10 +1,16 @@
 package oop.ex6.main;
 
-import oop.ex6.parsing.StructureException;
+import oop.ex6.parsing.CachingClassifier;
+import oop.ex6.parsing.DispatchClassifier;
+import oop.ex6.parsing.LineClassifier;
+import oop.ex6.parsing.RegexClassifier;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Sjavac is in charge on reading Sjavac files.
@@ -12,51 +18,349 @@ import java.io.IOException;
  */
 public class Sjavac {
 
-    private static final int FILE_ERR_OUTPUT = 2;
-    private static final int CONTENT_ERR_OUTPUT = 1;
-    private static final int FILE_PASSED_OUTPUT = 0;
+    private static final int FILE_ERR_OUTPUT = ValidationResult.FILE_ERROR;
+    private static final int CONTENT_ERR_OUTPUT = ValidationResult.CONTENT_ERROR;
     private static final String ERROR_WRONG_USAGE =
-            "ERROR: Wrong usage. Should receive only one argument which is the file path.";
+            "ERROR: Wrong usage. Should receive only one argument which is the file path, " +
+                    "or " + Sjavac.BATCH_FLAG + " followed by files, directories or globs. " +
+                    "or " + Sjavac.PROJECT_FLAG + " followed by files, directories or globs of a single project. " +
+                    "or " + Sjavac.WATCH_FLAG + " followed by files or directories to validate on every change, " +
+                    "or " + Sjavac.SERVER_FLAG + " [" + Sjavac.PORT_OPTION + "<port>] to serve validation requests. " +
+                    "Options: " + Sjavac.CLASSIFIER_OPTION + "(dispatch|regex), " + Sjavac.MMAP_FLAG + ", " +
+                    Sjavac.PARALLEL_FLAG + ", " + Sjavac.CACHE_OPTION + "<directory>, " +
+                    Sjavac.IR_CACHE_OPTION + "<directory>, " + Sjavac.STATS_FLAG + ", " +
+                    Sjavac.ALL_ERRORS_FLAG + ", " + Sjavac.MAX_ERRORS_OPTION + "<count>, " + Sjavac.STREAM_FLAG +
+                    ", " + Sjavac.MAX_MEMORY_OPTION + "<bytes>[k|m|g], " + Sjavac.LINE_CACHE_OPTION + "<lines>, " +
+                    Sjavac.MAX_TIME_OPTION + "<ms>, " + Sjavac.MAX_LINES_OPTION + "<lines>, " +
+                    Sjavac.MAX_TOKENS_OPTION + "<tokens>, " + Sjavac.MAX_DEPTH_OPTION + "<scopes>";
+    private static final String STDIN_PATH = "-";
+    private static final String OPTION_PREFIX = "--";
+    private static final String BATCH_FLAG = "--batch";
+    private static final String MMAP_FLAG = "--mmap";
+    private static final String PARALLEL_FLAG = "--parallel";
+    private static final String SERVER_FLAG = "--server";
+    private static final String WATCH_FLAG = "--watch";
+    private static final String PROJECT_FLAG = "--project";
+    private static final String PORT_OPTION = "--port=";
+    private static final String CLASSIFIER_OPTION = "--classifier=";
+    private static final String CACHE_OPTION = "--cache=";
+    private static final String IR_CACHE_OPTION = "--ir-cache=";
+    private static final String STATS_FLAG = "--stats";
+    private static final String ALL_ERRORS_FLAG = "--all-errors";
+    private static final String MAX_ERRORS_OPTION = "--max-errors=";
+    private static final String STREAM_FLAG = "--stream";
+    private static final String MAX_MEMORY_OPTION = "--max-memory=";
+    private static final String LINE_CACHE_OPTION = "--line-cache=";
+    private static final String MAX_TIME_OPTION = "--max-time=";
+    private static final String MAX_LINES_OPTION = "--max-lines=";
+    private static final String MAX_TOKENS_OPTION = "--max-tokens=";
+    private static final String MAX_DEPTH_OPTION = "--max-depth=";
+    private static final String LINE_CACHE_SUMMARY = "line cache: %d hits, %d misses";
+    private static final String SIZE_UNITS = "kmg";
+    private static final int SIZE_UNIT_SHIFT = 10;
+    private static final String REGEX_CLASSIFIER = "regex";
+    private static final String DISPATCH_CLASSIFIER = "dispatch";
+    private static final int INVALID_PORT = -1;
+    private static final int FIRST_ERROR_ONLY = 0;
+    private static final int DEFAULT_ERROR_LIMIT = 100;
+    private static final int CACHE_ENTRIES = 100000;
+    private static final long NO_MEMORY_LIMIT = 0;
+    private static final int NO_LINE_CACHE = 0;
+    private static final long NO_LIMIT = ValidationLimits.NO_LIMIT;
+    // the default memory limit of streaming is this part of the heap.
+    private static final long DEFAULT_HEAP_SHARE = 2;
 
     /**
      * this method is in charge on getting args from the cmd, read it to a file and check if the file is valid.
+     * the file is read only once, "-" as the file path reads the standard input.
+     * with --batch, validates every sjava file of the given files, directories and globs.
+     * with --classifier=regex, classifies the lines with the regular expressions instead of the
+     * first word dispatch.
+     * with --mmap, reads the files through memory mapping.
+     * with --watch, validates the sjava files of the given files and directories, and validates again every
+     * file which is created or modified, until the process is stopped.
+     * with --project, validates every sjava file of the given files, directories and globs as a single
+     * project, whose methods see the global variables and the methods of all the files. with --watch too,
+     * validates the changed files again over the index of the project. a project can't be mapped or cached.
+     * with --server, serves validation requests of ValidationClient on the port of --port=.
+     * with --parallel, validates the methods of the file concurrently.
+     * with --cache=dir, answers files whose contents were already validated from a cache in the directory.
+     * with --ir-cache=dir, parses every file once into its IR and validates it over the IR, reading the IR
+     * of files whose contents were already parsed from a cache in the directory.
+     * with --stats, validates the file on a single thread without the cache, and prints the statistics of
+     * the validation as a json object to the error stream.
+     * with --all-errors, validates the whole file on a single thread without the cache, recovering after
+     * every error, and prints every error with its line to the error stream - at most 100 errors, or the
+     * count of --max-errors=.
+     * with --stream, reads every file twice instead of keeping it in the memory, so a file larger than the
+     * heap may be validated - a validation takes the memory of its current line and its symbols, at most
+     * half of the heap, or the size of --max-memory=, such as 64m. a file which needs more is a file error.
+     * with --line-cache=lines, remembers the kinds of up to the given number of lines, so the lines repeated
+     * in the files are classified once, and prints the lines answered by the cache to the error stream.
+     * with --max-time=ms, --max-lines=, --max-tokens= and --max-depth=scopes, validates every file on a
+     * single thread within the given budget, and a file whose validation exceeds it has the code 3 and the
+     * limit it exceeded as its message - so a single pathological file can't hold a worker of a batch or a
+     * server for long.
      * @param args cmd params.
      */
     public static void main(String[] args) {
-        if(!argsValidation(args)){
+        boolean batch = false;
+        boolean mapped = false;
+        boolean parallel = false;
+        boolean server = false;
+        boolean watch = false;
+        boolean project = false;
+        boolean stats = false;
+        boolean stream = false;
+        long memoryLimit = NO_MEMORY_LIMIT;
+        int lineCacheEntries = NO_LINE_CACHE;
+        ValidationLimits limits = new ValidationLimits();
+        int errorLimit = FIRST_ERROR_ONLY;
+        int port = ValidationServer.DEFAULT_PORT;
+        boolean validUsage = true;
+        LineClassifier classifier = new DispatchClassifier();
+        String cacheDirectory = null;
+        String irCacheDirectory = null;
+        List<String> paths = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals(BATCH_FLAG))
+                batch = true;
+            else if (arg.equals(MMAP_FLAG))
+                mapped = true;
+            else if (arg.equals(PARALLEL_FLAG))
+                parallel = true;
+            else if (arg.equals(SERVER_FLAG))
+                server = true;
+            else if (arg.equals(WATCH_FLAG))
+                watch = true;
+            else if (arg.equals(PROJECT_FLAG))
+                project = true;
+            else if (arg.equals(STATS_FLAG))
+                stats = true;
+            else if (arg.equals(STREAM_FLAG))
+                stream = true;
+            else if (arg.startsWith(LINE_CACHE_OPTION))
+                validUsage &= (lineCacheEntries = lineCacheOf(arg)) != NO_LINE_CACHE;
+            else if (arg.startsWith(MAX_MEMORY_OPTION))
+                validUsage &= (memoryLimit = memoryLimitOf(arg)) != NO_MEMORY_LIMIT;
+            else if (arg.startsWith(MAX_TIME_OPTION))
+                validUsage &= (limits = limits.withTime(limitOf(arg, MAX_TIME_OPTION))).millis() != NO_LIMIT;
+            else if (arg.startsWith(MAX_LINES_OPTION))
+                validUsage &= (limits = limits.withLines(limitOf(arg, MAX_LINES_OPTION))).lines() != NO_LIMIT;
+            else if (arg.startsWith(MAX_TOKENS_OPTION))
+                validUsage &= (limits = limits.withTokens(limitOf(arg, MAX_TOKENS_OPTION))).tokens() != NO_LIMIT;
+            else if (arg.startsWith(MAX_DEPTH_OPTION))
+                validUsage &= (limits = limits.withDepth(limitOf(arg, MAX_DEPTH_OPTION))).depth() != NO_LIMIT;
+            else if (arg.equals(ALL_ERRORS_FLAG))
+                errorLimit = errorLimit == FIRST_ERROR_ONLY ? DEFAULT_ERROR_LIMIT : errorLimit;
+            else if (arg.startsWith(MAX_ERRORS_OPTION))
+                validUsage &= (errorLimit = errorLimitOf(arg)) != FIRST_ERROR_ONLY;
+            else if (arg.startsWith(PORT_OPTION))
+                validUsage &= (port = portOf(arg)) != INVALID_PORT;
+            else if (arg.startsWith(CLASSIFIER_OPTION))
+                validUsage &= (classifier = classifierOf(arg)) != null;
+            else if (arg.startsWith(CACHE_OPTION))
+                cacheDirectory = arg.substring(CACHE_OPTION.length());
+            else if (arg.startsWith(IR_CACHE_OPTION))
+                irCacheDirectory = arg.substring(IR_CACHE_OPTION.length());
+            else if (arg.startsWith(OPTION_PREFIX))
+                validUsage = false;
+            else
+                paths.add(arg);
+        }
+        // the statistics and the errors list are of a single file, the watched files are printed as batch files
+        validUsage &= !((stats || errorLimit != FIRST_ERROR_ONLY) && (batch || server));
+        validUsage &= !(watch && (batch || server || stats));
+        // a project has a result line for every file, its errors are of the first failure of the file
+        validUsage &= !(project && (batch || server || stats || errorLimit != FIRST_ERROR_ONLY));
+        // streaming never keeps a whole file, as the other ways of reading do
+        validUsage &= !(stream && (server || project || parallel || mapped || cacheDirectory != null ||
+                irCacheDirectory != null));
+        validUsage &= stream || memoryLimit == NO_MEMORY_LIMIT;
+        // a budget is of a validation on a single thread, a project validates its files together
+        validUsage &= !(limits.isLimited() && (parallel || project));
+        // a project reads and indexes its files itself, with neither the mapping nor the caches of the verifier
+        validUsage &= !(project && (mapped || cacheDirectory != null || irCacheDirectory != null));
+        if (stream && memoryLimit == NO_MEMORY_LIMIT)
+            memoryLimit = Runtime.getRuntime().maxMemory() / DEFAULT_HEAP_SHARE;
+        CachingClassifier lineCache = null;
+        if (lineCacheEntries != NO_LINE_CACHE)
+            classifier = lineCache = new CachingClassifier(classifier, lineCacheEntries);
+        ResultCache cache;
+        IrCache irCache;
+        try {
+            cache = cacheDirectory == null ? null : new ResultCache(Paths.get(cacheDirectory), CACHE_ENTRIES);
+            irCache = irCacheDirectory == null ? null : new IrCache(Paths.get(irCacheDirectory));
+        } catch (IOException e) {
+            System.out.println(FILE_ERR_OUTPUT);
+            System.err.println(e.getMessage());
+            return;
+        }
+        SjavaVerifier verifier = new SjavaVerifier().withClassifier(classifier).withMapping(mapped)
+                .withCache(cache).withIrCache(irCache).withStreaming(memoryLimit).withLimits(limits);
+        if (validUsage && server && paths.isEmpty()) {
+            serve(port, verifier);
+            return;
+        }
+        if (!validUsage || !argsValidation(paths, batch || watch || project)){
             System.out.println(FILE_ERR_OUTPUT);
             System.err.println(ERROR_WRONG_USAGE);
+            return;
+        }
+        if (batch) {
+            new BatchValidator(System.out, verifier).run(paths);
+            printLineCache(lineCache);
+            return;
+        }
+        if (watch) {
+            watch(paths, verifier.withDiagnostics(errorLimit),
+                    project ? new ProjectValidator(classifier, ForkJoinPool.commonPool()) : null);
+            return;
+        }
+        if (project) {
+            new ProjectValidator(classifier, ForkJoinPool.commonPool()).run(paths, System.out);
+            printLineCache(lineCache);
+            return;
         }
-        String filePath = args[0];
-        try (FileReader fileReader1 = new FileReader(filePath);
-             BufferedReader reader1 = new BufferedReader(fileReader1);
-             FileReader fileReader2 = new FileReader(filePath);
-             BufferedReader reader2 = new BufferedReader(fileReader2)) {
-            Validator validator = new Validator(reader1, reader2);
-            validator.run();
+        ValidationStats validationStats = stats ? new ValidationStats() : null;
+        verifier = verifier.withPool(parallel ? ForkJoinPool.commonPool() : null).withDiagnostics(errorLimit);
+        ValidationResult result = validate(verifier, paths.get(0), validationStats);
+        System.out.println(result.code());
+        if (!result.diagnostics().isEmpty()) {
+            for (Diagnostic diagnostic : result.diagnostics())
+                System.err.println(diagnostic);
+        } else if (!result.passed())
+            System.err.println(result.message());
+        if (stats)
+            System.err.println(validationStats.toJson());
+        else
+            printLineCache(lineCache);
+    }
+
+    /*
+     * validates a single file, or the standard input if the path is "-"
+     */
+    private static ValidationResult validate(SjavaVerifier verifier, String filePath, ValidationStats stats) {
+        if (filePath.equals(STDIN_PATH))
+            return verifier.validate(System.in, null, stats);
+        try {
+            return verifier.validate(Paths.get(filePath), null, stats);
+        } catch (InvalidPathException e) {
+            return new ValidationResult(FILE_ERR_OUTPUT, e.getMessage());
         }
-        // Some File Exception
-        catch (IOException e){
+    }
+
+    /*
+     * runs a validation server until the process is stopped
+     */
+    private static void serve(int port, SjavaVerifier verifier) {
+        try {
+            new ValidationServer(port, verifier).run();
+        } catch (IOException e) {
             System.out.println(FILE_ERR_OUTPUT);
             System.err.println(e.getMessage());
-            return;
         }
-        // Some Validation Exception
-        catch (StructureException | LogicalException e){
-            System.out.println(CONTENT_ERR_OUTPUT);
+    }
+
+    /*
+     * validates the watched files on every change until the process is stopped
+     */
+    private static void watch(List<String> paths, SjavaVerifier verifier, ProjectValidator project) {
+        try {
+            new WatchValidator(System.out, verifier, project).run(paths);
+        } catch (IOException e) {
+            System.out.println(FILE_ERR_OUTPUT);
             System.err.println(e.getMessage());
-            return;
         }
-        // Code is OK
-        System.out.println(FILE_PASSED_OUTPUT);
+    }
+
+    /*
+     * returns the port of a --port= option, or INVALID_PORT if it isn't a number
+     */
+    private static int portOf(String option) {
+        try {
+            return Integer.parseInt(option.substring(PORT_OPTION.length()));
+        } catch (NumberFormatException e) {
+            return INVALID_PORT;
+        }
+    }
+
+    /*
+     * returns the count of a --max-errors= option, or FIRST_ERROR_ONLY if it isn't a positive number
+     */
+    private static int errorLimitOf(String option) {
+        try {
+            return Math.max(Integer.parseInt(option.substring(MAX_ERRORS_OPTION.length())), FIRST_ERROR_ONLY);
+        } catch (NumberFormatException e) {
+            return FIRST_ERROR_ONLY;
+        }
+    }
+
+    /*
+     * prints the lines answered by the line cache, if there is one
+     */
+    private static void printLineCache(CachingClassifier lineCache) {
+        if (lineCache != null)
+            System.err.println(String.format(LINE_CACHE_SUMMARY, lineCache.hits(), lineCache.misses()));
+    }
+
+    /*
+     * returns the lines of a --line-cache= option, or NO_LINE_CACHE if it isn't a positive number
+     */
+    private static int lineCacheOf(String option) {
+        try {
+            return Math.max(Integer.parseInt(option.substring(LINE_CACHE_OPTION.length())), NO_LINE_CACHE);
+        } catch (NumberFormatException e) {
+            return NO_LINE_CACHE;
+        }
+    }
+
+    /*
+     * returns the limit of a budget option, or NO_LIMIT if it isn't a positive number
+     */
+    private static long limitOf(String option, String name) {
+        try {
+            return Math.max(Long.parseLong(option.substring(name.length())), NO_LIMIT);
+        } catch (NumberFormatException e) {
+            return NO_LIMIT;
+        }
+    }
+
+    /*
+     * returns the bytes of a --max-memory= option, a number with an optional k, m or g unit, or
+     * NO_MEMORY_LIMIT if it isn't a positive size
+     */
+    private static long memoryLimitOf(String option) {
+        String size = option.substring(MAX_MEMORY_OPTION.length()).toLowerCase();
+        int unit = size.isEmpty() ? -1 : SIZE_UNITS.indexOf(size.charAt(size.length() - 1));
+        try {
+            long bytes = Long.parseLong(unit == -1 ? size : size.substring(0, size.length() - 1));
+            long unitBytes = 1L << (SIZE_UNIT_SHIFT * (unit + 1));
+            return bytes > 0 && bytes <= Long.MAX_VALUE / unitBytes ? bytes * unitBytes : NO_MEMORY_LIMIT;
+        } catch (NumberFormatException e) {
+            return NO_MEMORY_LIMIT;
+        }
+    }
+
+    /*
+     * returns the classifier of a --classifier= option, or null if it is unknown
+     */
+    private static LineClassifier classifierOf(String option) {
+        String name = option.substring(CLASSIFIER_OPTION.length());
+        if (name.equals(DISPATCH_CLASSIFIER))
+            return new DispatchClassifier();
+        if (name.equals(REGEX_CLASSIFIER))
+            return new RegexClassifier();
+        return null;
     }
 
     /**
      *
-     * @param args the received args.
-     * @return true if there are many args as needed.
+     * @param paths the received paths.
+     * @param batch true if validating in batch, watch or project mode.
+     * @return true if there are many paths as needed.
      */
-    private static boolean argsValidation(String[] args) {
-        return args.length == CONTENT_ERR_OUTPUT;
+    private static boolean argsValidation(List<String> paths, boolean batch) {
+        return batch ? !paths.isEmpty() : paths.size() == CONTENT_ERR_OUTPUT;
     }
 }
@@ -0,0 +1,307 @@
+package oop.ex6.main;
+
+import oop.ex6.parsing.LineClassifier;
+import oop.ex6.parsing.LineKind;
+import oop.ex6.parsing.SourceIndex;
+import oop.ex6.parsing.StructureException;
+import oop.ex6.parsing.Tokenizer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The outline of a file, split as the first run of Validator passes over it - the global lines, the
+ * skeleton of the file (the global lines and every method declaration followed by a closing line), and the
+ * lines of every method. The body of each method may then be validated on its own over the global scope
+ * validated from the skeleton. The file is split over its SourceIndex, which gives the lines of every
+ * method from its span, without counting its scopes again. The outline of an edited file is updated from
+ * the outline of its previous version, splitting again only the global lines and the methods the edit
+ * touched.
+ * @author Yotam Suliman and Edan Topper.
+ */
+class SourceOutline {
+
+    private static final String LINE_SEPARATOR = "\n";
+    private static final String CLOSING_LINE = "}";
+    private static final String VOID = "void";
+    private static final String OPENING_PARENTHESIS = "(";
+    private static final String CLOSING_PARENTHESIS = ")";
+    private static final String COMMA = ",";
+    private static final String FINAL = "final";
+    // the tokens of a declaration before its parameters - "void", the name and "(".
+    private static final int PARAMETERS_START = 3;
+    // the tokens of a declaration after its parameters - ")" and "{".
+    private static final int PARAMETERS_END = 2;
+    private static final int INITIAL_UNITS = 64;
+
+    // the units of the file in its order - a global line, or a method and its lines, null for a global line.
+    private final List<String> unitLines;
+    private final List<String> unitMethods;
+    // the offset in the file of the first line of every unit.
+    private int[] unitStarts;
+    private final StringBuilder globalLines;
+    private final StringBuilder skeleton;
+    private final List<String> names;
+    private final List<String> methods;
+
+    /*
+     * an empty outline, filled by its units
+     */
+    private SourceOutline() {
+        this.unitLines = new ArrayList<>();
+        this.unitMethods = new ArrayList<>();
+        this.unitStarts = new int[INITIAL_UNITS];
+        this.globalLines = new StringBuilder();
+        this.skeleton = new StringBuilder();
+        this.names = new ArrayList<>();
+        this.methods = new ArrayList<>();
+    }
+
+    /**
+     * splits a file to its outline.
+     * @param source the lines of the file.
+     * @param classifier the classifier of the lines.
+     * @return the outline of the file, or null if it can't be split - a global line which isn't a
+     * declaration or an assignment, a method declaration whose parameters the first run reads past its line,
+     * or a method whose scopes aren't closed. such a file is validated as a whole.
+     */
+    static SourceOutline split(String source, LineClassifier classifier) {
+        SourceOutline outline = new SourceOutline();
+        return outline.addAll(source, 0, classifier) ? outline.finish() : null;
+    }
+
+    /**
+     * splits a new version of a file to its outline, reusing the units of the previous version before and
+     * after the edit - every unit is split from its own text only, so a unit whose text didn't change is
+     * split the same. the units the edit touched are split again, and the whole file if they can't be split
+     * apart from the rest of it, such as a method which isn't closed any more before the units after it.
+     * @param previous the outline of the previous version, null to split the whole file.
+     * @param previousSource the lines of the previous version.
+     * @param source the lines of the new version.
+     * @param classifier the classifier of the lines.
+     * @return the outline of the new version, or null if it can't be split, as split.
+     */
+    static SourceOutline update(SourceOutline previous, String previousSource, String source,
+                                LineClassifier classifier) {
+        if (previous == null)
+            return split(source, classifier);
+        int prefix = commonPrefix(previousSource, source);
+        int suffixStart = previousSource.length() - commonSuffix(previousSource, source, prefix);
+        int units = previous.unitLines.size();
+        // the first unit whose text reaches the edit, and the first unit whose text and line start are after it
+        int first = 0;
+        while (first < units && previous.unitEnd(first, previousSource.length()) <= prefix)
+            first++;
+        int after = first;
+        while (after < units && previous.unitStarts[after] - 1 < suffixStart)
+            after++;
+        int shift = source.length() - previousSource.length();
+        int editStart = first == 0 ? 0 : previous.unitStarts[first];
+        int editEnd = after == units ? source.length() : previous.unitStarts[after] + shift;
+        SourceOutline outline = new SourceOutline();
+        for (int i = 0; i < first; i++)
+            outline.addUnit(previous.unitStarts[i], previous.unitLines.get(i), previous.unitMethods.get(i));
+        if (!outline.addAll(source.substring(editStart, editEnd), editStart, classifier))
+            return split(source, classifier);
+        for (int i = after; i < units; i++)
+            outline.addUnit(previous.unitStarts[i] + shift, previous.unitLines.get(i), previous.unitMethods.get(i));
+        return outline.finish();
+    }
+
+    /**
+     *
+     * @param lines lines of sjava code.
+     * @return a tokenizer of the lines.
+     */
+    static Tokenizer tokensOf(String lines) {
+        try {
+            return new Tokenizer(new BufferedReader(new StringReader(lines)));
+        } catch (IOException e) {
+            // a String is read without any IO
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     *
+     * @return the global lines of the file.
+     */
+    String globalLines() {
+        return globalLines.toString();
+    }
+
+    /**
+     *
+     * @return the global lines and the methods declarations of the file.
+     */
+    String skeleton() {
+        return skeleton.toString();
+    }
+
+    /**
+     *
+     * @return the number of methods of the file.
+     */
+    int methodsCount() {
+        return methods.size();
+    }
+
+    /**
+     *
+     * @param i the index of a method in the file.
+     * @return the name of the method.
+     */
+    String methodName(int i) {
+        return names.get(i);
+    }
+
+    /**
+     *
+     * @param i the index of a method in the file.
+     * @return the lines of the method, from its declaration to its closing line.
+     */
+    String methodLines(int i) {
+        return methods.get(i);
+    }
+
+    /*
+     * adds the units of the text, which starts at the given offset of the file. returns false if the text
+     * can't be split
+     */
+    private boolean addAll(String text, int offset, LineClassifier classifier) {
+        SourceIndex index = SourceIndex.of(text);
+        try {
+            int statement = 0;
+            while (statement < index.statements()) {
+                statement = add(index, offset, statement, classifier);
+                if (statement == SourceIndex.NONE)
+                    return false;
+            }
+        } catch (StructureException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /*
+     * adds the global line or the method starting at the given statement. returns the statement after it,
+     * or NONE if it can't be split
+     */
+    private int add(SourceIndex index, int offset, int statement, LineClassifier classifier)
+            throws StructureException {
+        String line = index.text(statement);
+        LineKind lineKind = classifier.classify(line);
+        if (lineKind == LineKind.METHOD_DEC) {
+            if (!isDeclarationOnItsLine(line))
+                return SourceIndex.NONE;
+            int end = index.closingStatement(statement);
+            if (end == SourceIndex.NONE)
+                return SourceIndex.NONE;
+            StringBuilder method = new StringBuilder();
+            for (int i = statement; i <= end; i++)
+                method.append(index.text(i)).append(LINE_SEPARATOR);
+            addUnit(offset + index.offset(statement), line, method.toString());
+            return end + 1;
+        }
+        if (lineKind == LineKind.VAR_DEC || lineKind == LineKind.ASSIGNMENT) {
+            addUnit(offset + index.offset(statement), line, null);
+            return statement + 1;
+        }
+        return SourceIndex.NONE;
+    }
+
+    private void addUnit(int start, String line, String method) {
+        if (unitLines.size() == unitStarts.length)
+            unitStarts = Arrays.copyOf(unitStarts, unitStarts.length * 2);
+        unitStarts[unitLines.size()] = start;
+        unitLines.add(line);
+        unitMethods.add(method);
+    }
+
+    /*
+     * the offset after the text of a unit - where the next unit starts, or after the end of the file, as
+     * text appended to the file may continue the last line
+     */
+    private int unitEnd(int unit, int sourceLength) {
+        return unit + 1 < unitLines.size() ? unitStarts[unit + 1] : sourceLength + 1;
+    }
+
+    /*
+     * collects the global lines, the skeleton and the methods from the units
+     */
+    private SourceOutline finish() {
+        for (int i = 0; i < unitLines.size(); i++) {
+            String line = unitLines.get(i);
+            String method = unitMethods.get(i);
+            skeleton.append(line).append(LINE_SEPARATOR);
+            if (method == null) {
+                globalLines.append(line).append(LINE_SEPARATOR);
+                continue;
+            }
+            skeleton.append(CLOSING_LINE).append(LINE_SEPARATOR);
+            names.add(nameOf(line));
+            methods.add(method);
+        }
+        return this;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i))
+            i++;
+        return i;
+    }
+
+    /*
+     * the length of the common suffix of the strings, which doesn't overlap their common prefix
+     */
+    private static int commonSuffix(String a, String b, int prefix) {
+        int length = Math.min(a.length(), b.length()) - prefix;
+        int i = 0;
+        while (i < length && a.charAt(a.length() - 1 - i) == b.charAt(b.length() - 1 - i))
+            i++;
+        return i;
+    }
+
+    /*
+     * returns true if the first run reads the parameters of the declaration up to the "{" ending its line.
+     * a declaration the classifier accepts wrongly, such as of a parameter of no name, is read on into the
+     * next lines, so the method doesn't start and end where its span does
+     */
+    private static boolean isDeclarationOnItsLine(String declaration) {
+        List<String> tokens = new ArrayList<>();
+        Tokenizer tokenizer = tokensOf(declaration);
+        try {
+            while (tokenizer.curCommand() != null) {
+                tokens.add(tokenizer.curToken());
+                tokenizer.advance();
+            }
+        } catch (IOException e) {
+            // a String is read without any IO
+            throw new IllegalStateException(e);
+        }
+        // as getParams of Validator: an optional "," and "final", then a type and a name, until ")"
+        int i = PARAMETERS_START;
+        while (i < tokens.size() && !tokens.get(i).equals(CLOSING_PARENTHESIS)) {
+            if (tokens.get(i).equals(COMMA))
+                i++;
+            if (i < tokens.size() && tokens.get(i).equals(FINAL))
+                i++;
+            i += 2;
+        }
+        return i == tokens.size() - PARAMETERS_END;
+    }
+
+    /*
+     * returns the name of the method of a method declaration line
+     */
+    private static String nameOf(String declaration) {
+        int start = declaration.indexOf(VOID) + VOID.length();
+        return declaration.substring(start, declaration.indexOf(OPENING_PARENTHESIS)).trim();
+    }
+}
@@ -0,0 +1,136 @@
+package oop.ex6.main;
+
+import oop.ex6.parsing.LineClassifier;
+import oop.ex6.parsing.RegexClassifier;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The budget of a single validation, of the limits of the verifier. Counts the lines the validation asks
+ * it about, and before every line reads the tokens and the open scopes of the validator it watches. The
+ * time is watched by a watchdog thread, which only marks the budget as expired at its deadline - so asking
+ * the budget only reads a flag - and the classifications of a regex classifier read the flag too, so a
+ * line the expressions backtrack over is stopped while it is matched. A validation over its budget is
+ * aborted, and its worker is free for the next validation.
+ * @author Yotam Suliman and Edan Topper.
+ */
+class ValidationBudget implements AbortListener {
+
+    private static final String TIME_ERR = "The validation took more than the time budget of %d ms";
+    private static final String LINES_ERR = "The validation exceeded the budget of %d lines";
+    private static final String TOKENS_ERR = "The validation exceeded the budget of %d tokens";
+    private static final String DEPTH_ERR = "The validation exceeded the budget of %d nested scopes";
+    private static final String WATCHDOG_NAME = "sjava-budget-watchdog";
+    // a single thread for the deadlines of all the budgets, which never keeps the process alive.
+    private static final ScheduledThreadPoolExecutor WATCHDOG = watchdog();
+
+    private final ValidationLimits limits;
+    private final AbortListener listener;
+    private final ScheduledFuture<?> deadline;
+    private volatile boolean expired;
+    private Validator validator;
+    private long lines;
+    private String exceeded;
+
+    /**
+     * constructor. the time of the budget starts.
+     * @param limits the limits of the validation.
+     * @param listener the listener of the validation, asked whether to abort it as well, null to abort only
+     *                 when the budget is exceeded.
+     */
+    ValidationBudget(ValidationLimits limits, AbortListener listener) {
+        this.limits = limits;
+        this.listener = listener;
+        this.expired = false;
+        this.deadline = limits.millis() == ValidationLimits.NO_LIMIT ? null :
+                WATCHDOG.schedule(() -> expired = true, limits.millis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     *
+     * @param classifier the classifier of the verifier.
+     * @return the classifier of the validation - a regex classifier which stops matching once the time is up,
+     * if the time is limited, and otherwise the classifier itself.
+     */
+    LineClassifier classifierOf(LineClassifier classifier) {
+        if (deadline != null && classifier instanceof RegexClassifier)
+            return new RegexClassifier(() -> expired);
+        return classifier;
+    }
+
+    /**
+     * reads the tokens and the open scopes of the validator before every line.
+     * @param validator the validator which asks the budget.
+     */
+    @Override
+    public void watch(Validator validator) {
+        this.validator = validator;
+        if (listener != null)
+            listener.watch(validator);
+    }
+
+    @Override
+    public boolean shouldAbort() {
+        lines++;
+        if (exceeded == null)
+            exceeded = exceededLimit();
+        return exceeded != null || (listener != null && listener.shouldAbort());
+    }
+
+    /*
+     * the message of the limit the validation exceeded, null if it is within its budget
+     */
+    private String exceededLimit() {
+        if (expired)
+            return String.format(TIME_ERR, limits.millis());
+        if (limits.lines() != ValidationLimits.NO_LIMIT && lines > limits.lines())
+            return String.format(LINES_ERR, limits.lines());
+        if (validator == null)
+            return null;
+        if (limits.tokens() != ValidationLimits.NO_LIMIT && validator.tokensRead() > limits.tokens())
+            return String.format(TOKENS_ERR, limits.tokens());
+        if (limits.depth() != ValidationLimits.NO_LIMIT && validator.depth() > limits.depth())
+            return String.format(DEPTH_ERR, limits.depth());
+        return null;
+    }
+
+    /**
+     *
+     * @return true if the validation was stopped since it exceeded the budget.
+     */
+    boolean exceeded() {
+        return exceeded != null || expired;
+    }
+
+    /**
+     *
+     * @return the result of a validation which exceeded the budget.
+     */
+    ValidationResult exceededResult() {
+        String message = exceeded != null ? exceeded : String.format(TIME_ERR, limits.millis());
+        return new ValidationResult(ValidationResult.BUDGET_EXCEEDED, message);
+    }
+
+    /**
+     * ends the budget, cancelling its deadline.
+     */
+    void close() {
+        if (deadline != null)
+            deadline.cancel(false);
+    }
+
+    /*
+     * a scheduler of a single daemon thread, which forgets the deadlines of the budgets which ended
+     */
+    private static ScheduledThreadPoolExecutor watchdog() {
+        ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, WATCHDOG_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.setRemoveOnCancelPolicy(true);
+        return watchdog;
+    }
+}
@@ -0,0 +1,99 @@
+package oop.ex6.main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A small client of ValidationServer - sends a single file (or the standard input for "-") to the server
+ * and prints the code and the message exactly as Sjavac does.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class ValidationClient {
+
+    private static final String PORT_OPTION = "--port=";
+    private static final String STDIN_PATH = "-";
+    private static final String LINE_SEPARATOR = "\n";
+    private static final String ERROR_WRONG_USAGE =
+            "ERROR: Wrong usage. Should receive only one argument which is the file path, " +
+                    "and optionally " + PORT_OPTION + "<port>";
+    private static final String NO_RESPONSE = "No response from the validation server";
+
+    /**
+     * sends the file of the args to the server and prints its result.
+     * @param args cmd params - the file path, and optionally --port=port.
+     */
+    public static void main(String[] args) {
+        int port = ValidationServer.DEFAULT_PORT;
+        List<String> paths = new ArrayList<>();
+        try {
+            for (String arg : args) {
+                if (arg.startsWith(PORT_OPTION))
+                    port = Integer.parseInt(arg.substring(PORT_OPTION.length()));
+                else
+                    paths.add(arg);
+            }
+        } catch (NumberFormatException e) {
+            paths.clear();
+        }
+        if (paths.size() != 1) {
+            System.out.println(ValidationResult.FILE_ERROR);
+            System.err.println(ERROR_WRONG_USAGE);
+            return;
+        }
+        ValidationResult result;
+        try {
+            result = request(port, paths.get(0));
+        } catch (IOException e) {
+            result = new ValidationResult(ValidationResult.FILE_ERROR, e.getMessage());
+        }
+        System.out.println(result.code());
+        if (!result.passed())
+            System.err.println(result.message());
+    }
+
+    /*
+     * sends a request of the file to the server on the port and reads the response
+     */
+    private static ValidationResult request(int port, String filePath) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            if (filePath.equals(STDIN_PATH))
+                sendSource(out);
+            else
+                out.print(ValidationServer.PATH_REQUEST + Paths.get(filePath).toAbsolutePath() + LINE_SEPARATOR);
+            out.flush();
+            String response = in.readLine();
+            if (response == null)
+                throw new IOException(NO_RESPONSE);
+            int separator = response.indexOf(ValidationServer.SEPARATOR);
+            return new ValidationResult(Integer.parseInt(response.substring(0, separator)),
+                    response.substring(separator + 1));
+        }
+    }
+
+    /*
+     * sends the standard input as a SOURCE request
+     */
+    private static void sendSource(PrintWriter out) throws IOException {
+        List<String> lines = new ArrayList<>();
+        BufferedReader stdin = new BufferedReader(new InputStreamReader(System.in));
+        String line;
+        while ((line = stdin.readLine()) != null)
+            lines.add(line);
+        out.print(ValidationServer.SOURCE_REQUEST + lines.size() + LINE_SEPARATOR);
+        for (String sourceLine : lines)
+            out.print(sourceLine + LINE_SEPARATOR);
+    }
+}
@@ -0,0 +1,109 @@
+package oop.ex6.main;
+
+/**
+ * The budget of a single validation - the most time it may take, and the most lines, tokens and nested
+ * scopes it may validate - so a pathological file, such as of a deep nesting or of a line the regular
+ * expressions backtrack over, can't keep a worker of a batch or a server for long. A validation over its
+ * budget ends with the BUDGET_EXCEEDED result code. The limits are immutable, the with methods return
+ * limits with another limit, and a limit of 0 is no limit.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class ValidationLimits {
+
+    /** the value of a limit which isn't set */
+    public static final long NO_LIMIT = 0;
+
+    private final long millis;
+    private final long lines;
+    private final long tokens;
+    private final long depth;
+
+    /**
+     * constructor of limits which limit nothing.
+     */
+    public ValidationLimits() {
+        this(NO_LIMIT, NO_LIMIT, NO_LIMIT, NO_LIMIT);
+    }
+
+    /*
+     * limits of the given values
+     */
+    private ValidationLimits(long millis, long lines, long tokens, long depth) {
+        this.millis = Math.max(millis, NO_LIMIT);
+        this.lines = Math.max(lines, NO_LIMIT);
+        this.tokens = Math.max(tokens, NO_LIMIT);
+        this.depth = Math.max(depth, NO_LIMIT);
+    }
+
+    /**
+     * @param millis the most milliseconds a validation may take, from its start to its result.
+     * @return limits of the given time.
+     */
+    public ValidationLimits withTime(long millis) {
+        return new ValidationLimits(millis, lines, tokens, depth);
+    }
+
+    /**
+     * @param lines the most lines a validation may validate, counting the lines of both of its passes.
+     * @return limits of the given lines.
+     */
+    public ValidationLimits withLines(long lines) {
+        return new ValidationLimits(millis, lines, tokens, depth);
+    }
+
+    /**
+     * @param tokens the most tokens a validation may advance over, counting the tokens of both passes.
+     * @return limits of the given tokens.
+     */
+    public ValidationLimits withTokens(long tokens) {
+        return new ValidationLimits(millis, lines, tokens, depth);
+    }
+
+    /**
+     * @param depth the most scopes which may be open at once, a method being the first of them.
+     * @return limits of the given depth.
+     */
+    public ValidationLimits withDepth(long depth) {
+        return new ValidationLimits(millis, lines, tokens, depth);
+    }
+
+    /**
+     *
+     * @return the most milliseconds of a validation, NO_LIMIT if it isn't limited.
+     */
+    public long millis() {
+        return millis;
+    }
+
+    /**
+     *
+     * @return the most lines of a validation, NO_LIMIT if they aren't limited.
+     */
+    public long lines() {
+        return lines;
+    }
+
+    /**
+     *
+     * @return the most tokens of a validation, NO_LIMIT if they aren't limited.
+     */
+    public long tokens() {
+        return tokens;
+    }
+
+    /**
+     *
+     * @return the most scopes open at once, NO_LIMIT if they aren't limited.
+     */
+    public long depth() {
+        return depth;
+    }
+
+    /**
+     *
+     * @return true if any of the limits is set.
+     */
+    public boolean isLimited() {
+        return millis != NO_LIMIT || lines != NO_LIMIT || tokens != NO_LIMIT || depth != NO_LIMIT;
+    }
+}
@@ -0,0 +1,34 @@
+package oop.ex6.main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event of a single pass of the validator over a file. Costs almost nothing when
+ * the flight recorder isn't recording, and is created only once it was initialized.
+ * @author Yotam Suliman and Edan Topper.
+ */
+@Name("oop.ex6.ValidationPhase")
+@Label("Validation Phase")
+@Category("Sjavac")
+@Description("A pass of the validator over a file")
+class ValidationPhaseEvent extends Event {
+
+    @Label("Phase")
+    private String phase;
+
+    /**
+     *
+     * @param phase the name of the pass.
+     * @return a started event of the pass.
+     */
+    static ValidationPhaseEvent started(String phase) {
+        ValidationPhaseEvent event = new ValidationPhaseEvent();
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+}
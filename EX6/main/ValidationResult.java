@@ -0,0 +1,91 @@
+package oop.ex6.main;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of validating a single sjava file - the output code, the error message and, when all the
+ * errors of the file were collected, the errors with their lines.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class ValidationResult {
+
+    /** the code of a file which passed the validation */
+    public static final int PASSED = 0;
+    /** the code of a file with illegal code */
+    public static final int CONTENT_ERROR = 1;
+    /** the code of a file which could not be read */
+    public static final int FILE_ERROR = 2;
+    /** the code of a file whose validation exceeded the budget of the verifier, see ValidationLimits */
+    public static final int BUDGET_EXCEEDED = 3;
+
+    private static final String NO_MESSAGE = "";
+    private static final String INTERNAL_ERROR = "Internal error: ";
+
+    private final int code;
+    private final String message;
+    private final List<Diagnostic> diagnostics;
+
+    /**
+     * constructor.
+     * @param code the output code of the validation.
+     * @param message the error message, null or empty if the file passed.
+     */
+    ValidationResult(int code, String message) {
+        this(code, message, Collections.emptyList());
+    }
+
+    /**
+     * constructor.
+     * @param code the output code of the validation.
+     * @param message the error message, null or empty if the file passed.
+     * @param diagnostics the errors of the file, in the order of their lines.
+     */
+    ValidationResult(int code, String message, List<Diagnostic> diagnostics) {
+        this.code = code;
+        this.message = message == null ? NO_MESSAGE : message;
+        this.diagnostics = Collections.unmodifiableList(diagnostics);
+    }
+
+    /**
+     * the result of a validation which failed on an unexpected error of the validator.
+     * @param error the unexpected error.
+     * @return a file error result with the error as its message.
+     */
+    static ValidationResult internalError(Throwable error) {
+        return new ValidationResult(FILE_ERROR, INTERNAL_ERROR + error);
+    }
+
+    /**
+     *
+     * @return the output code of the validation.
+     */
+    public int code() {
+        return code;
+    }
+
+    /**
+     *
+     * @return the error message, empty if the file passed.
+     */
+    public String message() {
+        return message;
+    }
+
+    /**
+     *
+     * @return the errors of the file in the order of their lines, empty unless the verifier collects
+     * all the errors.
+     */
+    public List<Diagnostic> diagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     *
+     * @return true if the file passed the validation.
+     */
+    public boolean passed() {
+        return code == PASSED;
+    }
+}
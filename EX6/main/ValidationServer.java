@@ -0,0 +1,203 @@
+package oop.ex6.main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * A long running validation server on a loopback socket, so a check doesn't pay for the start of a JVM.
+ * Every connection sends requests, one after the other, and receives a response line for each:
+ * <pre>
+ *     PATH &lt;path&gt;            validates the file of the path
+ *     SOURCE &lt;lines count&gt;    validates the lines which follow the request line
+ * </pre>
+ * The response is the code and the message separated by a tab. A source has at most 1M lines of 64M chars
+ * all together, and a source the connection ends in the middle of is a bad request. Every request is
+ * validated by the shared SjavaVerifier, so requests handled at the same time share no mutable state.
+ * Every connection has a thread of its own, but only as many requests as processors are validated at a
+ * time, so idle clients can't starve the others. A connection which sends nothing for 30 seconds is closed.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class ValidationServer {
+
+    /** the port the server listens on if no other port is given */
+    public static final int DEFAULT_PORT = 47606;
+
+    // protocol constants.
+    static final String PATH_REQUEST = "PATH ";
+    static final String SOURCE_REQUEST = "SOURCE ";
+    static final String SEPARATOR = "\t";
+    private static final String LINE_SEPARATOR = "\n";
+    private static final String STDIN_PATH = "-";
+    private static final String BAD_REQUEST = "Bad request: ";
+    private static final String LISTENING = "Listening on port ";
+    private static final int IDLE_TIMEOUT_MILLIS = 30000;
+    private static final int ACCEPT_RETRY_MILLIS = 100;
+    private static final int MAX_SOURCE_LINES = 1 << 20;
+    private static final int MAX_SOURCE_CHARS = 1 << 26;
+    private static final String SOURCE_TOO_LARGE = "Source is longer than %d chars";
+
+    // warm up constants - a program with every kind of line, validated before accepting requests.
+    private static final int WARM_UP_ROUNDS = 5000;
+    private static final String WARM_UP_PROGRAM = String.join(LINE_SEPARATOR,
+            "// warm up",
+            "int a = 5, b;",
+            "final double d = -2.5;",
+            "String s = \"s\";",
+            "char c = 'c';",
+            "boolean flag = true;",
+            "b = a;",
+            "void foo(int x, final String y) {",
+            "    int z = x;",
+            "    if (flag || x && true) {",
+            "        while (d) {",
+            "            z = 3, c = 'd';",
+            "            bar(z, 2.5);",
+            "        }",
+            "    }",
+            "    return;",
+            "}",
+            "void bar(int x, double y) {",
+            "    foo(x, s);",
+            "    return;",
+            "}");
+
+    // class fields.
+    private final int port;
+    private final SjavaVerifier verifier;
+    private final Semaphore validations = new Semaphore(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * constructor.
+     * @param port the port to listen on.
+     * @param verifier the verifier of the requests, shared by all of them.
+     */
+    public ValidationServer(int port, SjavaVerifier verifier) {
+        this.port = port;
+        this.verifier = verifier;
+    }
+
+    /**
+     * warms up the validation code and serves requests until the process is stopped.
+     * @throws IOException if the server socket can't be opened.
+     */
+    public void run() throws IOException {
+        warmUp(verifier);
+        ExecutorService pool = Executors.newCachedThreadPool();
+        try (ServerSocket serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+            System.err.println(LISTENING + serverSocket.getLocalPort());
+            while (!Thread.currentThread().isInterrupted() && !serverSocket.isClosed()) {
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (IOException e) {
+                    // such as running out of file descriptors under load - the connections after it may be served
+                    System.err.println(e.getMessage());
+                    pause();
+                    continue;
+                }
+                pool.execute(() -> serve(socket));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * validates the warm up program enough times for the JIT to compile the validation code.
+     * @param verifier the verifier to warm up.
+     */
+    static void warmUp(SjavaVerifier verifier) {
+        for (int i = 0; i < WARM_UP_ROUNDS; i++)
+            verifier.validate(WARM_UP_PROGRAM);
+    }
+
+    /*
+     * answers the requests of a single connection
+     */
+    private void serve(Socket socket) {
+        try (Socket connection = socket;
+             BufferedReader in = new BufferedReader(
+                     new BoundedLineReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8),
+                             MAX_SOURCE_CHARS));
+             PrintWriter out = new PrintWriter(
+                     new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8), true)) {
+            connection.setSoTimeout(IDLE_TIMEOUT_MILLIS);
+            String request;
+            while ((request = in.readLine()) != null) {
+                ValidationResult result = handle(request, in);
+                out.print(result.code() + SEPARATOR + result.message().replace(LINE_SEPARATOR, " ") +
+                        LINE_SEPARATOR);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // the client went away, was idle for too long or sent too much - nothing to answer
+        }
+    }
+
+    /*
+     * validates a single request
+     */
+    private ValidationResult handle(String request, BufferedReader in) throws IOException {
+        try {
+            if (request.startsWith(PATH_REQUEST) && !request.equals(PATH_REQUEST + STDIN_PATH)) {
+                Path path = Paths.get(request.substring(PATH_REQUEST.length()));
+                return validate(() -> verifier.validate(path));
+            }
+            if (request.startsWith(SOURCE_REQUEST)) {
+                int lines = Integer.parseInt(request.substring(SOURCE_REQUEST.length()).trim());
+                if (lines < 0 || lines > MAX_SOURCE_LINES)
+                    return new ValidationResult(ValidationResult.FILE_ERROR, BAD_REQUEST + request);
+                StringBuilder source = new StringBuilder();
+                for (int i = 0; i < lines; i++) {
+                    String line = in.readLine();
+                    if (line == null) // the source ended before its lines, so it isn't validated as if it's whole
+                        return new ValidationResult(ValidationResult.FILE_ERROR, BAD_REQUEST + request);
+                    source.append(line).append(LINE_SEPARATOR);
+                    if (source.length() > MAX_SOURCE_CHARS)
+                        throw new IOException(String.format(SOURCE_TOO_LARGE, MAX_SOURCE_CHARS));
+                }
+                return validate(() -> verifier.validate(source));
+            }
+        } catch (NumberFormatException | InvalidPathException e) {
+            return new ValidationResult(ValidationResult.FILE_ERROR, BAD_REQUEST + request);
+        }
+        return new ValidationResult(ValidationResult.FILE_ERROR, BAD_REQUEST + request);
+    }
+
+    /*
+     * waits a little before accepting again, keeping the interrupt which stops the server
+     */
+    private static void pause() {
+        try {
+            Thread.sleep(ACCEPT_RETRY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * runs a validation once a processor is free for it, so the reading of requests never waits for one
+     */
+    private ValidationResult validate(Supplier<ValidationResult> validation) {
+        validations.acquireUninterruptibly();
+        try {
+            return validation.get();
+        } finally {
+            validations.release();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package oop.ex6.main;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The state of an incremental validation of a file - the result of validating a version of the file, and
+ * the validated global scope and methods, so the next version re-validates only what changed.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class ValidationState {
+
+    private final ValidationResult result;
+    private final String source;
+    private final SourceOutline outline;
+    private final Validator globalScope;
+    private final Map<String, MethodState> methods;
+
+    /**
+     * constructor.
+     * @param result the result of the validation.
+     * @param source the lines of the file.
+     * @param outline the outline of the file, null if nothing of the file may be reused.
+     * @param globalScope a validator which validated the skeleton, null if the skeleton is illegal.
+     * @param methods the states of the methods by their names.
+     */
+    ValidationState(ValidationResult result, String source, SourceOutline outline, Validator globalScope,
+                    Map<String, MethodState> methods) {
+        this.result = result;
+        this.source = source;
+        this.outline = outline;
+        this.globalScope = globalScope;
+        this.methods = methods;
+    }
+
+    /**
+     * a state of a file which was validated as a whole, so nothing of it may be reused.
+     * @param result the result of the validation.
+     */
+    ValidationState(ValidationResult result) {
+        this(result, null, null, null, Collections.emptyMap());
+    }
+
+    /**
+     *
+     * @return the result of validating the file.
+     */
+    public ValidationResult result() {
+        return result;
+    }
+
+    /**
+     *
+     * @return the lines of the file, null if nothing of the file may be reused.
+     */
+    String source() {
+        return source;
+    }
+
+    /**
+     *
+     * @return the outline of the file, null if nothing of the file may be reused.
+     */
+    SourceOutline outline() {
+        return outline;
+    }
+
+    /**
+     *
+     * @return a validator which validated the skeleton, null if the skeleton is illegal.
+     */
+    Validator globalScope() {
+        return globalScope;
+    }
+
+    /**
+     *
+     * @param name the name of a method.
+     * @return the state of the method, null if the file had no such method or it wasn't validated.
+     */
+    MethodState method(String name) {
+        return methods.get(name);
+    }
+}
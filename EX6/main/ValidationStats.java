@@ -0,0 +1,251 @@
+package oop.ex6.main;
+
+import oop.ex6.parsing.InstrumentedClassifier;
+import oop.ex6.parsing.LineKind;
+import oop.ex6.parsing.TokenStream;
+import oop.ex6.symbol_table.SymbolTableManager;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The statistics of the validation of a file - the time of each pass of the validator, the lines read and
+ * skipped, the number and time of the classifications of each kind of line, the symbols looked up and the
+ * scopes opened and closed, the bytes allocated, and the lines answered by the line cache when the lines
+ * are classified through a CachingClassifier. Printed as a json object by --stats.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class ValidationStats {
+
+    private static final long NOT_AVAILABLE = -1;
+    private static final LineKind[] KINDS = LineKind.values();
+    private static final String INVALID = "invalid";
+
+    private final Map<String, Long> phaseNanos;
+    private final long[] classified;
+    private final long[] classifyNanos;
+    private long invalidLines;
+    private long invalidNanos;
+    private long linesRead;
+    private long linesSkipped;
+    private long symbolLookups;
+    private long symbolMisses;
+    private long scopesOpened;
+    private long scopesClosed;
+    private long bytesAllocated;
+    private long lineCacheHits;
+    private long lineCacheMisses;
+
+    /**
+     * constructor of empty statistics.
+     */
+    public ValidationStats() {
+        this.phaseNanos = new LinkedHashMap<>();
+        this.classified = new long[KINDS.length];
+        this.classifyNanos = new long[KINDS.length];
+        this.bytesAllocated = NOT_AVAILABLE;
+        this.lineCacheHits = NOT_AVAILABLE;
+        this.lineCacheMisses = NOT_AVAILABLE;
+    }
+
+    /**
+     *
+     * @param phase the name of a pass of the validator - firstRun or secondRun.
+     * @return the time of the pass, in nanoseconds.
+     */
+    public long phaseNanos(String phase) {
+        return phaseNanos.getOrDefault(phase, 0L);
+    }
+
+    /**
+     *
+     * @return the number of lines read, including the skipped lines.
+     */
+    public long linesRead() {
+        return linesRead;
+    }
+
+    /**
+     *
+     * @return the number of comment lines and empty lines skipped.
+     */
+    public long linesSkipped() {
+        return linesSkipped;
+    }
+
+    /**
+     *
+     * @param kind a kind of line.
+     * @return the number of classifications of lines of the kind.
+     */
+    public long classified(LineKind kind) {
+        return classified[kind.ordinal()];
+    }
+
+    /**
+     *
+     * @param kind a kind of line.
+     * @return the time of the classifications of lines of the kind, in nanoseconds.
+     */
+    public long classifyNanos(LineKind kind) {
+        return classifyNanos[kind.ordinal()];
+    }
+
+    /**
+     *
+     * @return the number of symbols looked up.
+     */
+    public long symbolLookups() {
+        return symbolLookups;
+    }
+
+    /**
+     *
+     * @return the number of symbols looked up which weren't declared, such as literals.
+     */
+    public long symbolMisses() {
+        return symbolMisses;
+    }
+
+    /**
+     *
+     * @return the number of bytes allocated by the validation, -1 if the platform doesn't count them.
+     */
+    public long bytesAllocated() {
+        return bytesAllocated;
+    }
+
+    /**
+     *
+     * @return the lines answered by the line cache, -1 if the lines weren't classified through a cache.
+     */
+    public long lineCacheHits() {
+        return lineCacheHits;
+    }
+
+    /**
+     *
+     * @return the lines the line cache classified, -1 if the lines weren't classified through a cache.
+     */
+    public long lineCacheMisses() {
+        return lineCacheMisses;
+    }
+
+    /**
+     *
+     * @return the statistics as a single line json object.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"phases\":{");
+        String separator = "";
+        for (Map.Entry<String, Long> phase : phaseNanos.entrySet()) {
+            json.append(separator).append('"').append(phase.getKey()).append("\":").append(phase.getValue());
+            separator = ",";
+        }
+        json.append("},\"lines\":{\"read\":").append(linesRead)
+                .append(",\"skipped\":").append(linesSkipped)
+                .append("},\"classifications\":{");
+        for (LineKind kind : KINDS)
+            appendClassification(json, kind.name(), classified[kind.ordinal()], classifyNanos[kind.ordinal()]);
+        appendClassification(json, INVALID, invalidLines, invalidNanos);
+        json.setLength(json.length() - 1);
+        json.append("},\"symbols\":{\"lookups\":").append(symbolLookups)
+                .append(",\"misses\":").append(symbolMisses)
+                .append("},\"scopes\":{\"opened\":").append(scopesOpened)
+                .append(",\"closed\":").append(scopesClosed)
+                .append("},\"bytesAllocated\":")
+                .append(bytesAllocated == NOT_AVAILABLE ? "null" : String.valueOf(bytesAllocated))
+                .append(",\"lineCache\":");
+        if (lineCacheHits == NOT_AVAILABLE)
+            json.append("null");
+        else
+            json.append("{\"hits\":").append(lineCacheHits).append(",\"misses\":").append(lineCacheMisses).append('}');
+        json.append('}');
+        return json.toString();
+    }
+
+    // ***************************** //
+    // ********* recording ********* //
+    // ***************************** //
+
+    /**
+     * adds the time of a pass of the validator.
+     * @param phase the name of the pass.
+     * @param nanos the time of the pass, in nanoseconds.
+     */
+    void addPhase(String phase, long nanos) {
+        phaseNanos.merge(phase, nanos, Long::sum);
+    }
+
+    /**
+     * adds the lines read by the tokens.
+     * @param tokens the tokens of the file.
+     */
+    void addLines(TokenStream tokens) {
+        linesRead += tokens.linesRead();
+        linesSkipped += tokens.linesSkipped();
+    }
+
+    /**
+     * adds the lookups and the scopes of the symbol table.
+     * @param symbols the symbol table of the validation.
+     */
+    void addSymbols(SymbolTableManager symbols) {
+        symbolLookups += symbols.lookups();
+        symbolMisses += symbols.misses();
+        scopesOpened += symbols.scopesOpened();
+        scopesClosed += symbols.scopesClosed();
+    }
+
+    /**
+     * adds the classifications counted by the classifier.
+     * @param classifier the classifier of the validation.
+     */
+    void addClassifications(InstrumentedClassifier classifier) {
+        for (LineKind kind : KINDS) {
+            classified[kind.ordinal()] += classifier.count(kind);
+            classifyNanos[kind.ordinal()] += classifier.nanos(kind);
+        }
+        invalidLines += classifier.invalidCount();
+        invalidNanos += classifier.invalidNanos();
+    }
+
+    /**
+     * sets the bytes allocated by the validation.
+     * @param bytes the allocated bytes.
+     */
+    void setBytesAllocated(long bytes) {
+        this.bytesAllocated = bytes;
+    }
+
+    /**
+     * adds the lines the line cache answered and the lines it classified.
+     * @param hits the lines answered from the cache.
+     * @param misses the lines the cache classified.
+     */
+    void addLineCache(long hits, long misses) {
+        lineCacheHits = Math.max(lineCacheHits, 0) + hits;
+        lineCacheMisses = Math.max(lineCacheMisses, 0) + misses;
+    }
+
+    /**
+     *
+     * @return the bytes allocated so far by the current thread, -1 if the platform doesn't count them.
+     */
+    static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counting = (com.sun.management.ThreadMXBean) threads;
+            if (counting.isThreadAllocatedMemorySupported() && counting.isThreadAllocatedMemoryEnabled())
+                return counting.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return NOT_AVAILABLE;
+    }
+
+    private static void appendClassification(StringBuilder json, String name, long count, long nanos) {
+        json.append('"').append(name).append("\":{\"count\":").append(count)
+                .append(",\"nanos\":").append(nanos).append("},");
+    }
+}
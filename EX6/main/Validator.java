@@ -1,15 +1,26 @@
 package oop.ex6.main;
 
 import oop.ex6.parsing.Classifier;
+import oop.ex6.parsing.DispatchClassifier;
+import oop.ex6.parsing.LineClassifier;
+import oop.ex6.parsing.LineKind;
 import oop.ex6.parsing.StructureException;
+import oop.ex6.parsing.TokenStream;
 import oop.ex6.parsing.Tokenizer;
+import oop.ex6.parsing.Type;
 import oop.ex6.symbol_table.SymbolTableManager;
 import oop.ex6.symbol_table.VarData;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.regex.Pattern;
 
 /**
  * Validator of the sjava file. Checks that the sjava file is written in the
@@ -54,18 +65,38 @@ public class Validator {
 
     //************* Constants ***********/
     private static final String FINAL = "final";
+    private static final String VOID = "void";
     private static final String SEMI_COL = ";";
     private static final String EQUAL_SIGN = "=";
     private static final String CLOSING_PARENTHESIS = ")";
-    private static final String BOOLEAN = "boolean";
     private static final String COMMA = ",";
+    private static final String LINE_SEPARATOR = "\n";
+    private static final String FIRST_RUN_PHASE = "firstRun";
+    private static final String SECOND_RUN_PHASE = "secondRun";
+    private static final String VALIDATION_ABORTED = "The validation was aborted";
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-zA-Z_]\\w*");
+    // the signature of a method whose declaration failed, which accepts every call.
+    private static final Type[] POISONED_METHOD = new Type[0];
 
     //************* Fields ***********/
-    private final BufferedReader reader2;
+    private final TokenStream secondRunTokenizer;
+    private final StringBuilder methodLines;
     private final SymbolTableManager symbolTableManager;
-    private final HashMap<String, ArrayList<String>> funcMap;
+    private final Map<String, Type[]> funcMap;
+    private final LineClassifier classifier;
     private int curScope;
-    private Tokenizer tokenizer;
+    private TokenStream tokenizer;
+    private Set<String> calledMethods;
+    private ValidationStats stats;
+    private AbortListener abortListener;
+    private Diagnostics diagnostics;
+    private long recordedLines;
+    // the tokens read by the first pass, once the second pass reads other tokens.
+    private long firstRunTokens;
+    // the lines the first pass validated a method declaration on, when collecting diagnostics.
+    private Set<Long> methodDeclarations;
+    // the line the last method of the second pass ended on, whose rest the first pass didn't validate.
+    private long methodEndLine;
 
     /**
      * Constructs a new Validator object
@@ -74,24 +105,355 @@ public class Validator {
      * @throws IOException in case there is a problem with the reader
      */
     public Validator(BufferedReader reader1, BufferedReader reader2) throws IOException {
-        this.tokenizer = new Tokenizer(reader1);
+        this(reader1, reader2, new DispatchClassifier());
+    }
+
+    /**
+     * Constructs a new Validator object
+     * @param reader1 reader for the first pass
+     * @param reader2 reader for the second pass
+     * @param classifier the classifier of the lines
+     * @throws IOException in case there is a problem with the reader
+     */
+    public Validator(BufferedReader reader1, BufferedReader reader2, LineClassifier classifier)
+            throws IOException {
+        this(new Tokenizer(reader1), new Tokenizer(reader2), classifier);
+    }
+
+    /**
+     * Constructs a new Validator object which reads its input only once.
+     * The global scope and the methods signatures are collected while the input streams,
+     * and the lines of the methods are kept aside so their bodies (and the calls to methods
+     * declared later in the file) are validated once the end of the input is reached.
+     * @param reader reader of the whole input, may be a pipe or the standard input
+     * @throws IOException in case there is a problem with the reader
+     */
+    public Validator(BufferedReader reader) throws IOException {
+        this(reader, new DispatchClassifier());
+    }
+
+    /**
+     * Constructs a new Validator object which reads its input only once.
+     * @param reader reader of the whole input, may be a pipe or the standard input
+     * @param classifier the classifier of the lines
+     * @throws IOException in case there is a problem with the reader
+     */
+    public Validator(BufferedReader reader, LineClassifier classifier) throws IOException {
+        this(new Tokenizer(reader), null, classifier);
+    }
+
+    /**
+     * Constructs a new Validator object over two token streams of the same file
+     * @param firstRun tokens for the first pass
+     * @param secondRun tokens for the second pass, null to keep the methods lines aside in the first pass
+     * @param classifier the classifier of the lines
+     */
+    public Validator(TokenStream firstRun, TokenStream secondRun, LineClassifier classifier) {
+        this.classifier = classifier;
+        this.tokenizer = firstRun;
         this.symbolTableManager = new SymbolTableManager();
         this.funcMap = new HashMap<>();
         this.curScope = 0;
-        this.reader2 = reader2;
+        this.secondRunTokenizer = secondRun;
+        this.methodLines = secondRun == null ? new StringBuilder() : null;
+    }
+
+    /**
+     * Constructs a new Validator object of methods only, over the global scope and the methods
+     * signatures of another validator which already ran its first pass. The global scope isn't changed.
+     * @param globals a validator which already validated the global scope
+     * @param methods tokens of the methods to validate
+     * @param classifier the classifier of the lines
+     */
+    Validator(Validator globals, TokenStream methods, LineClassifier classifier) {
+        this.classifier = classifier;
+        this.tokenizer = methods;
+        this.symbolTableManager = globals.symbolTableManager.globalScopeView();
+        this.funcMap = globals.funcMap;
+        this.curScope = 0;
+        this.secondRunTokenizer = methods;
+        this.methodLines = null;
     }
 
     /**
-     * runs the Validator and validate the file
+     * Constructs a new Validator object of methods only, over the global declarations and the methods
+     * signatures of every file of a project. The index isn't changed.
+     * @param index the global index of the project
+     * @param methods tokens of the methods to validate
+     * @param classifier the classifier of the lines
+     */
+    Validator(GlobalIndex index, TokenStream methods, LineClassifier classifier) {
+        this.classifier = classifier;
+        this.tokenizer = methods;
+        this.symbolTableManager = index.scopeView();
+        this.funcMap = index.signatures();
+        this.curScope = 0;
+        this.secondRunTokenizer = methods;
+        this.methodLines = null;
+    }
+
+    /**
+     * runs the Validator and validate the file. when collecting diagnostics, the errors are collected
+     * instead of thrown.
+     * @throws CancellationException if the abort listener aborted the validation
      * @throws StructureException in case of a line structure problem
      * @throws LogicalException in case of a logical problem
      * @throws IOException in case of a problem with the file
      */
     public void run() throws StructureException, LogicalException, IOException {
+        TokenStream input = tokenizer;
+        try {
+            long start = System.nanoTime();
+            ValidationPhaseEvent phase = phaseStarted(FIRST_RUN_PHASE);
+            try {
+                firstRun();
+            } finally {
+                phaseEnded(FIRST_RUN_PHASE, phase, start);
+            }
+            start = System.nanoTime();
+            phase = phaseStarted(SECOND_RUN_PHASE);
+            try {
+                secondRun();
+            } finally {
+                phaseEnded(SECOND_RUN_PHASE, phase, start);
+            }
+        } catch (StructureException | LogicalException e) {
+            // the error which reached the limit of the diagnostics stops the validation
+            if (diagnostics == null || !diagnostics.isFull())
+                throw e;
+        } finally {
+            if (stats != null) {
+                stats.addLines(input);
+                stats.addSymbols(symbolTableManager);
+            }
+        }
+    }
+
+    /**
+     * keeps the statistics of the validation in the given stats - the time of each pass, the lines read
+     * and the symbols looked up. the classifications are counted by an InstrumentedClassifier.
+     * @param stats the statistics to add to, null to keep none.
+     */
+    void recordStats(ValidationStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * asks the listener before every line whether to abort the validation.
+     * @param abortListener the listener, null to never abort.
+     */
+    void abortWhen(AbortListener abortListener) {
+        this.abortListener = abortListener;
+        if (abortListener != null)
+            abortListener.watch(this);
+    }
+
+    /**
+     * collects every error of the file into the given diagnostics instead of stopping at the first one -
+     * the validation recovers after an error by skipping its line, or the whole block of a line which
+     * opens a scope. a declaration which failed is kept as if it succeeded, and a method whose declaration
+     * failed accepts every call, so an error isn't reported again by the lines using its declaration.
+     * @param diagnostics the diagnostics to add the errors to, null to throw the first error.
+     */
+    void collectDiagnostics(Diagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+        this.methodDeclarations = diagnostics == null ? null : new HashSet<>();
+    }
+
+    /**
+     * validates the global scope and collects the methods signatures, without the methods bodies.
+     * @throws StructureException in case of a line structure problem
+     * @throws LogicalException in case of a logical problem
+     * @throws IOException in case of a problem with the file
+     */
+    void validateGlobalScope() throws StructureException, LogicalException, IOException {
         firstRun();
+    }
+
+    /**
+     * validates the methods bodies, after the global scope was validated.
+     * @throws StructureException in case of a line structure problem
+     * @throws LogicalException in case of a logical problem
+     * @throws IOException in case of a problem with the file
+     */
+    void validateMethods() throws StructureException, LogicalException, IOException {
         secondRun();
     }
 
+    /**
+     * collects the names of the methods called while validating into the given set.
+     * @param calls the set to add the called methods to
+     */
+    void collectCalls(Set<String> calls) {
+        this.calledMethods = calls;
+    }
+
+    /**
+     *
+     * @return the methods signatures - the types of the parameters of each method.
+     */
+    Map<String, Type[]> signatures() {
+        return funcMap;
+    }
+
+    /**
+     *
+     * @return the variables declared in the global scope by their names.
+     */
+    Map<String, VarData> globals() {
+        return symbolTableManager.globals();
+    }
+
+    /**
+     *
+     * @return the number of the symbols the validator keeps - the identifiers, the bindings of the open
+     * scopes and the methods signatures.
+     */
+    long symbolsCount() {
+        return symbolTableManager.symbolsCount() + funcMap.size();
+    }
+
+    /**
+     *
+     * @return the number of the tokens the validator advanced over, in both passes.
+     */
+    long tokensRead() {
+        return firstRunTokens + tokenizer.tokensRead();
+    }
+
+    /**
+     *
+     * @return the number of the scopes open at the current line, a method being the first of them.
+     */
+    int depth() {
+        return curScope;
+    }
+
+    /**
+     *
+     * @return the lines of the methods kept aside by the first pass, when the input is read only once.
+     */
+    String methodLines() {
+        return methodLines.toString();
+    }
+
+    /*
+     * throws a CancellationException if the listener asks to abort the validation
+     */
+    private void checkAbort() {
+        if (abortListener != null && abortListener.shouldAbort())
+            throw new CancellationException(VALIDATION_ABORTED);
+    }
+
+    /*
+     * adds the error of the line to the diagnostics. returns false if the error should be thrown instead -
+     * when the diagnostics aren't collected, or when the error reaches their limit and stops the validation
+     */
+    private boolean collect(Exception error, long line) {
+        if (diagnostics == null || diagnostics.isFull())
+            return false;
+        diagnostics.add(line, error.getMessage());
+        return !diagnostics.isFull();
+    }
+
+    /*
+     * reports a logical error of the current line, which the validation of the line continues after
+     * when collecting diagnostics
+     */
+    private void error(String message) throws LogicalException {
+        LogicalException error = new LogicalException(message);
+        if (!collect(error, tokenizer.lineNumber()))
+            throw error;
+    }
+
+    /*
+     * skips the current line, and the whole block if the line opens a scope - counting the scopes as
+     * the first run does for the body of a method
+     */
+    private void skipBlock() throws IOException {
+        int depth = 0;
+        do {
+            if (tokenizer.opensScope())
+                depth++;
+            else if (tokenizer.closesScope())
+                depth--;
+            tokenizer.advanceLine();
+        } while (depth > 0 && tokenizer.curCommand() != null);
+    }
+
+    /*
+     * when a line which failed looks like a declaration, declares what it declares as if it succeeded -
+     * its variables as initialized variables of their type, and a method as a method which accepts every
+     * call - so the lines using them don't report its error again
+     */
+    private void poisonDeclaration(String curCommand) throws IOException {
+        TokenStream tokens = new Tokenizer(new BufferedReader(new StringReader(curCommand)));
+        if (tokens.curCommand() == null)
+            return;
+        if (tokens.isToken(VOID)) {
+            tokens.advance(); // go after "void"
+            if (tokens.curCommand() != null && NAME_PATTERN.matcher(tokens.curToken()).matches())
+                funcMap.putIfAbsent(tokens.curToken(), POISONED_METHOD);
+            return;
+        }
+        boolean isFinal = tokens.isToken(FINAL);
+        if (isFinal)
+            tokens.advance(); // go after "final"
+        Type type = tokens.curCommand() == null ? null : Type.of(tokens.curToken());
+        if (type == null)
+            return;
+        tokens.advance(); // go after the type
+        boolean isName = true; // the names follow the type and the commas
+        while (tokens.curCommand() != null) {
+            String token = tokens.curToken();
+            if (isName && NAME_PATTERN.matcher(token).matches()) {
+                int varName = symbolTableManager.intern(token);
+                if (!symbolTableManager.isOnCurrentScope(varName))
+                    symbolTableManager.add(varName, type, isFinal, true);
+            }
+            isName = token.equals(COMMA);
+            tokens.advance();
+        }
+    }
+
+    /*
+     * returns true if the current token isn't the given token and the file didn't end - at the end of the
+     * file the last token stays the current one, so a loop over the tokens of a line the classifier accepted
+     * wrongly, which nothing else ends, ends there instead of collecting that token forever
+     */
+    private boolean isBeforeInFile(String token) {
+        return tokenizer.curCommand() != null && !tokenizer.isToken(token);
+    }
+
+    /*
+     * returns true if the current line is of the given kind, false for a line of another kind or an
+     * illegal line
+     */
+    private boolean isKind(LineKind kind) {
+        try {
+            return tokenizer.lineKind(classifier) == kind;
+        } catch (StructureException e) {
+            return false;
+        }
+    }
+
+    /*
+     * the started event of a pass, null if the flight recorder wasn't initialized
+     */
+    private static ValidationPhaseEvent phaseStarted(String phase) {
+        return FlightRecording.isEnabled() ? ValidationPhaseEvent.started(phase) : null;
+    }
+
+    /*
+     * commits the event of a pass, if there is one, and adds its time to the stats, if they are kept
+     */
+    private void phaseEnded(String phase, ValidationPhaseEvent event, long startNanos) {
+        if (event != null)
+            event.commit();
+        if (stats != null)
+            stats.addPhase(phase, System.nanoTime() - startNanos);
+    }
+
     // ***************************** //
     // *******FirstRunFunctions***** //
     // ***************************** //
@@ -103,16 +465,37 @@ public class Validator {
     private void firstRun() throws StructureException, LogicalException, IOException {
         symbolTableManager.openScope(); // init the globalScope
         while (tokenizer.curCommand() != null){
-            String lineType = Classifier.classify(tokenizer.curCommand());
-            if (lineType.equals(Classifier.METHOD_DEC)){
+            checkAbort();
+            long line = tokenizer.lineNumber();
+            try {
+                validateGlobalLine();
+            } catch (StructureException | LogicalException e) {
+                if (!collect(e, line))
+                    throw e;
+                if (tokenizer.lineNumber() == line && tokenizer.curCommand() != null) {
+                    poisonDeclaration(tokenizer.curCommand());
+                    skipBlock();
+                }
+            }
+        }
+    }
+
+    /*
+     * validates a single line of the global scope, with the body of a method declared on it
+     */
+    private void validateGlobalLine() throws StructureException, LogicalException, IOException {
+        switch (tokenizer.lineKind(classifier)) {
+            case METHOD_DEC:
                 validateMethodDec();
-            } else if (lineType.equals(Classifier.VAR_DEC)) {
+                break;
+            case VAR_DEC:
                 validateVarDec();
-            } else if (lineType.equals(Classifier.ASSIGNMENT)) {
+                break;
+            case ASSIGNMENT:
                 validateAssignment();
-            } else {
-                    throw new LogicalException(INVALID_LINE_IN_THE_GLOBAL_SCOPE_ERR);
-            }
+                break;
+            default:
+                throw new LogicalException(INVALID_LINE_IN_THE_GLOBAL_SCOPE_ERR);
         }
     }
 
@@ -122,7 +505,7 @@ public class Validator {
     private void validateAssignment() throws IOException, LogicalException {
         // assumes structure is legal
         validateSingleAssignment();
-        while(tokenizer.curToken().equals(COMMA)){
+        while(tokenizer.isToken(COMMA)){
             tokenizer.advance(); // go after ","
             validateSingleAssignment();
         }
@@ -133,7 +516,7 @@ public class Validator {
      * Validate a single assignment <var> = <value>
      */
     private void validateSingleAssignment() throws LogicalException, IOException {
-        String assignedVar = tokenizer.curToken();
+        int assignedVar = symbolTableManager.idOf(tokenizer.curToken());
         VarData varData = symbolTableManager.getVarData(assignedVar);
         if (varData == null || varData.isFinal()) // if final should be initialized
             throw new LogicalException(TRYING_TO_ASSIGN_A_VALUE_TO_UNDECLARED_VARIABLE_ERR);
@@ -144,18 +527,9 @@ public class Validator {
         }
         tokenizer.advance(); // go after assignedVar
         tokenizer.advance(); // go after "="
-        String value = tokenizer.curToken();
-        VarData valueData = symbolTableManager.getVarData(value);
-        if (valueData == null){
-            if (!Classifier.matchTypes(Classifier.type(value), varData.type()))
-                throw new LogicalException(TRYING_TO_ASSIGN_A_VALUE_FROM_A_NON_MATCHING_CONSTANT_ERR);
-        }
-        else if (!valueData.initialized()){
-            throw new LogicalException(TRYING_TO_ASSIGN_A_VALUE_FROM_UNINITIALIZED_VARIABLE_ERR);
-        } else if (!Classifier.matchTypes(valueData.type(), varData.type())){
-            throw new LogicalException(TRYING_TO_ASSIGN_A_VALUE_FROM_A_NON_TYPE_MATCHING_VARIABLE_ERR);
-        }
-        varData.setInitialized(true);
+        validateValue(tokenizer.curToken(), varData.type());
+        if (!varData.initialized()) // the variable is of the current scope, a shared global scope isn't written
+            symbolTableManager.setInitialized(assignedVar);
         tokenizer.advance(); // go after value
     }
 
@@ -163,89 +537,137 @@ public class Validator {
      * Validate a Var Declaration line
      */
     private void validateVarDec() throws IOException, LogicalException {
-        boolean isFinal = (tokenizer.curToken().equals(FINAL));
+        boolean isFinal = (tokenizer.isToken(FINAL));
         if (isFinal){
             tokenizer.advance(); // go after "final"
         }
-        String type = tokenizer.curToken();
+        Type type = Type.of(tokenizer.curToken());
         tokenizer.advance(); // go after the type
-        while(!tokenizer.curToken().equals(SEMI_COL)){
+        while(!tokenizer.isToken(SEMI_COL)){
             boolean initialized = false;
-            if (tokenizer.curToken().equals(COMMA))
+            if (tokenizer.isToken(COMMA))
                 tokenizer.advance(); // go after the ","
-            String varName = tokenizer.curToken();
+            int varName = symbolTableManager.intern(tokenizer.curToken());
             tokenizer.advance(); // go after the varName
-            if (isFinal && !tokenizer.curToken().equals(EQUAL_SIGN))
-                throw new LogicalException(DECLARING_A_FINAL_VARIABLE_WITHOUT_ASSIGNING_A_VALUE_ERR);
-            if (tokenizer.curToken().equals(EQUAL_SIGN)){
+            if (isFinal && !tokenizer.isToken(EQUAL_SIGN)) {
+                error(DECLARING_A_FINAL_VARIABLE_WITHOUT_ASSIGNING_A_VALUE_ERR);
+                initialized = true; // the final variable is kept as if it had a value
+            }
+            if (tokenizer.isToken(EQUAL_SIGN)){
                 tokenizer.advance(); // go after the "="
-                String value = tokenizer.curToken();
-                VarData valueData = symbolTableManager.getVarData(value);
-                if (valueData == null){
-                    if (!Classifier.matchTypes(Classifier.type(value), type))
-                        throw new LogicalException(TRYING_TO_ASSIGN_A_VALUE_FROM_A_NON_MATCHING_CONSTANT_ERR);
-                }
-                else if (!valueData.initialized()){
-                    throw new LogicalException(TRYING_TO_ASSIGN_A_VALUE_FROM_UNINITIALIZED_VARIABLE_ERR);
-                } else if (!Classifier.matchTypes(valueData.type(), type)){
-                    throw new LogicalException(
-                            Validator.TRYING_TO_ASSIGN_A_VALUE_FROM_A_NON_TYPE_MATCHING_VARIABLE_ERR);
-                }
+                validateValue(tokenizer.curToken(), type);
                 initialized = true;
                 tokenizer.advance(); // go after value
             }
             if (symbolTableManager.isOnCurrentScope(varName))
-                throw new LogicalException(PARAMETERS_IN_THE_SAME_SCOPE_WITH_SAME_NAME_ERR);
-            symbolTableManager.add(varName, type, isFinal, initialized);
+                error(PARAMETERS_IN_THE_SAME_SCOPE_WITH_SAME_NAME_ERR); // the first variable is kept
+            else
+                symbolTableManager.add(varName, type, isFinal, initialized);
         }
         tokenizer.advance(); // go after ";"
     }
 
     /*
-     * validate the method Dec - adds it to funcMap and skips all the lines inside the body
+     * Validate a value assigned to a variable of the given type - a literal, or an initialized variable.
+     * the variable is still assigned when the value is reported and the validation continues
+     */
+    private void validateValue(String value, Type type) throws LogicalException {
+        VarData valueData = symbolTableManager.getVarData(value);
+        if (valueData == null){
+            if (!Classifier.matchTypes(Classifier.type(value), type))
+                error(TRYING_TO_ASSIGN_A_VALUE_FROM_A_NON_MATCHING_CONSTANT_ERR);
+        }
+        else if (!valueData.initialized()){
+            error(TRYING_TO_ASSIGN_A_VALUE_FROM_UNINITIALIZED_VARIABLE_ERR);
+        } else if (!Classifier.matchTypes(valueData.type(), type)){
+            error(TRYING_TO_ASSIGN_A_VALUE_FROM_A_NON_TYPE_MATCHING_VARIABLE_ERR);
+        }
+    }
+
+    /*
+     * validate the method Dec - adds it to funcMap and skips all the lines inside the body. a stream which
+     * knows where the method ends jumps over its body, unless its lines are kept aside for the second run
      */
     private void validateMethodDec() throws IOException, LogicalException {
-        tokenizer.advance(); // go after "void"
+        if (methodDeclarations != null)
+            methodDeclarations.add(tokenizer.lineNumber());
+        recordMethodLine(tokenizer.curCommand());
+        advanceDeclaration(); // go after "void"
         String funcName = tokenizer.curToken();
         if (funcMap.containsKey(funcName))
-            throw new LogicalException(FUNCTIONS_WITH_SAME_NAME_ERR);
-        tokenizer.advance(); // go after funcName
-        tokenizer.advance(); // go after "("
-        ArrayList<String> varTypes = getParams();
-        tokenizer.advance(); // go after ")"
-        funcMap.put(funcName, varTypes);
-        tokenizer.advance(); // go after "{"
+            error(FUNCTIONS_WITH_SAME_NAME_ERR); // the first method of the name is kept
+        advanceDeclaration(); // go after funcName
+        advanceDeclaration(); // go after "("
+        Type[] varTypes = getParams();
+        advanceDeclaration(); // go after ")"
+        funcMap.putIfAbsent(funcName, varTypes);
+        if (methodLines == null && tokenizer.skipScope()) {
+            tokenizer.advanceLine(); // go after the line closing the method
+            return;
+        }
+        advanceDeclaration(); // go after "{"
         curScope++;
         while(curScope != 0){
-            if (tokenizer.curCommand() == null)
-                throw new LogicalException(NON_MATCHING_NUMBER_OF_SCOPES_OPENED_AND_SCOPES_CLOSED_ERR);
-            String curCommand = tokenizer.curCommand();
-            if (Classifier.isOpenScopeLine(curCommand))
+            checkAbort();
+            if (tokenizer.curCommand() == null) {
+                curScope = 0;
+                error(NON_MATCHING_NUMBER_OF_SCOPES_OPENED_AND_SCOPES_CLOSED_ERR);
+                return;
+            }
+            recordMethodLine(tokenizer.curCommand());
+            if (tokenizer.opensScope())
                 curScope++;
-            else if(Classifier.isCloseScopeLine(curCommand))
+            else if(tokenizer.closesScope())
                 curScope--;
             tokenizer.advanceLine();
         }
     }
 
+    /*
+     * keeps a line of a method aside for the second run, when the input is read only once - once, even if
+     * the line is recorded again. when collecting diagnostics, the lines between the methods are kept as
+     * empty lines, so the lines of the second run have their numbers in the file
+     */
+    private void recordMethodLine(String line) {
+        if (methodLines == null || tokenizer.lineNumber() <= recordedLines)
+            return;
+        if (diagnostics != null) {
+            for (long skipped = recordedLines + 1; skipped < tokenizer.lineNumber(); skipped++)
+                methodLines.append(LINE_SEPARATOR);
+        }
+        recordedLines = tokenizer.lineNumber();
+        methodLines.append(line).append(LINE_SEPARATOR);
+    }
+
+    /*
+     * advances to the next token of a method declaration, keeping the line it moves to aside - a
+     * declaration the classifier accepted wrongly, such as of a parameter of no name, reads on into the
+     * next lines, and the second run has to read the same lines
+     */
+    private void advanceDeclaration() throws IOException {
+        tokenizer.advance();
+        if (tokenizer.curCommand() != null)
+            recordMethodLine(tokenizer.curCommand());
+    }
+
     /*
      * returns the params inside the bracket
      */
-    private ArrayList<String> getParams() throws IOException {
-        ArrayList<String> params = new ArrayList<>();
-        while(!tokenizer.curToken().equals(CLOSING_PARENTHESIS)){
-            if (tokenizer.curToken().equals(COMMA)){
-                tokenizer.advance(); // go after ","
+    private Type[] getParams() throws IOException {
+        ArrayList<Type> params = new ArrayList<>();
+        while(isBeforeInFile(CLOSING_PARENTHESIS)){
+            if (tokenizer.isToken(COMMA)){
+                advanceDeclaration(); // go after ","
             }
-            if (tokenizer.curToken().equals(FINAL)){
-                tokenizer.advance(); // go after "final"
+            if (tokenizer.isToken(FINAL)){
+                advanceDeclaration(); // go after "final"
             }
-            String type = tokenizer.curToken();
-            tokenizer.advance(); // go after type
-            tokenizer.advance(); // go after varName
+            Type type = Type.of(tokenizer.curToken());
+            advanceDeclaration(); // go after type
+            advanceDeclaration(); // go after varName
             params.add(type);
         }
-        return params;
+        return params.toArray(new Type[0]);
     }
 
 
@@ -254,43 +676,91 @@ public class Validator {
     // ***************************** //
 
     /*
-     * runs over the whole program and validate all
+     * runs over the whole program and validate all.
+     * when the input is read only once, runs over the methods kept aside in the first run -
+     * the global lines were already validated there.
      */
     private void secondRun() throws IOException, StructureException, LogicalException {
-        tokenizer = new Tokenizer(reader2);
+        if (secondRunTokenizer != tokenizer)
+            firstRunTokens += tokenizer.tokensRead();
+        if (secondRunTokenizer != null)
+            tokenizer = secondRunTokenizer;
+        else
+            tokenizer = new Tokenizer(new BufferedReader(new StringReader(methodLines.toString())));
         while (tokenizer.curCommand() != null){
+            if (diagnostics != null && !isSecondRunLine(tokenizer.lineNumber()))
+                tokenizer.advanceLine(); // the global lines, and the lines which failed, were reported
+            else if (verifyRecovering())
+                tokenizer.advanceLine(); // the rest of the line which ended a method closes a scope again
+        }
+    }
+
+    /*
+     * when collecting diagnostics, returns true if the top-level line is validated by the second run - a
+     * method the first run declared, or the rest of the line the last method ended on. the first run
+     * reported the errors of the other lines, and skipped the blocks of the lines which failed
+     */
+    private boolean isSecondRunLine(long line) {
+        return line == methodEndLine || methodDeclarations.contains(line);
+    }
+
+    /*
+     * verifies a statement, and when collecting diagnostics reports its error and skips its line, or the
+     * whole block of a line which opens a scope.
+     * returns true if the line which failed closes a scope - it is kept as the end of the method
+     */
+    private boolean verifyRecovering() throws StructureException, IOException, LogicalException {
+        long line = tokenizer.lineNumber();
+        try {
             verifyStatements();
+        } catch (StructureException | LogicalException e) {
+            if (!collect(e, line))
+                throw e;
+            String curCommand = tokenizer.curCommand();
+            if (tokenizer.lineNumber() != line || curCommand == null)
+                return false;
+            if (tokenizer.closesScope() && !tokenizer.opensScope())
+                return true;
+            poisonDeclaration(curCommand);
+            skipBlock();
         }
+        return false;
     }
 
     /*
      * Verify all kind of statements - classify the line and pass to the right functions
      */
     private void verifyStatements() throws StructureException, IOException, LogicalException {
-        String line = tokenizer.curCommand();
-        String classification = Classifier.classify(line);
-        if(classification.equals(Classifier.VAR_DEC)){
-            if (curScope == 0)
-                tokenizer.advanceLine();
-            else
-                validateVarDec();
-        } else if (classification.equals(Classifier.IF_WHILE)){
-            validateIfWhile();
-        } else if(classification.equals(Classifier.METHOD_DEC)){
-            if (curScope == 0)
-                validateAllMethod();
-            else
-                throw new LogicalException(FUNCTION_DECLARATION_INSIDE_FUNCTION_BODY_ERR);
-        } else if (classification.equals(Classifier.FUNC_CALL)) {
-            validateFuncCall();
-        } else if (classification.equals(Classifier.ASSIGNMENT)) {
-            validateAssignment();
-        } else if (classification.equals(Classifier.RETURN)){
-            tokenizer.advance(); // go after return
-            tokenizer.advance(); // go after ";"
+        checkAbort();
+        switch (tokenizer.lineKind(classifier)) {
+            case VAR_DEC:
+                if (curScope == 0)
+                    tokenizer.advanceLine();
+                else
+                    validateVarDec();
+                break;
+            case IF_WHILE:
+                validateIfWhile();
+                break;
+            case METHOD_DEC:
+                if (curScope == 0)
+                    validateAllMethod();
+                else
+                    throw new LogicalException(FUNCTION_DECLARATION_INSIDE_FUNCTION_BODY_ERR);
+                break;
+            case FUNC_CALL:
+                validateFuncCall();
+                break;
+            case ASSIGNMENT:
+                validateAssignment();
+                break;
+            case RETURN:
+                tokenizer.advance(); // go after return
+                tokenizer.advance(); // go after ";"
+                break;
+            default:
+                throw new LogicalException(ILLEGAL_LINE_INSIDE_SCOPE_ERR);
         }
-        else
-            throw new LogicalException(ILLEGAL_LINE_INSIDE_SCOPE_ERR);
     }
 
     /*
@@ -302,29 +772,32 @@ public class Validator {
         tokenizer.advance(); // go after void
         tokenizer.advance(); // go after funcName
         tokenizer.advance(); // go after "("
-        while(!tokenizer.curToken().equals(CLOSING_PARENTHESIS)){
+        while(!tokenizer.isToken(CLOSING_PARENTHESIS)){
             boolean isFinal = false;
-            String type;
-            String varName;
-            if (tokenizer.curToken().equals(COMMA))
+            Type type;
+            int varName;
+            if (tokenizer.isToken(COMMA))
                 tokenizer.advance(); // go after ","
-            if (tokenizer.curToken().equals(FINAL)){
+            if (tokenizer.isToken(FINAL)){
                 isFinal = true;
                 tokenizer.advance(); // go after "final"
             }
-            type = tokenizer.curToken();
+            type = Type.of(tokenizer.curToken());
             tokenizer.advance(); // go after type
-            varName = tokenizer.curToken();
+            varName = symbolTableManager.intern(tokenizer.curToken());
             tokenizer.advance(); // go after varName
-            if(symbolTableManager.isOnCurrentScope(varName)){
-                throw new LogicalException(PARAMETERS_IN_THE_SAME_SCOPE_WITH_SAME_NAME_ERR);
-            }
-            symbolTableManager.add(varName, type, isFinal, true);
+            if(symbolTableManager.isOnCurrentScope(varName))
+                error(PARAMETERS_IN_THE_SAME_SCOPE_WITH_SAME_NAME_ERR); // the first parameter is kept
+            else
+                symbolTableManager.add(varName, type, isFinal, true);
         }
         tokenizer.advance(); // go after ")"
         tokenizer.advance(); // go after "{"
-        while(!isEndOfFunc())
-            verifyStatements();
+        while (tokenizer.curCommand() != null && !isEndOfFunc()) {
+            if (verifyRecovering())
+                break; // the method ends without a return
+        }
+        methodEndLine = tokenizer.lineNumber();
         tokenizer.advance(); // go after }
         curScope--;
         symbolTableManager.closeScope();
@@ -333,10 +806,11 @@ public class Validator {
     /*
      * decide if cur line is a function end (return;\n})
      */
-    private boolean isEndOfFunc() throws StructureException, IOException {
-        if (Classifier.classify(tokenizer.curCommand()).equals(Classifier.RETURN) && curScope == 1){
+    private boolean isEndOfFunc() throws IOException {
+        if (isKind(LineKind.RETURN) && curScope == 1){
             tokenizer.advanceLine();
-            return Classifier.isCloseScopeLine(tokenizer.curCommand());
+            // the end of the file ends a method whose scopes don't match, which the first run reported
+            return tokenizer.curCommand() == null || tokenizer.closesScope();
         }
         return false;
     }
@@ -346,15 +820,21 @@ public class Validator {
      */
     private void validateFuncCall() throws LogicalException, IOException {
         String funcName = tokenizer.curToken();
+        if (calledMethods != null)
+            calledMethods.add(funcName);
         if (!funcMap.containsKey(funcName)){
             throw new LogicalException(TRYING_TO_CALL_TO_UNKNOWN_FUNCTION_ERR);
         }
-        ArrayList<String> argsNeededTypes = funcMap.get(funcName);
+        Type[] argsNeededTypes = funcMap.get(funcName);
+        if (argsNeededTypes == POISONED_METHOD) {
+            tokenizer.advanceLine(); // a method whose declaration failed accepts every call
+            return;
+        }
         ArrayList<String> argsSupplied = new ArrayList<>();
         tokenizer.advance(); // go after the func name
         tokenizer.advance(); // go after "("
-        while (!tokenizer.curToken().equals(CLOSING_PARENTHESIS)) {
-            if (tokenizer.curToken().equals(COMMA)) {
+        while (isBeforeInFile(CLOSING_PARENTHESIS)) {
+            if (tokenizer.isToken(COMMA)) {
                 tokenizer.advance(); // go after ","
             }
             String varName = tokenizer.curToken();
@@ -369,9 +849,9 @@ public class Validator {
     /*
      * Check the match between the args supplied to a func and the args that the func takes
      */
-    private void checkCallMatch(ArrayList<String> argsNeededTypes,
+    private void checkCallMatch(Type[] argsNeededTypes,
                                 ArrayList<String> argsSupplied) throws LogicalException {
-        if (argsSupplied.size() != argsNeededTypes.size()){
+        if (argsSupplied.size() != argsNeededTypes.length){
             throw new LogicalException(NUMBER_OF_ARGUMENTS_GIVEN_TO_FUNCTION_DOESNT_MATCH_ERR);
         }
         VarData varData;
@@ -381,12 +861,12 @@ public class Validator {
                 if (!varData.initialized()){
                     throw new LogicalException(ARGUMENT_SUPPLIED_TO_FUNCTION_IS_NOT_INITIALIZED_ERR);
                 }
-                if(!Classifier.matchTypes(varData.type(), argsNeededTypes.get(counter))){
+                if(!Classifier.matchTypes(varData.type(), argsNeededTypes[counter])){
                     throw new LogicalException(MISMATCH_OF_ARGUMENT_TYPE_GIVEN_TO_FUNCTION_ERR);
                 }
             }
             else {
-                if(!Classifier.matchTypes(Classifier.type(argGiven), argsNeededTypes.get(counter)))
+                if(!Classifier.matchTypes(Classifier.type(argGiven), argsNeededTypes[counter]))
                     throw new LogicalException(MISMATCH_OF_ARGUMENT_TYPE_GIVEN_TO_FUNCTION_ERR);
             }
             counter++;
@@ -399,13 +879,20 @@ public class Validator {
     private void validateIfWhile() throws IOException, StructureException, LogicalException {
         tokenizer.advance(); // go after the if or while
         tokenizer.advance(); // go after "("
-        validateIsBoolExpression();
-        tokenizer.advance(); // go after ")"
-        tokenizer.advance(); // go after "{"
+        long line = tokenizer.lineNumber();
+        try {
+            validateIsBoolExpression();
+            tokenizer.advance(); // go after ")"
+            tokenizer.advance(); // go after "{"
+        } catch (LogicalException e) {
+            if (!collect(e, line))
+                throw e;
+            tokenizer.advanceLine(); // the block of a condition which failed is still validated
+        }
         curScope++;
         symbolTableManager.openScope();
-        while(!Classifier.isCloseScopeLine(tokenizer.curCommand())){
-            verifyStatements();
+        while(tokenizer.curCommand() != null && !tokenizer.closesScope()){
+            verifyRecovering();
         }
         tokenizer.advance(); // go after "}"
         curScope--;
@@ -417,7 +904,7 @@ public class Validator {
      */
     private void validateIsBoolExpression() throws IOException, LogicalException {
         validateIsBoolSingle();
-        while(!tokenizer.curToken().equals(CLOSING_PARENTHESIS)){
+        while(!tokenizer.isToken(CLOSING_PARENTHESIS)){
             // Assumes structure is ok by Classifier
             // so if its not ) then must be || or &&
             tokenizer.advance(); // go after || ot &&
@@ -435,12 +922,12 @@ public class Validator {
             if (!varData.initialized()){
                 throw new LogicalException(VARIABLE_IN_BOOLEAN_EXPRESSION_IS_NOT_INITIALIZES_ERR);
             }
-            if(!Classifier.matchTypes(varData.type(), BOOLEAN)){
+            if(!Classifier.matchTypes(varData.type(), Type.BOOLEAN)){
                 throw new LogicalException(VARIABLE_IN_BOOLEAN_EXPRESSION_CANNOT_BE_ASSIGNED_TO_BOOLEAN_ERR);
             }
         }
         else {
-            if(!Classifier.matchTypes(Classifier.type(varName), BOOLEAN))
+            if(!Classifier.matchTypes(Classifier.type(varName), Type.BOOLEAN))
                 throw new LogicalException(CONST_IN_BOOLEAN_EXPRESSION_CANNOT_BE_ASSIGNED_TO_BOOLEAN_ERR);
         }
         tokenizer.advance();
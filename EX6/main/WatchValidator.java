@@ -0,0 +1,239 @@
+package oop.ex6.main;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watches sjava files and directory trees through the file system notifications, and validates a file again
+ * whenever it is created or modified, printing its result line. The events of a burst, such as an editor
+ * saving through a temporary file, are collected until the file system is quiet for a moment, and every
+ * changed file of the burst is validated once. The same verifier, with its classifier and its compiled
+ * code, validates every change, so a validation after a save doesn't pay for a cold start. A changed file is
+ * validated incrementally, over the state of its previous version, so only its global scope and the methods
+ * which changed are validated again.
+ * The files may be watched as a project, whose changed files are indexed again and validated over the
+ * index of the project, with the other files whose results changed.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class WatchValidator {
+
+    // constants.
+    private static final String SJAVA_SUFFIX = ".sjava";
+    private static final String SEPARATOR = "\t";
+    private static final String WATCHING = "Watching %d directories";
+    private static final Path CURRENT_DIRECTORY = Paths.get(".");
+    // a burst ends after this quiet period, or after the longest wait, if the events don't stop.
+    private static final long QUIET_MILLIS = 10;
+    private static final long MAX_BURST_MILLIS = 1000;
+
+    // class fields.
+    private final PrintStream out;
+    private final SjavaVerifier verifier;
+    private final ProjectValidator project;
+    private final Map<WatchKey, Path> directories;
+    private final Set<Path> trees;
+    private final Set<Path> files;
+    private final Map<Path, ValidationState> states;
+
+    /**
+     * constructor.
+     * @param out the stream to print the results to.
+     * @param verifier the verifier of the files, shared by all the validations.
+     */
+    public WatchValidator(PrintStream out, SjavaVerifier verifier) {
+        this(out, verifier, null);
+    }
+
+    /**
+     * constructor.
+     * @param out the stream to print the results to.
+     * @param verifier the verifier of the files, shared by all the validations.
+     * @param project the project of the files, null to validate every file on its own.
+     */
+    public WatchValidator(PrintStream out, SjavaVerifier verifier, ProjectValidator project) {
+        this.out = out;
+        this.verifier = verifier;
+        this.project = project;
+        this.directories = new LinkedHashMap<>();
+        this.trees = new HashSet<>();
+        this.files = new HashSet<>();
+        this.states = new HashMap<>();
+    }
+
+    /**
+     * validates every watched file, and then every created or modified file, until the thread is
+     * interrupted.
+     * @param paths files, or directories whose sjava files are watched recursively.
+     * @throws IOException if a directory can't be watched.
+     */
+    public void run(List<String> paths) throws IOException {
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            for (String path : paths)
+                watch(watcher, Paths.get(path).normalize());
+            System.err.println(String.format(WATCHING, directories.size()));
+            validateAll(allFiles());
+            ValidationServer.warmUp(verifier);
+            while (!Thread.currentThread().isInterrupted())
+                validateAll(nextBurst(watcher));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ***************************** //
+    // ********** Watching ********* //
+    // ***************************** //
+
+    /*
+     * watches a directory tree, or the directory of a single file
+     */
+    private void watch(WatchService watcher, Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            watchTree(watcher, path);
+            return;
+        }
+        files.add(path);
+        Path parent = path.getParent() == null ? CURRENT_DIRECTORY : path.getParent();
+        directories.put(register(watcher, parent), parent);
+    }
+
+    /*
+     * watches a directory and every directory under it, returns the sjava files found in them
+     */
+    private Set<Path> watchTree(WatchService watcher, Path root) throws IOException {
+        Set<Path> found = new LinkedHashSet<>();
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) walk::iterator) {
+                if (Files.isDirectory(path)) {
+                    trees.add(path);
+                    directories.put(register(watcher, path), path);
+                } else if (isSjavaFile(path))
+                    found.add(path);
+            }
+        }
+        return found;
+    }
+
+    private static WatchKey register(WatchService watcher, Path directory) throws IOException {
+        return directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /*
+     * waits for a burst of events, returns the created and modified files of the burst
+     */
+    private Set<Path> nextBurst(WatchService watcher) throws InterruptedException {
+        Set<Path> changed = new LinkedHashSet<>();
+        WatchKey key = watcher.take();
+        long burstEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_BURST_MILLIS);
+        while (key != null) {
+            collect(watcher, key, changed);
+            key = System.nanoTime() < burstEnd ? watcher.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS) : null;
+        }
+        return changed;
+    }
+
+    /*
+     * adds the watched files of the events of the key to the changed files
+     */
+    private void collect(WatchService watcher, WatchKey key, Set<Path> changed) {
+        Path directory = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // events were lost - every watched file may have changed
+                changed.addAll(allFiles());
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context()).normalize();
+            if (trees.contains(directory) && Files.isDirectory(path)) {
+                try {
+                    changed.addAll(watchTree(watcher, path));
+                } catch (IOException e) {
+                    // the directory was removed right after it was created
+                }
+            } else if (isWatched(path, directory))
+                changed.add(path);
+        }
+        if (!key.reset())
+            directories.remove(key);
+    }
+
+    private boolean isWatched(Path file, Path directory) {
+        return files.contains(file) || (trees.contains(directory) && isSjavaFile(file));
+    }
+
+    /*
+     * the watched files and the sjava files of the watched trees
+     */
+    private Set<Path> allFiles() {
+        Set<Path> all = new LinkedHashSet<>(files);
+        for (Path directory : directories.values()) {
+            if (!trees.contains(directory))
+                continue;
+            try (Stream<Path> list = Files.list(directory)) {
+                list.filter(WatchValidator::isSjavaFile).forEach(all::add);
+            } catch (IOException e) {
+                // the directory was removed, its key is cancelled by the next event
+            }
+        }
+        return all;
+    }
+
+    private static boolean isSjavaFile(Path path) {
+        return path.toString().endsWith(SJAVA_SUFFIX) && !Files.isDirectory(path);
+    }
+
+    // ***************************** //
+    // ********* Validating ******** //
+    // ***************************** //
+
+    /*
+     * validates the files which still exist over the states of their previous versions, and prints their
+     * results
+     */
+    private void validateAll(Set<Path> changed) {
+        Set<Path> existing = new LinkedHashSet<>();
+        for (Path file : changed) {
+            if (files.contains(file) || Files.isRegularFile(file))
+                existing.add(file);
+            else
+                states.remove(file);
+        }
+        if (project != null) {
+            if (!existing.isEmpty())
+                project.update(existing).forEach(this::print);
+            return;
+        }
+        for (Path file : existing) {
+            ValidationState state = verifier.validate(states.get(file), file);
+            states.put(file, state);
+            print(file, state.result());
+        }
+    }
+
+    /*
+     * prints the result line of a file and its errors, if it collects them
+     */
+    private void print(Path file, ValidationResult result) {
+        out.println(file + SEPARATOR + result.code() + SEPARATOR + result.message());
+        for (Diagnostic diagnostic : result.diagnostics())
+            out.println(SEPARATOR + diagnostic);
+    }
+}
@@ -0,0 +1,130 @@
+package oop.ex6.parsing;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Line classifier which remembers the kinds of the lines another classifier classified, by their exact
+ * text, so the lines generated code repeats are classified once. A line the classifier rejected is
+ * remembered with its exception, which is thrown again. The cache is bounded - it is split to stripes by
+ * the hashes of the lines, each of them locked on its own and evicting its least recently used line once
+ * it is full - so it may be shared by every validation of a process. Lines longer than a short statement
+ * aren't cached, so the cache holds a bounded number of characters too.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class CachingClassifier implements LineClassifier {
+
+    private static final int STRIPES = 16;
+    private static final int MAX_CACHED_LENGTH = 256;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final LineClassifier classifier;
+    // every stripe maps a line to its LineKind, or to the StructureException its classification threw.
+    private final List<Map<String, Object>> stripes;
+    private final int stripeEntries;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * constructor.
+     * @param classifier the classifier of the lines which aren't cached, which must be thread safe as the
+     *                   classifiers of the parsing package are.
+     * @param maxEntries the most lines to remember.
+     */
+    public CachingClassifier(LineClassifier classifier, int maxEntries) {
+        this.classifier = classifier;
+        this.stripes = new ArrayList<>(STRIPES);
+        this.stripeEntries = Math.max(1, (maxEntries + STRIPES - 1) / STRIPES);
+        for (int i = 0; i < STRIPES; i++)
+            stripes.add(new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true)); // ordered by access
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     *
+     * @param curCommand the current line.
+     * @return the kind of the line, as the classifier classified it.
+     * @throws StructureException if the classifier rejected the line.
+     */
+    @Override
+    public LineKind classify(String curCommand) throws StructureException {
+        if (curCommand.length() > MAX_CACHED_LENGTH) {
+            misses.increment();
+            return classifier.classify(curCommand);
+        }
+        Map<String, Object> stripe = stripes.get(stripeOf(curCommand));
+        Object cached;
+        synchronized (stripe) {
+            cached = stripe.get(curCommand);
+        }
+        if (cached == null) {
+            misses.increment();
+            try {
+                cached = classifier.classify(curCommand);
+            } catch (StructureException e) {
+                cached = e;
+            }
+            put(stripe, curCommand, cached);
+        } else
+            hits.increment();
+        if (cached instanceof StructureException)
+            throw (StructureException) cached;
+        return (LineKind) cached;
+    }
+
+    /**
+     *
+     * @return the number of lines answered from the cache.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     *
+     * @return the number of lines classified by the classifier - the lines which weren't cached yet, were
+     * evicted or are too long to cache.
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     *
+     * @return the number of lines the cache remembers.
+     */
+    public int size() {
+        int size = 0;
+        for (Map<String, Object> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /*
+     * remembers the classification of the line, evicting the least recently used line of a full stripe
+     */
+    private void put(Map<String, Object> stripe, String line, Object classification) {
+        synchronized (stripe) {
+            stripe.put(line, classification);
+            if (stripe.size() > stripeEntries) {
+                Iterator<String> eldest = stripe.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private static int stripeOf(String line) {
+        int hash = line.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
@@ -5,7 +5,8 @@ package oop.ex6.parsing;
  * @author Yotam Suliman and Edan Topper.
  */
 public class Classifier {
-    // regex constants.
+    // regex constants. the expressions of the lines are compiled by ClassifierPatterns on the first
+    // classification, so the validations which don't classify by them don't compile them.
     private static final String VOID = "\\s*void\\s+";
     private static final String VAR_NAME = "\\s*([A-Za-z]|_\\w+)\\w*\\s*";
     private static final String FUNC_NAME = "\\s*[A-Za-z]\\w*\\s*";
@@ -17,114 +18,107 @@ public class Classifier {
     private static final String FINAL = "\\s*(final\\s+)?\\s*";
     private static final String PARAM =  "(" + FINAL + TYPE + VAR_NAME + ")";
     private static final String PARAM_WITH_COMA = "(" + PARAM + "\\s*,\\s*" + ")*";
-    private static final String FUNC_DEC_START = "\\s*void.*";
-    private static final String VAR_DEC_START = "\\s*(char|boolean|String|int|double).*";
+    static final String FUNC_DEC_START = "\\s*void.*";
+    static final String VAR_DEC_START = "\\s*(char|boolean|String|int|double).*";
     private static final String INT_EXP = "(\\+|-)?[0-9]+";
     private static final String DOUBLE_EXP = "(\\+|-)?([0-9]+\\.[0-9]*|[0-9]*\\.[0-9]+|[0-9]+)";
     private static final String CHAR_EXP = "'[^']'";
     private static final String STRING_EXP = "\"[^\"]*\"";
-    private static final String TRUE_OR_FALSE = "true|false";
+    private static final String TRUE = "true";
+    private static final String FALSE = "false";
+    private static final String TRUE_OR_FALSE = TRUE + "|" + FALSE;
     private static final String BOOLEAN_EXP ="(" + TRUE_OR_FALSE + "|" + DOUBLE_EXP + "|" + INT_EXP + ")";
-    private static final String CHAR_VAR = FINAL + "\\s*char" + "(" + VAR_NAME + "(=\\s*" + "(" +
+    static final String CHAR_VAR = FINAL + "\\s*char" + "(" + VAR_NAME + "(=\\s*" + "(" +
             VAR_NAME + "|" + CHAR_EXP + ")" + "\\s*)?\\s*,\\s*)*" +
             VAR_NAME + "(=\\s*" + "(" + VAR_NAME + "|" + CHAR_EXP + ")" +"\\s*)?\\s*;\\s*";
-    private static final String STRING_VAR = FINAL + "\\s*String" + "(" + VAR_NAME +
+    static final String STRING_VAR = FINAL + "\\s*String" + "(" + VAR_NAME +
             "(=\\s*" + "(" + VAR_NAME +"|" + STRING_EXP + ")" + "\\s*)?\\s*,\\s*)*"
             + VAR_NAME + "(=\\s*" + "(" + VAR_NAME+ "|" + STRING_EXP + ")" + "\\s*)?\\s*;\\s*";
-    private static final String INT_VAR = FINAL + "\\s*int" + "(" + VAR_NAME +
+    static final String INT_VAR = FINAL + "\\s*int" + "(" + VAR_NAME +
             "(=\\s*" + "(" + VAR_NAME + "|" + INT_EXP + ")" +
             "\\s*)?\\s*,\\s*)*" + VAR_NAME + "(=\\s*" + "(" + VAR_NAME +"|"+ INT_EXP + ")"+ "\\s*)?\\s*;\\s*";
-    private static final String DOUBLE_VAR = FINAL + "\\s*double" + "(" + VAR_NAME +
+    static final String DOUBLE_VAR = FINAL + "\\s*double" + "(" + VAR_NAME +
             "(=\\s*" + "(" + VAR_NAME + "|" + DOUBLE_EXP + ")"+
             "\\s*)?\\s*,\\s*)*" + VAR_NAME + "(=\\s*" +"(" + VAR_NAME+"|"+DOUBLE_EXP+")" + "\\s*)?\\s*;\\s*";
-    private static final String BOOLEAN_VAR = FINAL + "\\s*boolean" + "(" + VAR_NAME +
+    static final String BOOLEAN_VAR = FINAL + "\\s*boolean" + "(" + VAR_NAME +
             "(=\\s*" + "(" +VAR_NAME+"|"+BOOLEAN_EXP+")" + "\\s*)?\\s*,\\s*)*" +
             VAR_NAME + "(=\\s*" +"("+ VAR_NAME +"|"+BOOLEAN_EXP+")"+ "\\s*)?\\s*;\\s*";
     private static final String CONDITION = "\\s*(" + BOOLEAN_EXP + "|" + VAR_NAME + "|" + ")\\s*" +
             "((\\|\\||&&)\\s*(" + BOOLEAN_EXP + "|" + VAR_NAME + "|" + "))*\\s*";
-    private static final String IF_OR_WHILE = "\\s*(if|while)\\s*" +OPEN_BRACKETS + CONDITION +
+    static final String IF_OR_WHILE = "\\s*(if|while)\\s*" +OPEN_BRACKETS + CONDITION +
             CLOSE_BRACKETS + OPEN_PARENTHESIS;
-    private static final String RETURN_REGEX = "\\s*return\\s*;";
+    static final String RETURN_REGEX = "\\s*return\\s*;";
     private static final String FUNC_PARAM = "\\s*((" + BOOLEAN_EXP + "|" + VAR_NAME + "|" + STRING_EXP +
             "|" + CHAR_EXP + ")\\s*,)*\\s*(" + BOOLEAN_EXP + "|" + VAR_NAME +
             "|" + STRING_EXP + "|" + CHAR_EXP + ")?";
-    private static final String ASSIGNMENT_REGEX = "\\s*(" + VAR_NAME + "\\s*=\\s*" + "(" +BOOLEAN_EXP + "|" +
+    static final String ASSIGNMENT_REGEX = "\\s*(" + VAR_NAME + "\\s*=\\s*" + "(" +BOOLEAN_EXP + "|" +
             VAR_NAME + "|" + STRING_EXP +"|" + CHAR_EXP + ")" + "\\s*,\\s*)*\\s*" +
             VAR_NAME + "\\s*=\\s*" + "(" + BOOLEAN_EXP + "|" + VAR_NAME + "|" +
             STRING_EXP +"|" + CHAR_EXP +  ")" + SEMI_COLON;
-    private static final String FUNC_CALL_REGEX = FUNC_NAME+OPEN_BRACKETS + FUNC_PARAM +
+    static final String FUNC_CALL_REGEX = FUNC_NAME+OPEN_BRACKETS + FUNC_PARAM +
             CLOSE_BRACKETS+SEMI_COLON;
-    private static final String FUNC_DEC = VOID+FUNC_NAME+OPEN_BRACKETS+PARAM_WITH_COMA+
+    static final String FUNC_DEC = VOID+FUNC_NAME+OPEN_BRACKETS+PARAM_WITH_COMA+
             PARAM+"?"+CLOSE_BRACKETS+OPEN_PARENTHESIS;
 
-    // string constants.
-    public static final String METHOD_DEC = "method";
-    public static final String VAR_DEC = "var_dec";
-    public static final String IF_WHILE = "if_or_while";
-    public static final String FUNC_CALL = "func_call";
-    public static final String ASSIGNMENT = "assignment";
-    public static final String RETURN = "return";
-    public static final String DOUBLE = "double";
-    public static final String INT = "int";
-    private static final String BOOLEAN = "boolean";
-    private static final String STRING = "String";
-    private static final String CHAR = "char";
     // messages constants
-    private static final String GLOBAL_VAR_EXCEPTION = "Global var declaration is invalid.";
-    private static final String GLOBAL_FUNC_EXCEPTION = "Global func declaration is invalid.";
-    private static final String INVALID_LINE_EXCEPTION = "There was no match to a valid line.";
+    static final String GLOBAL_VAR_EXCEPTION = "Global var declaration is invalid.";
+    static final String GLOBAL_FUNC_EXCEPTION = "Global func declaration is invalid.";
+    static final String INVALID_LINE_EXCEPTION = "There was no match to a valid line.";
 
     /**
      *
      * @param curCommand the current line.
-     * @return classify the type of the line.
+     * @return classify the kind of the line.
      * @throws StructureException invalid line.
      */
-    public static String classify(String curCommand) throws StructureException {
+    public static LineKind classify(CharSequence curCommand) throws StructureException {
         if(methodMatch(curCommand))
-            return METHOD_DEC;
+            return LineKind.METHOD_DEC;
         else if(varMatch(curCommand))
-            return VAR_DEC;
+            return LineKind.VAR_DEC;
         else if(ifWhileMatch(curCommand))
-            return IF_WHILE;
+            return LineKind.IF_WHILE;
         else if(funcCall(curCommand))
-            return FUNC_CALL;
+            return LineKind.FUNC_CALL;
         else if(assignment(curCommand))
-            return ASSIGNMENT;
-        else if(curCommand.matches(RETURN_REGEX))
-            return RETURN;
+            return LineKind.ASSIGNMENT;
+        else if(ClassifierPatterns.RETURN_PATTERN.matcher(curCommand).matches())
+            return LineKind.RETURN;
         throw new StructureException(INVALID_LINE_EXCEPTION);
     }
 
     /*
     checks if the line is assignment line.
      */
-    private static boolean assignment(String curCommand) {
-        return curCommand.matches(ASSIGNMENT_REGEX);
+    private static boolean assignment(CharSequence curCommand) {
+        return ClassifierPatterns.ASSIGNMENT_PATTERN.matcher(curCommand).matches();
     }
 
     /*
     checks if the line is function call.
      */
-    private static boolean funcCall(String curCommand) {
-        return curCommand.matches(FUNC_CALL_REGEX);
+    private static boolean funcCall(CharSequence curCommand) {
+        return ClassifierPatterns.FUNC_CALL_PATTERN.matcher(curCommand).matches();
     }
 
     /*
     checks if the line is if or while line.
      */
-    private static boolean ifWhileMatch(String curCommand) {
-        return curCommand.matches(IF_OR_WHILE);
+    private static boolean ifWhileMatch(CharSequence curCommand) {
+        return ClassifierPatterns.IF_OR_WHILE_PATTERN.matcher(curCommand).matches();
     }
 
     /*
     checks if the line is a var declaration line.
      */
-    private static boolean varMatch(String curCommand) throws StructureException {
-        if (curCommand.matches(BOOLEAN_VAR) || curCommand.matches(INT_VAR) || curCommand.matches(STRING_VAR)
-                || curCommand.matches(DOUBLE_VAR) || curCommand.matches(CHAR_VAR))
+    private static boolean varMatch(CharSequence curCommand) throws StructureException {
+        if (ClassifierPatterns.BOOLEAN_VAR_PATTERN.matcher(curCommand).matches()
+                || ClassifierPatterns.INT_VAR_PATTERN.matcher(curCommand).matches()
+                || ClassifierPatterns.STRING_VAR_PATTERN.matcher(curCommand).matches()
+                || ClassifierPatterns.DOUBLE_VAR_PATTERN.matcher(curCommand).matches()
+                || ClassifierPatterns.CHAR_VAR_PATTERN.matcher(curCommand).matches())
             return true;
-        else if (curCommand.matches(VAR_DEC_START))
+        else if (ClassifierPatterns.VAR_DEC_START_PATTERN.matcher(curCommand).matches())
             throw new StructureException(GLOBAL_VAR_EXCEPTION);
         return false;
     }
@@ -132,12 +126,12 @@ public class Classifier {
     /*
     check if the line is method declaration line.
      */
-    private static boolean methodMatch(String curCommand) throws StructureException {
-        if(curCommand.matches(FUNC_DEC))
+    private static boolean methodMatch(CharSequence curCommand) throws StructureException {
+        if(ClassifierPatterns.FUNC_DEC_PATTERN.matcher(curCommand).matches())
             return true;
-        else if(curCommand.matches(FUNC_DEC_START))
+        else if(ClassifierPatterns.FUNC_DEC_START_PATTERN.matcher(curCommand).matches())
             throw new StructureException(GLOBAL_FUNC_EXCEPTION);
-        return curCommand.matches(FUNC_DEC);
+        return ClassifierPatterns.FUNC_DEC_PATTERN.matcher(curCommand).matches();
     }
 
     /**
@@ -165,39 +159,72 @@ public class Classifier {
      * @param type2 type of parameter number 2.
      * @return true if it can assign parameter one to parameter two.
      */
-    public static boolean matchTypes(String type1, String type2)
+    public static boolean matchTypes(Type type1, Type type2)
     {
         if(type1 == null || type2 == null)
             return false;
-        if (type1.equals(type2))
-            return true;
-        if(type1.equals(INT) && type2.equals(DOUBLE))
-            return true;
-        if(type1.equals(DOUBLE) && type2.equals(BOOLEAN))
-            return true;
-        return type1.equals(INT) && type2.equals(BOOLEAN);
+        return type1.isAssignableTo(type2);
     }
 
     /**
      *
      * @param token the current word.
-     * @return which type is the token.
+     * @return which type is the token, null if it isn't a literal.
      */
-    public static String type(String token)
+    public static Type type(String token)
     {
-      if(token.matches(INT_EXP))
-          return INT;
-      else if (token.matches(DOUBLE_EXP))
-            return DOUBLE;
-      else if(token.matches(TRUE_OR_FALSE))
-          return BOOLEAN;
-      else if (token.matches(STRING_EXP))
-          return STRING;
-      else if (token.matches(CHAR_EXP))
-          return CHAR;
+      if(isNumber(token, false))
+          return Type.INT;
+      else if (isNumber(token, true))
+            return Type.DOUBLE;
+      else if(token.equals(TRUE) || token.equals(FALSE))
+          return Type.BOOLEAN;
+      else if (isString(token))
+          return Type.STRING;
+      else if (isChar(token))
+          return Type.CHAR;
       else
           return null;
     }
+
+    /*
+    checks if the token is an INT_EXP, or a DOUBLE_EXP if a dot is allowed - an optional sign, digits and at
+    most one dot, with at least one digit. scans the token once, as the regexes may not on long tokens.
+     */
+    private static boolean isNumber(String token, boolean allowDot) {
+        int i = 0;
+        if (i < token.length() && (token.charAt(i) == '+' || token.charAt(i) == '-'))
+            i++;
+        boolean digits = false;
+        boolean dot = false;
+        for (; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c >= '0' && c <= '9')
+                digits = true;
+            else if (c == '.' && allowDot && !dot)
+                dot = true;
+            else
+                return false;
+        }
+        return digits;
+    }
+
+    /*
+    checks if the token is a STRING_EXP - a string literal without inner quotes.
+     */
+    private static boolean isString(String token) {
+        return token.length() >= 2 && token.charAt(0) == '"' && token.indexOf('"', 1) == token.length() - 1;
+    }
+
+    /*
+    checks if the token is a CHAR_EXP - a single char, which may be a surrogate pair, between quotes.
+     */
+    private static boolean isChar(String token) {
+        if (token.length() < 3 || token.charAt(0) != '\'' || token.charAt(token.length() - 1) != '\'')
+            return false;
+        int inner = token.codePointAt(1);
+        return inner != '\'' && Character.charCount(inner) == token.length() - 2;
+    }
 }
 
 
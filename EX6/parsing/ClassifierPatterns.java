@@ -0,0 +1,27 @@
+package oop.ex6.parsing;
+
+import java.util.regex.Pattern;
+
+/**
+ * The compiled regular expressions of the lines of Classifier. Compiling them takes a noticeable part of
+ * the startup of a validation of a small file, so they are kept apart from Classifier, whose literal and
+ * scope checks the validator uses on every file - the class is initialized, and the expressions compiled,
+ * only once a line is classified by them. The patterns are immutable and shared by all the threads, so a
+ * native image may initialize the class while it is built.
+ * @author Yotam Suliman and Edan Topper.
+ */
+class ClassifierPatterns {
+
+    static final Pattern RETURN_PATTERN = Pattern.compile(Classifier.RETURN_REGEX);
+    static final Pattern ASSIGNMENT_PATTERN = Pattern.compile(Classifier.ASSIGNMENT_REGEX);
+    static final Pattern FUNC_CALL_PATTERN = Pattern.compile(Classifier.FUNC_CALL_REGEX);
+    static final Pattern IF_OR_WHILE_PATTERN = Pattern.compile(Classifier.IF_OR_WHILE);
+    static final Pattern BOOLEAN_VAR_PATTERN = Pattern.compile(Classifier.BOOLEAN_VAR);
+    static final Pattern INT_VAR_PATTERN = Pattern.compile(Classifier.INT_VAR);
+    static final Pattern STRING_VAR_PATTERN = Pattern.compile(Classifier.STRING_VAR);
+    static final Pattern DOUBLE_VAR_PATTERN = Pattern.compile(Classifier.DOUBLE_VAR);
+    static final Pattern CHAR_VAR_PATTERN = Pattern.compile(Classifier.CHAR_VAR);
+    static final Pattern VAR_DEC_START_PATTERN = Pattern.compile(Classifier.VAR_DEC_START);
+    static final Pattern FUNC_DEC_PATTERN = Pattern.compile(Classifier.FUNC_DEC);
+    static final Pattern FUNC_DEC_START_PATTERN = Pattern.compile(Classifier.FUNC_DEC_START);
+}
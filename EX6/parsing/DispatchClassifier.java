@@ -0,0 +1,443 @@
+package oop.ex6.parsing;
+
+/**
+ * Line classifier which dispatches on the first word of the line and checks the line with a single
+ * left to right scan of the statement kind it may be. Accepts and rejects exactly the lines the regular
+ * expressions of Classifier do, and throws the same exceptions, without compiling or backtracking - the
+ * time of a classification grows linearly with the length of the line, even on a line of thousands of names.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class DispatchClassifier implements LineClassifier {
+
+    // keywords.
+    private static final String VOID = "void";
+    private static final String FINAL = "final";
+    private static final String IF = "if";
+    private static final String WHILE = "while";
+    private static final String RETURN = "return";
+    private static final String[] TYPES = {"int", "double", "boolean", "char", "String"};
+
+    // the literal each type of TYPES accepts.
+    private static final int INT_LITERAL = 0;
+    private static final int DOUBLE_LITERAL = 1;
+    private static final int BOOLEAN_LITERAL = 2;
+    private static final int CHAR_LITERAL = 3;
+    private static final int STRING_LITERAL = 4;
+    private static final int ANY_LITERAL = 5;
+
+    // returned by the scanning methods when the line doesn't match.
+    private static final int FAIL = -1;
+
+    /**
+     *
+     * @param curCommand the current line.
+     * @return classify the kind of the line.
+     * @throws StructureException invalid line.
+     */
+    @Override
+    public LineKind classify(String curCommand) throws StructureException {
+        int start = skipSpaces(curCommand, 0);
+        if (curCommand.startsWith(VOID, start)) {
+            if (isMethodDec(curCommand, start))
+                return LineKind.METHOD_DEC;
+            if (hasNoLineTerminators(curCommand, start))
+                throw new StructureException(Classifier.GLOBAL_FUNC_EXCEPTION);
+        }
+        if (isVarDec(curCommand, start))
+            return LineKind.VAR_DEC;
+        if (typeAt(curCommand, start) != FAIL && hasNoLineTerminators(curCommand, start))
+            throw new StructureException(Classifier.GLOBAL_VAR_EXCEPTION);
+        int wordEnd = skipWord(curCommand, start);
+        int next = skipSpaces(curCommand, wordEnd);
+        if (wordEnd > start && next < curCommand.length()) {
+            switch (curCommand.charAt(next)) {
+                case '(':
+                    if (isIfOrWhile(curCommand, start, wordEnd, next))
+                        return LineKind.IF_WHILE;
+                    if (isFuncCall(curCommand, start, next))
+                        return LineKind.FUNC_CALL;
+                    break;
+                case '=':
+                    if (isAssignment(curCommand, start))
+                        return LineKind.ASSIGNMENT;
+                    break;
+                case ';':
+                    if (isReturn(curCommand, start, wordEnd, next))
+                        return LineKind.RETURN;
+                    break;
+                default:
+                    break;
+            }
+        }
+        throw new StructureException(Classifier.INVALID_LINE_EXCEPTION);
+    }
+
+    // ***************************** //
+    // ********* Statements ******** //
+    // ***************************** //
+
+    /*
+     * void <name> ( <params, trailing comma allowed> ) {
+     */
+    private static boolean isMethodDec(String line, int i) {
+        i += VOID.length();
+        if (i >= line.length() || !isSpace(line.charAt(i)))
+            return false;
+        i = funcName(line, skipSpaces(line, i));
+        if (i == FAIL || (i = expect(line, skipSpaces(line, i), '(')) == FAIL)
+            return false;
+        i = skipSpaces(line, i);
+        while (i < line.length() && line.charAt(i) != ')') {
+            if ((i = param(line, i)) == FAIL)
+                return false;
+            if (i < line.length() && line.charAt(i) == ',')
+                i = skipSpaces(line, i + 1);
+            else if (i >= line.length() || line.charAt(i) != ')')
+                return false;
+        }
+        i = expect(line, i, ')');
+        if (i == FAIL || (i = expect(line, skipSpaces(line, i), '{')) == FAIL)
+            return false;
+        return skipSpaces(line, i) == line.length();
+    }
+
+    /*
+     * [final] <type> <declarator>, ... ; where a declarator is <name> [= <value of the type>]
+     */
+    private static boolean isVarDec(String line, int i) {
+        i = skipFinal(line, i);
+        int type = typeAt(line, i);
+        if (type == FAIL)
+            return false;
+        i += TYPES[type].length();
+        while (true) {
+            i = ident(line, skipSpaces(line, i));
+            if (i == FAIL)
+                return false;
+            i = skipSpaces(line, i);
+            if (i < line.length() && line.charAt(i) == '=') {
+                i = value(line, skipSpaces(line, i + 1), type);
+                if (i == FAIL)
+                    return false;
+                i = skipSpaces(line, i);
+            }
+            if (i >= line.length())
+                return false;
+            if (line.charAt(i) == ';')
+                return skipSpaces(line, i + 1) == line.length();
+            if (line.charAt(i) != ',')
+                return false;
+            i++;
+        }
+    }
+
+    /*
+     * (if|while) ( <operand> ((||,&&) <operand>)* ) {  where an operand may be empty.
+     * a number which isn't the first operand may not be followed by spaces before the next operator.
+     */
+    private static boolean isIfOrWhile(String line, int start, int wordEnd, int i) {
+        if (!isWord(line, start, wordEnd, IF) && !isWord(line, start, wordEnd, WHILE))
+            return false;
+        i++; // go after "("
+        boolean first = true;
+        while (true) {
+            i = skipSpaces(line, i);
+            boolean spacedNumber = false;
+            if (i < line.length() && !isConditionEnd(line.charAt(i))) {
+                boolean isNumber = !isLetter(line.charAt(i)) && line.charAt(i) != '_';
+                int operandEnd = operand(line, i);
+                if (operandEnd == FAIL)
+                    return false;
+                i = skipSpaces(line, operandEnd);
+                spacedNumber = isNumber && i > operandEnd;
+            }
+            if (line.startsWith("||", i) || line.startsWith("&&", i)) {
+                if (spacedNumber && !first)
+                    return false;
+                i += 2;
+                first = false;
+            } else
+                break;
+        }
+        i = expect(line, i, ')');
+        if (i == FAIL || (i = expect(line, skipSpaces(line, i), '{')) == FAIL)
+            return false;
+        return skipSpaces(line, i) == line.length();
+    }
+
+    /*
+     * <name> ( <values, trailing comma allowed> ) ;
+     * a literal may follow a comma with spaces between them only if it is the last value.
+     */
+    private static boolean isFuncCall(String line, int start, int i) {
+        if (funcName(line, start) == FAIL)
+            return false;
+        i = skipSpaces(line, i + 1);
+        boolean mustBeLast = false;
+        while (i < line.length() && line.charAt(i) != ')') {
+            boolean isLiteral = !isLetter(line.charAt(i)) && line.charAt(i) != '_';
+            if ((i = value(line, i, ANY_LITERAL)) == FAIL)
+                return false;
+            i = skipSpaces(line, i);
+            if (i < line.length() && line.charAt(i) == ',' && !(mustBeLast && isLiteral)) {
+                int valueStart = skipSpaces(line, i + 1);
+                mustBeLast = valueStart > i + 1;
+                i = valueStart;
+            } else if (i >= line.length() || line.charAt(i) != ')')
+                return false;
+        }
+        i = expect(line, i, ')');
+        if (i == FAIL || (i = expect(line, skipSpaces(line, i), ';')) == FAIL)
+            return false;
+        return skipSpaces(line, i) == line.length();
+    }
+
+    /*
+     * <name> = <value>, ... ;
+     */
+    private static boolean isAssignment(String line, int i) {
+        while (true) {
+            i = ident(line, skipSpaces(line, i));
+            if (i == FAIL || (i = expect(line, skipSpaces(line, i), '=')) == FAIL)
+                return false;
+            i = value(line, skipSpaces(line, i), ANY_LITERAL);
+            if (i == FAIL)
+                return false;
+            i = skipSpaces(line, i);
+            if (i >= line.length())
+                return false;
+            if (line.charAt(i) == ';')
+                return skipSpaces(line, i + 1) == line.length();
+            if (line.charAt(i) != ',')
+                return false;
+            i++;
+        }
+    }
+
+    /*
+     * return ;  with nothing after the ";"
+     */
+    private static boolean isReturn(String line, int start, int wordEnd, int i) {
+        return isWord(line, start, wordEnd, RETURN) && i == line.length() - 1;
+    }
+
+    // ***************************** //
+    // ******** Line elements ****** //
+    // ***************************** //
+
+    /*
+     * [final] <type> <name> - a parameter of a method declaration, followed by its spaces
+     */
+    private static int param(String line, int i) {
+        i = skipFinal(line, skipSpaces(line, i));
+        int type = typeAt(line, i);
+        if (type == FAIL)
+            return FAIL;
+        i = ident(line, skipSpaces(line, i + TYPES[type].length()));
+        return i == FAIL ? FAIL : skipSpaces(line, i);
+    }
+
+    /*
+     * a variable name, or a literal of the given kind
+     */
+    private static int value(String line, int i, int literal) {
+        if (i >= line.length())
+            return FAIL;
+        char c = line.charAt(i);
+        if (isLetter(c) || c == '_')
+            return ident(line, i);
+        switch (literal) {
+            case INT_LITERAL:
+                return intLiteral(line, i);
+            case DOUBLE_LITERAL:
+            case BOOLEAN_LITERAL:
+                return doubleLiteral(line, i);
+            case CHAR_LITERAL:
+                return charLiteral(line, i);
+            case STRING_LITERAL:
+                return stringLiteral(line, i);
+            default:
+                if (c == '\'')
+                    return charLiteral(line, i);
+                if (c == '"')
+                    return stringLiteral(line, i);
+                return doubleLiteral(line, i);
+        }
+    }
+
+    /*
+     * a variable name or a boolean literal inside a condition
+     */
+    private static int operand(String line, int i) {
+        char c = line.charAt(i);
+        if (isLetter(c) || c == '_')
+            return ident(line, i);
+        return doubleLiteral(line, i);
+    }
+
+    /*
+     * returns true if the char ends an empty operand of a condition
+     */
+    private static boolean isConditionEnd(char c) {
+        return c == ')' || c == '|' || c == '&';
+    }
+
+    /*
+     * a variable name - a letter followed by word chars, or "_" followed by at least one word char
+     */
+    private static int ident(String line, int i) {
+        if (i >= line.length())
+            return FAIL;
+        char c = line.charAt(i);
+        if (c == '_') {
+            if (i + 1 >= line.length() || !isWordChar(line.charAt(i + 1)))
+                return FAIL;
+        } else if (!isLetter(c))
+            return FAIL;
+        return skipWord(line, i + 1);
+    }
+
+    /*
+     * a method name - a letter followed by word chars
+     */
+    private static int funcName(String line, int i) {
+        if (i >= line.length() || !isLetter(line.charAt(i)))
+            return FAIL;
+        return skipWord(line, i + 1);
+    }
+
+    /*
+     * [+-] digits
+     */
+    private static int intLiteral(String line, int i) {
+        i = skipSign(line, i);
+        int digitsStart = i;
+        while (i < line.length() && isDigit(line.charAt(i)))
+            i++;
+        return i == digitsStart ? FAIL : i;
+    }
+
+    /*
+     * [+-] digits with at most one dot and at least one digit
+     */
+    private static int doubleLiteral(String line, int i) {
+        i = skipSign(line, i);
+        int digits = 0;
+        int dots = 0;
+        for (; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (isDigit(c))
+                digits++;
+            else if (c == '.')
+                dots++;
+            else
+                break;
+        }
+        return digits == 0 || dots > 1 ? FAIL : i;
+    }
+
+    /*
+     * a single char (code point) other than ' between two '
+     */
+    private static int charLiteral(String line, int i) {
+        if (i + 2 >= line.length() || line.charAt(i) != '\'' || line.charAt(i + 1) == '\'')
+            return FAIL;
+        i += 1 + Character.charCount(line.codePointAt(i + 1));
+        return expect(line, i, '\'');
+    }
+
+    /*
+     * any chars other than " between two "
+     */
+    private static int stringLiteral(String line, int i) {
+        if (i >= line.length() || line.charAt(i) != '"')
+            return FAIL;
+        int end = line.indexOf('"', i + 1);
+        return end == -1 ? FAIL : end + 1;
+    }
+
+    // ***************************** //
+    // ******** Char helpers ******* //
+    // ***************************** //
+
+    /*
+     * returns the index of the type of TYPES the line continues with, or FAIL
+     */
+    private static int typeAt(String line, int i) {
+        for (int type = 0; type < TYPES.length; type++) {
+            if (line.startsWith(TYPES[type], i))
+                return type;
+        }
+        return FAIL;
+    }
+
+    /*
+     * skips "final" and the spaces after it, if the line continues with them
+     */
+    private static int skipFinal(String line, int i) {
+        int end = i + FINAL.length();
+        if (line.startsWith(FINAL, i) && end < line.length() && isSpace(line.charAt(end)))
+            return skipSpaces(line, end);
+        return i;
+    }
+
+    /*
+     * returns the index after the char, or FAIL if the line doesn't continue with it
+     */
+    private static int expect(String line, int i, char c) {
+        return i < line.length() && line.charAt(i) == c ? i + 1 : FAIL;
+    }
+
+    private static int skipSign(String line, int i) {
+        if (i < line.length() && (line.charAt(i) == '+' || line.charAt(i) == '-'))
+            return i + 1;
+        return i;
+    }
+
+    private static int skipSpaces(String line, int i) {
+        while (i < line.length() && isSpace(line.charAt(i)))
+            i++;
+        return i;
+    }
+
+    private static int skipWord(String line, int i) {
+        while (i < line.length() && isWordChar(line.charAt(i)))
+            i++;
+        return i;
+    }
+
+    /*
+     * returns true if the word between start and end is the given word
+     */
+    private static boolean isWord(String line, int start, int end, String word) {
+        return end - start == word.length() && line.startsWith(word, start);
+    }
+
+    /*
+     * returns true if no char from the index on ends a line, as "." in a regular expression requires
+     */
+    private static boolean hasNoLineTerminators(String line, int i) {
+        for (; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029')
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordChar(char c) {
+        return isLetter(c) || isDigit(c) || c == '_';
+    }
+}
@@ -0,0 +1,163 @@
+package oop.ex6.parsing;
+
+import java.util.ArrayList;
+
+/**
+ * A stream of the tokens of an indexed file, which reads its statements by index. The scopes of every
+ * statement, and the statement closing every scope, were found by the index, so the stream answers them
+ * without scanning the line again, and skips a whole scope in a single step.
+ * @author Yotam Suliman and Edan Topper.
+ */
+class IndexedTokenStream implements TokenStream {
+
+    // class fields.
+    private final SourceIndex index;
+    private final Tokenizer splitter;
+    private int statement;
+    private String curLine;
+    // as Tokenizer, the tokens of the last statement are kept at the end of the file.
+    private ArrayList<String> tokens;
+    private int curIndex;
+    private long tokensRead;
+
+    /**
+     * constructor.
+     * @param index the index of the file to read.
+     */
+    IndexedTokenStream(SourceIndex index) {
+        this.index = index;
+        this.splitter = new Tokenizer();
+        this.statement = -1;
+        advanceLine();
+    }
+
+    /**
+     * advance the current index in 1.
+     */
+    @Override
+    public void advance() {
+        tokensRead++;
+        if (curIndex < tokens.size() - 1)
+            curIndex++;
+        else
+            advanceLine();
+    }
+
+    /**
+     * advances the token in one line.
+     */
+    @Override
+    public void advanceLine() {
+        if (statement < index.statements())
+            moveTo(statement + 1);
+    }
+
+    /**
+     * moves to the statement closing the scope of the current statement, if it is ever closed.
+     * @return true if the stream moved to the closing statement.
+     */
+    @Override
+    public boolean skipScope() {
+        if (curLine == null || !index.opensScope(statement))
+            return false;
+        int closing = index.closingStatement(statement);
+        if (closing == SourceIndex.NONE)
+            return false;
+        moveTo(closing);
+        return true;
+    }
+
+    /*
+     * moves to the given statement and splits it to its tokens, if it isn't the end of the file
+     */
+    private void moveTo(int next) {
+        statement = next;
+        curLine = statement < index.statements() ? index.text(statement) : null;
+        if (curLine != null) {
+            tokens = splitter.split(curLine);
+            curIndex = 0;
+        }
+    }
+
+    /**
+     *
+     * @return the current line, null at the end of the file.
+     */
+    @Override
+    public String curCommand() {
+        return curLine;
+    }
+
+    /**
+     *
+     * @return the current token.
+     */
+    @Override
+    public String curToken() {
+        return tokens.get(curIndex);
+    }
+
+    /**
+     *
+     * @param token a token to compare to.
+     * @return true if the current token equals the given token.
+     */
+    @Override
+    public boolean isToken(String token) {
+        return tokens.get(curIndex).equals(token);
+    }
+
+    /**
+     *
+     * @return true if the current line opens a scope.
+     */
+    @Override
+    public boolean opensScope() {
+        return index.opensScope(statement);
+    }
+
+    /**
+     *
+     * @return true if the current line closes a scope.
+     */
+    @Override
+    public boolean closesScope() {
+        return index.closesScope(statement);
+    }
+
+    /**
+     *
+     * @return the number of lines read so far, including the skipped lines.
+     */
+    @Override
+    public long linesRead() {
+        return statement < index.statements() ? index.lineNumber(statement) : index.lines();
+    }
+
+    /**
+     *
+     * @return the number of times the stream advanced to the next token so far.
+     */
+    @Override
+    public long tokensRead() {
+        return tokensRead;
+    }
+
+    /**
+     *
+     * @return the number of the current line in the file, counting from 1.
+     */
+    @Override
+    public long lineNumber() {
+        return linesRead(); // the current line is the last line read
+    }
+
+    /**
+     *
+     * @return the number of comment lines and empty lines skipped so far.
+     */
+    @Override
+    public long linesSkipped() {
+        return linesRead() - Math.min(statement + 1, index.statements());
+    }
+}
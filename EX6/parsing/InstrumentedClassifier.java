@@ -0,0 +1,84 @@
+package oop.ex6.parsing;
+
+/**
+ * Line classifier which counts and times the lines another classifier classifies, per kind of line.
+ * The lines the classifier rejects are counted and timed apart. Used only when the statistics of a
+ * validation are requested, so the classifiers themselves aren't timed otherwise.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class InstrumentedClassifier implements LineClassifier {
+
+    private static final LineKind[] KINDS = LineKind.values();
+
+    private final LineClassifier classifier;
+    private final long[] counts;
+    private final long[] nanos;
+    private long invalidCount;
+    private long invalidNanos;
+
+    /**
+     * constructor.
+     * @param classifier the classifier to count and time.
+     */
+    public InstrumentedClassifier(LineClassifier classifier) {
+        this.classifier = classifier;
+        this.counts = new long[KINDS.length];
+        this.nanos = new long[KINDS.length];
+    }
+
+    /**
+     *
+     * @param curCommand the current line.
+     * @return the kind of the line, as the classifier classifies it.
+     * @throws StructureException if the classifier rejects the line.
+     */
+    @Override
+    public LineKind classify(String curCommand) throws StructureException {
+        long start = System.nanoTime();
+        LineKind kind;
+        try {
+            kind = classifier.classify(curCommand);
+        } catch (StructureException e) {
+            invalidCount++;
+            invalidNanos += System.nanoTime() - start;
+            throw e;
+        }
+        counts[kind.ordinal()]++;
+        nanos[kind.ordinal()] += System.nanoTime() - start;
+        return kind;
+    }
+
+    /**
+     *
+     * @param kind a kind of line.
+     * @return the number of lines classified as the kind.
+     */
+    public long count(LineKind kind) {
+        return counts[kind.ordinal()];
+    }
+
+    /**
+     *
+     * @param kind a kind of line.
+     * @return the time spent classifying the lines of the kind, in nanoseconds.
+     */
+    public long nanos(LineKind kind) {
+        return nanos[kind.ordinal()];
+    }
+
+    /**
+     *
+     * @return the number of lines the classifier rejected.
+     */
+    public long invalidCount() {
+        return invalidCount;
+    }
+
+    /**
+     *
+     * @return the time spent classifying the rejected lines, in nanoseconds.
+     */
+    public long invalidNanos() {
+        return invalidNanos;
+    }
+}
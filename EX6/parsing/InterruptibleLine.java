@@ -0,0 +1,62 @@
+package oop.ex6.parsing;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A line which a regular expression is matched against, which asks whether to abort every so many reads of
+ * its characters. The expressions of Classifier may backtrack over a long line for a long time, without
+ * returning to the validator between its lines - reading the line is the only work they do, so it is where
+ * the matching is stopped.
+ * @author Yotam Suliman and Edan Topper.
+ */
+class InterruptibleLine implements CharSequence {
+
+    private static final int READS_PER_CHECK = 1 << 12;
+    private static final String ABORTED = "The classification of the line was aborted";
+
+    private final String line;
+    private final BooleanSupplier aborted;
+    private int reads;
+
+    /**
+     * constructor.
+     * @param line the line.
+     * @param aborted asked every so many reads whether to abort, so it should only read a flag.
+     */
+    InterruptibleLine(String line, BooleanSupplier aborted) {
+        this.line = line;
+        this.aborted = aborted;
+    }
+
+    /**
+     *
+     * @param index the index of a character.
+     * @return the character of the line.
+     * @throws CancellationException if the matching should be aborted.
+     */
+    @Override
+    public char charAt(int index) {
+        if (++reads == READS_PER_CHECK) {
+            reads = 0;
+            if (aborted.getAsBoolean())
+                throw new CancellationException(ABORTED);
+        }
+        return line.charAt(index);
+    }
+
+    @Override
+    public int length() {
+        return line.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return line.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return line;
+    }
+}
@@ -0,0 +1,144 @@
+package oop.ex6.parsing;
+
+/**
+ * A stream of the tokens of a parsed file, which reads the statements of its IR by index instead of reading
+ * and splitting lines. The kind and the scopes of every line were found when the file was parsed, so they
+ * are answered from the IR without classifying the line again.
+ * @author Yotam Suliman and Edan Topper.
+ */
+class IrTokenStream implements TokenStream {
+
+    // class fields.
+    private final ProgramIr ir;
+    private int statement;
+    // the statement whose tokens are current - as Tokenizer, the last statement at the end of the file.
+    private int tokensStatement;
+    private int curIndex;
+    private long tokensRead;
+
+    /**
+     * constructor.
+     * @param ir the IR to read.
+     */
+    IrTokenStream(ProgramIr ir) {
+        this.ir = ir;
+    }
+
+    /**
+     * advance the current index in 1.
+     */
+    @Override
+    public void advance() {
+        tokensRead++;
+        if (curIndex < ir.tokenCount(tokensStatement) - 1)
+            curIndex++;
+        else
+            advanceLine();
+    }
+
+    /**
+     * advances the token in one line.
+     */
+    @Override
+    public void advanceLine() {
+        if (statement < ir.statements())
+            statement++;
+        if (statement < ir.statements()) {
+            tokensStatement = statement;
+            curIndex = 0;
+        }
+    }
+
+    /**
+     *
+     * @return the current line, null at the end of the file.
+     */
+    @Override
+    public String curCommand() {
+        return statement < ir.statements() ? ir.text(statement) : null;
+    }
+
+    /**
+     *
+     * @return the current token.
+     */
+    @Override
+    public String curToken() {
+        return ir.token(tokensStatement, curIndex);
+    }
+
+    /**
+     *
+     * @param token a token to compare to.
+     * @return true if the current token equals the given token.
+     */
+    @Override
+    public boolean isToken(String token) {
+        return curToken().equals(token);
+    }
+
+    /**
+     * the kind of the line, found when the file was parsed.
+     * @param classifier not used.
+     * @return the kind of the current line.
+     * @throws StructureException if the current line is invalid.
+     */
+    @Override
+    public LineKind lineKind(LineClassifier classifier) throws StructureException {
+        return ir.kind(statement);
+    }
+
+    /**
+     *
+     * @return true if the current line opens a scope.
+     */
+    @Override
+    public boolean opensScope() {
+        return ir.opensScope(statement);
+    }
+
+    /**
+     *
+     * @return true if the current line closes a scope.
+     */
+    @Override
+    public boolean closesScope() {
+        return ir.closesScope(statement);
+    }
+
+    /**
+     *
+     * @return the number of lines read so far, including the skipped lines.
+     */
+    @Override
+    public long linesRead() {
+        return statement < ir.statements() ? ir.line(statement) : ir.linesRead();
+    }
+
+    /**
+     *
+     * @return the number of times the stream advanced to the next token so far.
+     */
+    @Override
+    public long tokensRead() {
+        return tokensRead;
+    }
+
+    /**
+     *
+     * @return the number of the current line in the file, counting from 1.
+     */
+    @Override
+    public long lineNumber() {
+        return linesRead(); // the current line is the last line read
+    }
+
+    /**
+     *
+     * @return the number of comment lines and empty lines skipped so far.
+     */
+    @Override
+    public long linesSkipped() {
+        return linesRead() - Math.min(statement + 1, ir.statements());
+    }
+}
@@ -0,0 +1,16 @@
+package oop.ex6.parsing;
+
+/**
+ * Classifies a line of sjava code to the relevant line type.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public interface LineClassifier {
+
+    /**
+     *
+     * @param curCommand the current line.
+     * @return classify the kind of the line.
+     * @throws StructureException invalid line.
+     */
+    LineKind classify(String curCommand) throws StructureException;
+}
@@ -0,0 +1,14 @@
+package oop.ex6.parsing;
+
+/**
+ * The kinds of the lines of sjava code, as a line classifier classifies them.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public enum LineKind {
+    METHOD_DEC,
+    VAR_DEC,
+    IF_WHILE,
+    FUNC_CALL,
+    ASSIGNMENT,
+    RETURN
+}
@@ -0,0 +1,484 @@
+package oop.ex6.parsing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Tokenizer which reads a file through a memory mapped window of the file, decoded with the default charset
+ * as the readers of the other modes decode it - which must be UTF-8 or a charset of a byte for every char
+ * which keeps the ASCII chars, see supports.
+ * Splits the lines into tokens exactly as Tokenizer does, but keeps every token as an offset and a length
+ * in the mapped window - a String of a line or a token is created only when it is asked for.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class MappedTokenizer implements TokenStream, Closeable {
+
+    // the size of the mapped window, grows for longer lines.
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int INITIAL_TOKENS = 32;
+    private static final String LINE_TOO_LONG = "Line is too long to be mapped";
+    private static final String UNSUPPORTED_CHARSET = "Can't tokenize the bytes of the charset ";
+    private static final int BYTE_VALUES = 256;
+    private static final char NEXT_LINE = '\u0085';
+    private static final char LINE_SEPARATOR = '\u2028';
+    private static final char PARAGRAPH_SEPARATOR = '\u2029';
+
+    // class fields.
+    private final Charset charset;
+    // the chars of the bytes of a charset of a byte for every char, null for UTF-8.
+    private final char[] byteChars;
+    private final FileChannel channel;
+    private final long fileSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long nextLine;
+
+    // the current line and its tokens, each with the window it was read from.
+    private ByteBuffer lineBuffer;
+    private int lineStart;
+    private int lineEnd;
+    private ByteBuffer tokenBuffer;
+    private int[] tokenStarts;
+    private int[] tokenEnds;
+    private String[] tokenStrings;
+    private int tokenCount;
+    private int curIndex;
+    // the end of the last run of dots of the line which no digit comes after.
+    private int dotsWithoutDigitsEnd;
+    private String curLine;
+    private boolean atEnd;
+    private long linesRead;
+    private long linesSkipped;
+    private long tokensRead;
+    private byte[] scratch;
+
+    /**
+     *
+     * @param path the file to read, decoded with the default charset.
+     * @throws IOException if the file is invalid or of there is a problem with mapping it.
+     * @throws IllegalArgumentException if the default charset isn't supported.
+     */
+    public MappedTokenizer(Path path) throws IOException {
+        this(path, Charset.defaultCharset());
+    }
+
+    /**
+     *
+     * @param path the file to read.
+     * @param charset the charset of the file.
+     * @throws IOException if the file is invalid or of there is a problem with mapping it.
+     * @throws IllegalArgumentException if the charset isn't supported.
+     */
+    public MappedTokenizer(Path path, Charset charset) throws IOException {
+        if (!supports(charset))
+            throw new IllegalArgumentException(UNSUPPORTED_CHARSET + charset);
+        this.charset = charset;
+        this.byteChars = charset.equals(StandardCharsets.UTF_8) ? null : byteChars(charset);
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.tokenStarts = new int[INITIAL_TOKENS];
+        this.tokenEnds = new int[INITIAL_TOKENS];
+        this.tokenStrings = new String[INITIAL_TOKENS];
+        this.scratch = new byte[INITIAL_TOKENS];
+        try {
+            map(0, WINDOW_SIZE);
+            advanceLine();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * the bytes of a file are split into tokens without decoding them, so the charset must keep the ASCII
+     * chars as their bytes and no other char may have such a byte in it - UTF-8 and the charsets of a byte
+     * for every char, such as US-ASCII and ISO-8859-1, do.
+     * @param charset a charset.
+     * @return true if files of the charset can be tokenized.
+     */
+    public static boolean supports(Charset charset) {
+        if (charset.equals(StandardCharsets.UTF_8))
+            return true;
+        if (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1)
+            return false;
+        char[] chars = byteChars(charset);
+        for (int b = 0; b < BYTE_VALUES; b++) {
+            if ((b <= Byte.MAX_VALUE) != (chars[b] <= Byte.MAX_VALUE) || (b <= Byte.MAX_VALUE && chars[b] != b))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * advance the current index in 1.
+     * @throws IOException throws exception if the advance is illegal.
+     */
+    @Override
+    public void advance() throws IOException {
+        tokensRead++;
+        if (curIndex < tokenCount - 1)
+            curIndex++;
+        else
+            advanceLine();
+    }
+
+    /**
+     * advances the token in one line.
+     * @throws IOException throws an exception if the advance is invalid.
+     */
+    @Override
+    public void advanceLine() throws IOException {
+        while (nextLine < fileSize) {
+            readLine();
+            linesRead++;
+            if (!isCommentLine() && !isEmptyLine()) {
+                tokenize();
+                return;
+            }
+            linesSkipped++;
+        }
+        // as Tokenizer, keeps the tokens of the last line at the end of the file
+        atEnd = true;
+        curLine = null;
+    }
+
+    /**
+     *
+     * @return the current line, null at the end of the file.
+     */
+    @Override
+    public String curCommand() {
+        if (curLine == null && !atEnd)
+            curLine = decode(lineBuffer, lineStart, lineEnd);
+        return curLine;
+    }
+
+    /**
+     *
+     * @return the current token.
+     */
+    @Override
+    public String curToken() {
+        if (tokenStrings[curIndex] == null)
+            tokenStrings[curIndex] = decode(tokenBuffer, tokenStarts[curIndex], tokenEnds[curIndex]);
+        return tokenStrings[curIndex];
+    }
+
+    /**
+     * compares the bytes of the current token to the token, without creating a String.
+     * @param token a token to compare to.
+     * @return true if the current token equals the given token.
+     */
+    @Override
+    public boolean isToken(String token) {
+        int start = tokenStarts[curIndex];
+        int length = tokenEnds[curIndex] - start;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c > Byte.MAX_VALUE)
+                return curToken().equals(token);
+            if (i >= length || tokenBuffer.get(start + i) != c)
+                return false;
+        }
+        return length == token.length();
+    }
+
+    /**
+     *
+     * @return the number of lines read so far, including the skipped lines.
+     */
+    @Override
+    public long linesRead() {
+        return linesRead;
+    }
+
+    /**
+     *
+     * @return the number of times the stream advanced to the next token so far.
+     */
+    @Override
+    public long tokensRead() {
+        return tokensRead;
+    }
+
+    /**
+     *
+     * @return the number of the current line in the file, counting from 1.
+     */
+    @Override
+    public long lineNumber() {
+        return linesRead; // the current line is the last line read
+    }
+
+    /**
+     *
+     * @return the number of comment lines and empty lines skipped so far.
+     */
+    @Override
+    public long linesSkipped() {
+        return linesSkipped;
+    }
+
+    /**
+     * closes the mapped file.
+     * @throws IOException if closing failed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ***************************** //
+    // *********** Lines *********** //
+    // ***************************** //
+
+    /*
+     * finds the bounds of the line starting at nextLine - ends with \n, \r or \r\n as in BufferedReader
+     */
+    private void readLine() throws IOException {
+        int start = (int) (nextLine - windowStart);
+        int i = start;
+        while (true) {
+            if (i == window.limit()) {
+                if (windowStart + i == fileSize)
+                    break;
+                // the line continues after the window - map a window starting at the line
+                int lineLength = i - start;
+                map(nextLine, lineLength < WINDOW_SIZE / 2 ? WINDOW_SIZE : doubled(lineLength));
+                start = 0;
+                i = lineLength;
+                continue;
+            }
+            byte b = window.get(i);
+            if (b == '\n' || b == '\r')
+                break;
+            i++;
+        }
+        lineBuffer = window;
+        lineStart = start;
+        lineEnd = i;
+        curLine = null;
+        nextLine = windowStart + i;
+        if (nextLine < fileSize) {
+            byte terminator = window.get(i);
+            nextLine++;
+            if (terminator == '\r' && nextLine < fileSize && byteAt(nextLine) == '\n')
+                nextLine++;
+        }
+    }
+
+    /*
+     * returns true if the line starts with "//"
+     */
+    private boolean isCommentLine() {
+        return lineEnd - lineStart >= 2 && lineBuffer.get(lineStart) == '/' &&
+                lineBuffer.get(lineStart + 1) == '/';
+    }
+
+    /*
+     * returns true if the line contains only spaces
+     */
+    private boolean isEmptyLine() {
+        for (int i = lineStart; i < lineEnd; i++) {
+            if (!isSpace(lineBuffer.get(i)))
+                return false;
+        }
+        return true;
+    }
+
+    // ***************************** //
+    // *********** Tokens ********** //
+    // ***************************** //
+
+    /*
+     * splits the line to tokens as the TOKEN_REGEX of Tokenizer does:
+     * '.*' | ".*" | [+-]?\d*\.*\d+ | \w+ | || | && | \S
+     */
+    private void tokenize() {
+        tokenBuffer = lineBuffer;
+        tokenCount = 0;
+        curIndex = 0;
+        dotsWithoutDigitsEnd = lineStart;
+        int i = lineStart;
+        while (i < lineEnd) {
+            byte b = lineBuffer.get(i);
+            if (isSpace(b)) {
+                i++;
+                continue;
+            }
+            int end = -1;
+            if (b == '\'' || b == '"')
+                end = quoted(i, b);
+            if (end == -1)
+                end = number(i);
+            if (end == -1 && isWordChar(b))
+                end = skipWordChars(i);
+            if (end == -1 && (b == '|' || b == '&') && i + 1 < lineEnd && lineBuffer.get(i + 1) == b)
+                end = i + 2;
+            if (end == -1)
+                end = i + charLength(b);
+            addToken(i, Math.min(end, lineEnd));
+            i = end;
+        }
+    }
+
+    /*
+     * a quote until the last same quote of the line, which no line terminator comes before
+     */
+    private int quoted(int start, byte quote) {
+        int last = -1;
+        for (int i = start + 1; i < lineEnd; i++) {
+            byte b = lineBuffer.get(i);
+            if (b == quote)
+                last = i;
+            else if (isLineTerminator(i))
+                break;
+        }
+        return last == -1 ? -1 : last + 1;
+    }
+
+    /*
+     * [+-]?\d*\.*\d+ - the longest match, or only the first digits if no digits come after the dots.
+     * a run of dots which no digit comes after is scanned once, so a long run doesn't take quadratic time
+     */
+    private int number(int start) {
+        int i = start;
+        byte b = lineBuffer.get(i);
+        if (b == '.' && start < dotsWithoutDigitsEnd)
+            return -1;
+        if (b == '+' || b == '-')
+            i++;
+        int firstDigitsEnd = skipDigits(i);
+        int dotsEnd = firstDigitsEnd;
+        while (dotsEnd < lineEnd && lineBuffer.get(dotsEnd) == '.')
+            dotsEnd++;
+        int lastDigitsEnd = skipDigits(dotsEnd);
+        if (lastDigitsEnd == dotsEnd)
+            dotsWithoutDigitsEnd = dotsEnd;
+        if (dotsEnd > firstDigitsEnd && lastDigitsEnd > dotsEnd)
+            return lastDigitsEnd;
+        return firstDigitsEnd > i ? firstDigitsEnd : -1;
+    }
+
+    private void addToken(int start, int end) {
+        if (tokenCount == tokenStarts.length) {
+            tokenStarts = Arrays.copyOf(tokenStarts, tokenCount * 2);
+            tokenEnds = Arrays.copyOf(tokenEnds, tokenCount * 2);
+            tokenStrings = new String[tokenCount * 2];
+        }
+        tokenStarts[tokenCount] = start;
+        tokenEnds[tokenCount] = end;
+        tokenStrings[tokenCount] = null;
+        tokenCount++;
+    }
+
+    // ***************************** //
+    // *********** Bytes *********** //
+    // ***************************** //
+
+    /*
+     * maps a window of the file starting at the given offset
+     */
+    private void map(long start, long size) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size, fileSize - start));
+    }
+
+    private static long doubled(int lineLength) throws IOException {
+        if (lineLength > Integer.MAX_VALUE / 2)
+            throw new IOException(LINE_TOO_LONG);
+        return 2L * lineLength;
+    }
+
+    private byte byteAt(long offset) throws IOException {
+        if (offset - windowStart < window.limit())
+            return window.get((int) (offset - windowStart));
+        map(offset, WINDOW_SIZE);
+        return window.get(0);
+    }
+
+    /*
+     * creates the String of the bytes of the buffer between start and end
+     */
+    private String decode(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (scratch.length < length)
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        for (int i = 0; i < length; i++)
+            scratch[i] = buffer.get(start + i);
+        return new String(scratch, 0, length, charset);
+    }
+
+    /*
+     * the char of every byte of a charset of a byte for every char
+     */
+    private static char[] byteChars(Charset charset) {
+        byte[] bytes = new byte[BYTE_VALUES];
+        for (int b = 0; b < BYTE_VALUES; b++)
+            bytes[b] = (byte) b;
+        String chars = new String(bytes, charset);
+        return chars.length() == BYTE_VALUES ? chars.toCharArray() : new char[BYTE_VALUES];
+    }
+
+    private int skipDigits(int i) {
+        while (i < lineEnd && isDigit(lineBuffer.get(i)))
+            i++;
+        return i;
+    }
+
+    private int skipWordChars(int i) {
+        while (i < lineEnd && isWordChar(lineBuffer.get(i)))
+            i++;
+        return i;
+    }
+
+    /*
+     * returns true if the char at the index is U+0085, U+2028 or U+2029, which "." doesn't match
+     */
+    private boolean isLineTerminator(int i) {
+        byte b = lineBuffer.get(i);
+        if (byteChars != null) {
+            char c = byteChars[b & 0xFF];
+            return c == NEXT_LINE || c == LINE_SEPARATOR || c == PARAGRAPH_SEPARATOR;
+        }
+        if (b == (byte) 0xC2)
+            return i + 1 < lineEnd && lineBuffer.get(i + 1) == (byte) 0x85;
+        return b == (byte) 0xE2 && i + 2 < lineEnd && lineBuffer.get(i + 1) == (byte) 0x80 &&
+                (lineBuffer.get(i + 2) == (byte) 0xA8 || lineBuffer.get(i + 2) == (byte) 0xA9);
+    }
+
+    /*
+     * the number of bytes of the char starting with the given byte
+     */
+    private int charLength(byte b) {
+        if (byteChars != null)
+            return 1;
+        if ((b & 0xE0) == 0xC0)
+            return 2;
+        if ((b & 0xF0) == 0xE0)
+            return 3;
+        if ((b & 0xF8) == 0xF0)
+            return 4;
+        return 1;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isWordChar(byte b) {
+        return isDigit(b) || (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || b == '_';
+    }
+}
@@ -0,0 +1,321 @@
+package oop.ex6.parsing;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The parsed form of a sjava file - every statement (a line which isn't a comment or empty) with its number
+ * in the file, its kind or the structure error of the line, whether it opens or closes a scope, and the
+ * range of its tokens. The texts of the lines and the tokens are kept once each in a table of symbols, and
+ * everything else in flat arrays, so a file is parsed once and its statements are read by index.
+ * An IR is immutable, and can be written to a versioned binary format and read back, so the semantic checks
+ * of an unchanged file don't have to parse it again.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class ProgramIr {
+
+    /** the version of the binary format, changes whenever the format or the parsing changes */
+    public static final int FORMAT_VERSION = 1;
+
+    // binary format constants.
+    private static final int MAGIC = 0x534A4952; // "SJIR"
+    private static final String BAD_FORMAT = "Not an IR of a supported version";
+    private static final String BAD_CHECKSUM = "The IR is corrupted";
+
+    // the flags of a statement.
+    private static final byte OPENS_SCOPE = 1;
+    private static final byte CLOSES_SCOPE = 2;
+
+    private static final LineKind[] KINDS = LineKind.values();
+    private static final int INITIAL_CAPACITY = 64;
+
+    // class fields.
+    private final String[] symbols;
+    private final long[] lines;
+    private final int[] kinds;
+    private final byte[] flags;
+    private final int[] texts;
+    private final int[] tokenStarts;
+    private final int[] tokens;
+    private final long linesRead;
+
+    /*
+     * an IR of the given arrays. a kind is the ordinal of a LineKind, or -(symbol + 1) of the message of a
+     * structure error. the tokens of statement i are tokens[tokenStarts[i]] to tokens[tokenStarts[i + 1]]
+     */
+    private ProgramIr(String[] symbols, long[] lines, int[] kinds, byte[] flags, int[] texts, int[] tokenStarts,
+                      int[] tokens, long linesRead) {
+        this.symbols = symbols;
+        this.lines = lines;
+        this.kinds = kinds;
+        this.flags = flags;
+        this.texts = texts;
+        this.tokenStarts = tokenStarts;
+        this.tokens = tokens;
+        this.linesRead = linesRead;
+    }
+
+    /**
+     * parses the whole stream.
+     * @param input the tokens of the file, at its start.
+     * @param classifier the classifier of the lines.
+     * @return the IR of the file.
+     * @throws IOException if the file can't be read.
+     */
+    public static ProgramIr parse(TokenStream input, LineClassifier classifier) throws IOException {
+        Map<String, Integer> symbolIds = new HashMap<>();
+        List<String> symbols = new ArrayList<>();
+        int count = 0;
+        long[] lines = new long[INITIAL_CAPACITY];
+        int[] kinds = new int[INITIAL_CAPACITY];
+        byte[] flags = new byte[INITIAL_CAPACITY];
+        int[] texts = new int[INITIAL_CAPACITY];
+        int[] tokenStarts = new int[INITIAL_CAPACITY + 1];
+        int[] tokens = new int[INITIAL_CAPACITY];
+        int tokenCount = 0;
+        while (input.curCommand() != null) {
+            if (count == lines.length) {
+                lines = Arrays.copyOf(lines, count * 2);
+                kinds = Arrays.copyOf(kinds, count * 2);
+                flags = Arrays.copyOf(flags, count * 2);
+                texts = Arrays.copyOf(texts, count * 2);
+                tokenStarts = Arrays.copyOf(tokenStarts, count * 2 + 1);
+            }
+            long line = input.lineNumber();
+            String text = input.curCommand();
+            lines[count] = line;
+            texts[count] = symbolOf(text, symbolIds, symbols);
+            try {
+                kinds[count] = classifier.classify(text).ordinal();
+            } catch (StructureException e) {
+                kinds[count] = -(symbolOf(e.getMessage(), symbolIds, symbols) + 1);
+            }
+            flags[count] = (byte) ((input.opensScope() ? OPENS_SCOPE : 0) |
+                    (input.closesScope() ? CLOSES_SCOPE : 0));
+            tokenStarts[count] = tokenCount;
+            do {
+                if (tokenCount == tokens.length)
+                    tokens = Arrays.copyOf(tokens, tokenCount * 2);
+                tokens[tokenCount++] = symbolOf(input.curToken(), symbolIds, symbols);
+                input.advance();
+            } while (input.curCommand() != null && input.lineNumber() == line);
+            count++;
+        }
+        tokenStarts[count] = tokenCount;
+        return new ProgramIr(symbols.toArray(new String[0]), Arrays.copyOf(lines, count),
+                Arrays.copyOf(kinds, count), Arrays.copyOf(flags, count), Arrays.copyOf(texts, count),
+                Arrays.copyOf(tokenStarts, count + 1), Arrays.copyOf(tokens, tokenCount), input.linesRead());
+    }
+
+    private static int symbolOf(String symbol, Map<String, Integer> symbolIds, List<String> symbols) {
+        Integer id = symbolIds.get(symbol);
+        if (id == null) {
+            id = symbols.size();
+            symbolIds.put(symbol, id);
+            symbols.add(symbol);
+        }
+        return id;
+    }
+
+    /**
+     *
+     * @return a new stream of the tokens of the IR, at the first statement.
+     */
+    public TokenStream tokens() {
+        return new IrTokenStream(this);
+    }
+
+    // ***************************** //
+    // ********* Statements ******** //
+    // ***************************** //
+
+    /**
+     *
+     * @return the number of statements of the file.
+     */
+    public int statements() {
+        return lines.length;
+    }
+
+    /**
+     *
+     * @return the number of lines of the file, including the comment lines and the empty lines.
+     */
+    public long linesRead() {
+        return linesRead;
+    }
+
+    long line(int statement) {
+        return lines[statement];
+    }
+
+    String text(int statement) {
+        return symbols[texts[statement]];
+    }
+
+    /*
+     * the kind of the statement, throws the structure error of an invalid statement
+     */
+    LineKind kind(int statement) throws StructureException {
+        int kind = kinds[statement];
+        if (kind < 0)
+            throw new StructureException(symbols[-kind - 1]);
+        return KINDS[kind];
+    }
+
+    boolean opensScope(int statement) {
+        return (flags[statement] & OPENS_SCOPE) != 0;
+    }
+
+    boolean closesScope(int statement) {
+        return (flags[statement] & CLOSES_SCOPE) != 0;
+    }
+
+    int tokenCount(int statement) {
+        return tokenStarts[statement + 1] - tokenStarts[statement];
+    }
+
+    String token(int statement, int index) {
+        return symbols[tokens[tokenStarts[statement] + index]];
+    }
+
+    // ***************************** //
+    // ******* Binary format ******* //
+    // ***************************** //
+
+    /**
+     * writes the IR in the binary format - the magic number and the version, the symbols, the arrays of the
+     * statements, and a checksum of everything before it. the numbers of the arrays are written in as few
+     * bytes as they need, and the line numbers as the distance from the previous statement. the stream isn't
+     * closed.
+     * @param output the stream to write to.
+     * @throws IOException if writing failed.
+     */
+    public void write(OutputStream output) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(output, new CRC32());
+        DataOutputStream out = new DataOutputStream(checked);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeVarLong(out, linesRead);
+        writeVarLong(out, symbols.length);
+        for (String symbol : symbols) {
+            byte[] bytes = symbol.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, bytes.length);
+            out.write(bytes);
+        }
+        writeVarLong(out, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            writeVarLong(out, lines[i] - (i == 0 ? 0 : lines[i - 1]));
+            writeVarLong(out, ((kinds[i] << 1) ^ (kinds[i] >> 31)) & 0xFFFFFFFFL); // zigzag, small if negative
+            out.writeByte(flags[i]);
+            writeVarLong(out, texts[i]);
+            writeVarLong(out, tokenCount(i));
+        }
+        writeVarLong(out, tokens.length);
+        for (int token : tokens)
+            writeVarLong(out, token);
+        out.flush();
+        out.writeLong(checked.getChecksum().getValue());
+        out.flush();
+    }
+
+    /**
+     * reads an IR written by write. the stream isn't closed.
+     * @param input the stream to read from.
+     * @return the IR.
+     * @throws IOException if reading failed, or the stream isn't a whole IR of the current version.
+     */
+    public static ProgramIr read(InputStream input) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(input, new CRC32());
+        DataInputStream in = new DataInputStream(checked);
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION)
+            throw new IOException(BAD_FORMAT);
+        long linesRead = readVarLong(in);
+        String[] symbols = new String[readVarInt(in)];
+        for (int i = 0; i < symbols.length; i++) {
+            byte[] bytes = new byte[readVarInt(in)];
+            in.readFully(bytes);
+            symbols[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        int count = readVarInt(in);
+        long[] lines = new long[count];
+        int[] kinds = new int[count];
+        byte[] flags = new byte[count];
+        int[] texts = new int[count];
+        int[] tokenStarts = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            lines[i] = (i == 0 ? 0 : lines[i - 1]) + readVarLong(in);
+            int zigzag = readVarInt(in);
+            kinds[i] = checkedKind((zigzag >>> 1) ^ -(zigzag & 1), symbols.length);
+            flags[i] = in.readByte();
+            texts[i] = checkedSymbol(readVarInt(in), symbols.length);
+            tokenStarts[i + 1] = tokenStarts[i] + readVarInt(in);
+        }
+        int[] tokens = new int[readVarInt(in)];
+        if (tokens.length != tokenStarts[count])
+            throw new IOException(BAD_CHECKSUM);
+        for (int i = 0; i < tokens.length; i++)
+            tokens[i] = checkedSymbol(readVarInt(in), symbols.length);
+        long checksum = checked.getChecksum().getValue();
+        if (in.readLong() != checksum)
+            throw new IOException(BAD_CHECKSUM);
+        return new ProgramIr(symbols, lines, kinds, flags, texts, tokenStarts, tokens, linesRead);
+    }
+
+    /*
+     * writes a non negative number in 7 bit groups, the lowest first, with the high bit set on every group
+     * but the last - small numbers, as most of the numbers of an IR, take a single byte
+     */
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IOException(BAD_CHECKSUM);
+    }
+
+    /*
+     * reads a number written by writeVarLong which must fit in an int, as a size or an index
+     */
+    private static int readVarInt(DataInputStream in) throws IOException {
+        long value = readVarLong(in);
+        if (value < 0 || value > Integer.MAX_VALUE)
+            throw new IOException(BAD_CHECKSUM);
+        return (int) value;
+    }
+
+    private static int checkedSymbol(int symbol, int symbols) throws IOException {
+        if (symbol < 0 || symbol >= symbols)
+            throw new IOException(BAD_CHECKSUM);
+        return symbol;
+    }
+
+    private static int checkedKind(int kind, int symbols) throws IOException {
+        if (kind >= KINDS.length || kind < -symbols)
+            throw new IOException(BAD_CHECKSUM);
+        return kind;
+    }
+}
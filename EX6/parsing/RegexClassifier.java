@@ -0,0 +1,44 @@
+package oop.ex6.parsing;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Line classifier which matches the line against the regular expressions of Classifier one by one.
+ * The expressions nest quantifiers, so on a long line they may backtrack for a long time or overflow the
+ * stack - this classifier is the reference of the grammar, to compare DispatchClassifier to. A classifier
+ * of an abort check stops the matching once it is asked to, instead of when the expressions give up.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class RegexClassifier implements LineClassifier {
+
+    private final BooleanSupplier aborted;
+
+    /**
+     * constructor of a classifier which always matches the lines to their end.
+     */
+    public RegexClassifier() {
+        this(null);
+    }
+
+    /**
+     * constructor.
+     * @param aborted asked while a line is matched whether to abort the matching, which then throws a
+     *                CancellationException. it should only read a flag. null to never abort.
+     */
+    public RegexClassifier(BooleanSupplier aborted) {
+        this.aborted = aborted;
+    }
+
+    /**
+     *
+     * @param curCommand the current line.
+     * @return classify the kind of the line.
+     * @throws StructureException invalid line.
+     */
+    @Override
+    public LineKind classify(String curCommand) throws StructureException {
+        if (aborted == null)
+            return Classifier.classify(curCommand);
+        return Classifier.classify(new InterruptibleLine(curCommand, aborted));
+    }
+}
@@ -0,0 +1,263 @@
+package oop.ex6.parsing;
+
+import java.util.Arrays;
+
+/**
+ * The structure of a sjava file, found in a single linear scan of its text - where every line starts and
+ * ends, which lines are statements (the lines which aren't comments or empty), which statements open or
+ * close a scope, the statement closing the scope of every statement which opens one, and the span of every
+ * method. The lines are split as BufferedReader splits them, and the scopes are matched as Validator counts
+ * them, so a pass over the index sees the same lines as a pass over a Tokenizer of the text, but may jump
+ * over a whole method in one step. An index is immutable, and may be queried by any number of passes.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class SourceIndex {
+
+    /** the statement of a scope which is never closed, or a line of no statement */
+    public static final int NONE = -1;
+
+    // the flags of a statement.
+    private static final byte OPENS_SCOPE = 1;
+    private static final byte CLOSES_SCOPE = 2;
+
+    private static final String COMMENT = "//";
+    private static final String CRLF = "\r\n";
+    private static final int INITIAL_CAPACITY = 64;
+
+    // class fields.
+    private final String source;
+    private final int[] lineStarts;
+    private final int[] lineEnds;
+    private final int[] statementLines;
+    private final byte[] flags;
+    private final int[] closings;
+    private final int[] methodStarts;
+    private final int[] methodEnds;
+
+    /*
+     * an index of the given arrays. lines are counted from 0 in the arrays
+     */
+    private SourceIndex(String source, int[] lineStarts, int[] lineEnds, int[] statementLines, byte[] flags,
+                        int[] closings, int[] methodStarts, int[] methodEnds) {
+        this.source = source;
+        this.lineStarts = lineStarts;
+        this.lineEnds = lineEnds;
+        this.statementLines = statementLines;
+        this.flags = flags;
+        this.closings = closings;
+        this.methodStarts = methodStarts;
+        this.methodEnds = methodEnds;
+    }
+
+    /**
+     * indexes the text of a file.
+     * @param text the text of the file.
+     * @return the index of the file.
+     */
+    public static SourceIndex of(CharSequence text) {
+        String source = text.toString();
+        int lines = 0;
+        int[] lineStarts = new int[INITIAL_CAPACITY];
+        int[] lineEnds = new int[INITIAL_CAPACITY];
+        int statements = 0;
+        int[] statementLines = new int[INITIAL_CAPACITY];
+        byte[] flags = new byte[INITIAL_CAPACITY];
+        int[] closings = new int[INITIAL_CAPACITY];
+        // the statements whose scopes are open, innermost last
+        int[] open = new int[INITIAL_CAPACITY];
+        int depth = 0;
+        int methods = 0;
+        int[] methodStarts = new int[INITIAL_CAPACITY];
+        int start = 0;
+        while (start < source.length()) {
+            byte lineFlags = 0;
+            boolean blank = true;
+            int end = start;
+            for (char c; end < source.length() && (c = source.charAt(end)) != '\n' && c != '\r'; end++) {
+                if (c == '{')
+                    lineFlags |= OPENS_SCOPE;
+                else if (c == '}')
+                    lineFlags |= CLOSES_SCOPE;
+                blank &= c == ' ' || c == '\t' || c == 0x0B || c == '\f';
+            }
+            if (lines == lineStarts.length) {
+                lineStarts = Arrays.copyOf(lineStarts, lines * 2);
+                lineEnds = Arrays.copyOf(lineEnds, lines * 2);
+            }
+            lineStarts[lines] = start;
+            lineEnds[lines] = end;
+            if (!blank && !source.startsWith(COMMENT, start)) {
+                if (statements == statementLines.length) {
+                    statementLines = Arrays.copyOf(statementLines, statements * 2);
+                    flags = Arrays.copyOf(flags, statements * 2);
+                    closings = Arrays.copyOf(closings, statements * 2);
+                }
+                statementLines[statements] = lines;
+                flags[statements] = lineFlags;
+                closings[statements] = NONE;
+                // as Validator counts the scopes - a line which opens a scope doesn't close one
+                if ((lineFlags & OPENS_SCOPE) != 0) {
+                    if (depth == 0) {
+                        if (methods == methodStarts.length)
+                            methodStarts = Arrays.copyOf(methodStarts, methods * 2);
+                        methodStarts[methods++] = statements;
+                    }
+                    if (depth == open.length)
+                        open = Arrays.copyOf(open, depth * 2);
+                    open[depth++] = statements;
+                } else if ((lineFlags & CLOSES_SCOPE) != 0 && depth > 0)
+                    closings[open[--depth]] = statements;
+                statements++;
+            }
+            lines++;
+            // \n, \r or \r\n end a line
+            if (source.startsWith(CRLF, end))
+                end++;
+            start = end + 1;
+        }
+        methodStarts = Arrays.copyOf(methodStarts, methods);
+        int[] methodEnds = new int[methods];
+        for (int i = 0; i < methods; i++)
+            methodEnds[i] = closings[methodStarts[i]];
+        return new SourceIndex(source, Arrays.copyOf(lineStarts, lines), Arrays.copyOf(lineEnds, lines),
+                Arrays.copyOf(statementLines, statements), Arrays.copyOf(flags, statements),
+                Arrays.copyOf(closings, statements), methodStarts, methodEnds);
+    }
+
+    /**
+     *
+     * @return a new stream of the tokens of the file, at its first statement.
+     */
+    public TokenStream tokens() {
+        return new IndexedTokenStream(this);
+    }
+
+    // ***************************** //
+    // *********** Lines *********** //
+    // ***************************** //
+
+    /**
+     *
+     * @return the number of lines of the file, including the comment lines and the empty lines.
+     */
+    public int lines() {
+        return lineStarts.length;
+    }
+
+    /**
+     *
+     * @param lineNumber the number of a line, counting from 1.
+     * @return the text of the line, without its line terminator.
+     */
+    public String line(long lineNumber) {
+        int line = (int) lineNumber - 1;
+        return source.substring(lineStarts[line], lineEnds[line]);
+    }
+
+    /**
+     * the line of an offset in the text, for reporting an error found by offset.
+     * @param offset an offset in the text.
+     * @return the number of the line of the offset, counting from 1 - a line terminator belongs to the line
+     * it ends.
+     */
+    public long lineNumberOf(int offset) {
+        int line = Arrays.binarySearch(lineStarts, offset);
+        return (line >= 0 ? line : -line - 2) + 1;
+    }
+
+    // ***************************** //
+    // ********* Statements ******** //
+    // ***************************** //
+
+    /**
+     *
+     * @return the number of statements of the file.
+     */
+    public int statements() {
+        return statementLines.length;
+    }
+
+    /**
+     *
+     * @param statement the index of a statement.
+     * @return the number of the line of the statement, counting from 1.
+     */
+    public long lineNumber(int statement) {
+        return statementLines[statement] + 1;
+    }
+
+    /**
+     *
+     * @param statement the index of a statement.
+     * @return the offset in the text of the line of the statement.
+     */
+    public int offset(int statement) {
+        return lineStarts[statementLines[statement]];
+    }
+
+    /**
+     *
+     * @param statement the index of a statement.
+     * @return the text of the statement.
+     */
+    public String text(int statement) {
+        return line(lineNumber(statement));
+    }
+
+    /**
+     *
+     * @param statement the index of a statement.
+     * @return true if the statement opens a scope.
+     */
+    public boolean opensScope(int statement) {
+        return (flags[statement] & OPENS_SCOPE) != 0;
+    }
+
+    /**
+     *
+     * @param statement the index of a statement.
+     * @return true if the statement closes a scope.
+     */
+    public boolean closesScope(int statement) {
+        return (flags[statement] & CLOSES_SCOPE) != 0;
+    }
+
+    /**
+     *
+     * @param statement the index of a statement which opens a scope.
+     * @return the index of the statement which closes the scope, NONE if the scope is never closed.
+     */
+    public int closingStatement(int statement) {
+        return closings[statement];
+    }
+
+    // ***************************** //
+    // ********** Methods ********** //
+    // ***************************** //
+
+    /**
+     *
+     * @return the number of methods of the file - the statements which open a scope outside of any scope.
+     */
+    public int methodsCount() {
+        return methodStarts.length;
+    }
+
+    /**
+     *
+     * @param method the index of a method in the file.
+     * @return the index of the statement which declares the method.
+     */
+    public int methodStart(int method) {
+        return methodStarts[method];
+    }
+
+    /**
+     *
+     * @param method the index of a method in the file.
+     * @return the index of the statement which closes the method, NONE if its scopes are never closed.
+     */
+    public int methodEnd(int method) {
+        return methodEnds[method];
+    }
+}
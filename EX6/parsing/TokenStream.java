@@ -0,0 +1,102 @@
+package oop.ex6.parsing;
+
+import java.io.IOException;
+
+/**
+ * A stream of the tokens of a sjava file, line by line. Comment lines and empty lines are skipped.
+ * The kind and the scopes of the current line are found from its text, unless the stream already knows them.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public interface TokenStream {
+
+    /**
+     * advance to the next token, which may be the first token of the next line.
+     * @throws IOException throws exception if the advance is illegal.
+     */
+    void advance() throws IOException;
+
+    /**
+     * advances to the first token of the next line.
+     * @throws IOException throws an exception if the advance is invalid.
+     */
+    void advanceLine() throws IOException;
+
+    /**
+     *
+     * @return the current line, null at the end of the file.
+     */
+    String curCommand();
+
+    /**
+     *
+     * @return the current token.
+     */
+    String curToken();
+
+    /**
+     * classifies the current line.
+     * @param classifier the classifier of the lines.
+     * @return the kind of the current line.
+     * @throws StructureException if the current line is invalid.
+     */
+    default LineKind lineKind(LineClassifier classifier) throws StructureException {
+        return classifier.classify(curCommand());
+    }
+
+    /**
+     *
+     * @return true if the current line opens a scope.
+     */
+    default boolean opensScope() {
+        return Classifier.isOpenScopeLine(curCommand());
+    }
+
+    /**
+     *
+     * @return true if the current line closes a scope.
+     */
+    default boolean closesScope() {
+        return Classifier.isCloseScopeLine(curCommand());
+    }
+
+    /**
+     * moves to the line which closes the scope the current line opens, without reading the lines between
+     * them, if the stream knows where the scope is closed.
+     * @return true if the stream moved to the closing line, false if it didn't move.
+     * @throws IOException if reading failed.
+     */
+    default boolean skipScope() throws IOException {
+        return false;
+    }
+
+    /**
+     *
+     * @param token a token to compare to.
+     * @return true if the current token equals the given token.
+     */
+    boolean isToken(String token);
+
+    /**
+     *
+     * @return the number of lines read so far, including the skipped lines.
+     */
+    long linesRead();
+
+    /**
+     *
+     * @return the number of times the stream advanced to the next token so far.
+     */
+    long tokensRead();
+
+    /**
+     *
+     * @return the number of the current line in the file, counting from 1.
+     */
+    long lineNumber();
+
+    /**
+     *
+     * @return the number of comment lines and empty lines skipped so far.
+     */
+    long linesSkipped();
+}
@@ -10,17 +10,20 @@ import java.util.regex.Pattern;
  * Tokenizer class is in charge on reading the file and split by the needs.
  * @author Yotam Suliman and Edan Topper.
  */
-public class Tokenizer {
-    // regex constants.
-    private static final String TOKEN_REGEX = "'.*'|\".*\"|[+-]?\\d*\\.*\\d+|\\w+|[|]{2}|&{2}|\\S";
-    private final Pattern emptyLine = Pattern.compile("\\s*");
+public class Tokenizer implements TokenStream {
+    // the compiled pattern, immutable and shared by all the tokenizers.
+    private static final Pattern EMPTY_LINE_PATTERN = Pattern.compile("\\s*");
 
     // class fields.
     private final BufferedReader reader;
     private ArrayList<String> tokens;
     private int curIndex;
     private String curLine;
-    private final Pattern tokenPattern;
+    private long linesRead;
+    private long linesSkipped;
+    private long tokensRead;
+    // the end of the last run of dots of the line which no digit comes after.
+    private int dotsWithoutDigitsEnd;
 
     /**
      *
@@ -29,15 +32,32 @@ public class Tokenizer {
      */
     public Tokenizer(BufferedReader reader) throws IOException {
         this.reader = reader;
-        this.tokenPattern = Pattern.compile(TOKEN_REGEX);
         advanceLine();
     }
 
+    /*
+     * a tokenizer which reads no file, only splits the lines given to it
+     */
+    Tokenizer() {
+        this.reader = null;
+    }
+
+    /*
+     * splits a line to its tokens, as the lines read from the file are split
+     */
+    ArrayList<String> split(String line) {
+        curLine = line;
+        tokenize();
+        return tokens;
+    }
+
     /**
      * advance the current index in 1.
      * @throws IOException throws exception if the advance is illegal.
      */
+    @Override
     public void advance() throws IOException {
+        tokensRead++;
         if (curIndex < tokens.size() - 1)
             curIndex++;
 
@@ -49,33 +69,143 @@ public class Tokenizer {
      * advances the token in one line.
      * @throws IOException throws an exception if the advance is invalid.
      */
+    @Override
     public void advanceLine() throws IOException {
-        curLine = reader.readLine();
+        curLine = readLine();
         while (curLine != null &&
-                (curLine.startsWith("//") || checkEmptyLine()))
-            curLine = reader.readLine();
+                (curLine.startsWith("//") || checkEmptyLine())) {
+            linesSkipped++;
+            curLine = readLine();
+        }
 
         if (curLine != null) {
             this.curIndex = 0;
-            Matcher m = tokenPattern.matcher(this.curLine);
-            tokens = new ArrayList<>();
-            while (m.find())
-                tokens.add(curLine.substring(m.start(), m.end()));
+            tokenize();
         }
     }
 
+    /*
+     * splits the line to tokens, in a single scan of the line:
+     * '.*' | ".*" | [+-]?\d*\.*\d+ | \w+ | || | && | \S
+     */
+    private void tokenize() {
+        tokens = new ArrayList<>();
+        dotsWithoutDigitsEnd = 0;
+        int i = 0;
+        while (i < curLine.length()) {
+            char c = curLine.charAt(i);
+            if (isSpace(c)) {
+                i++;
+                continue;
+            }
+            int end = -1;
+            if (c == '\'' || c == '"')
+                end = quoted(i, c);
+            if (end == -1)
+                end = number(i);
+            if (end == -1 && isWordChar(c))
+                end = skipWordChars(i);
+            if (end == -1 && (c == '|' || c == '&') && i + 1 < curLine.length() && curLine.charAt(i + 1) == c)
+                end = i + 2;
+            if (end == -1)
+                end = i + Character.charCount(curLine.codePointAt(i));
+            tokens.add(curLine.substring(i, end));
+            i = end;
+        }
+    }
+
+    /*
+     * a quote until the last same quote of the line, which no line terminator comes before
+     */
+    private int quoted(int start, char quote) {
+        int last = -1;
+        for (int i = start + 1; i < curLine.length(); i++) {
+            char c = curLine.charAt(i);
+            if (c == quote)
+                last = i;
+            else if (isLineTerminator(c))
+                break;
+        }
+        return last == -1 ? -1 : last + 1;
+    }
+
+    /*
+     * [+-]?\d*\.*\d+ - the longest match, or only the first digits if no digits come after the dots.
+     * a run of dots which no digit comes after is scanned once, so a long run doesn't take quadratic time
+     */
+    private int number(int start) {
+        int i = start;
+        char c = curLine.charAt(i);
+        if (c == '.' && start < dotsWithoutDigitsEnd)
+            return -1;
+        if (c == '+' || c == '-')
+            i++;
+        int firstDigitsEnd = skipDigits(i);
+        int dotsEnd = firstDigitsEnd;
+        while (dotsEnd < curLine.length() && curLine.charAt(dotsEnd) == '.')
+            dotsEnd++;
+        int lastDigitsEnd = skipDigits(dotsEnd);
+        if (lastDigitsEnd == dotsEnd)
+            dotsWithoutDigitsEnd = dotsEnd;
+        if (dotsEnd > firstDigitsEnd && lastDigitsEnd > dotsEnd)
+            return lastDigitsEnd;
+        return firstDigitsEnd > i ? firstDigitsEnd : -1;
+    }
+
+    private int skipDigits(int i) {
+        while (i < curLine.length() && isDigit(curLine.charAt(i)))
+            i++;
+        return i;
+    }
+
+    private int skipWordChars(int i) {
+        while (i < curLine.length() && isWordChar(curLine.charAt(i)))
+            i++;
+        return i;
+    }
+
+    /*
+     * reads the next line and counts it
+     */
+    private String readLine() throws IOException {
+        String line = reader.readLine();
+        if (line != null)
+            linesRead++;
+        return line;
+    }
+
     /*
      * return true if the line is empty.
      */
     private boolean checkEmptyLine() {
-        Matcher m = emptyLine.matcher(curLine);
+        Matcher m = EMPTY_LINE_PATTERN.matcher(curLine);
         return m.matches();
     }
 
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    /*
+     * returns true if "." doesn't match the char
+     */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordChar(char c) {
+        return isDigit(c) || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
     /**
      *
      * @return the current line.
      */
+    @Override
     public String curCommand() {
         return this.curLine;
     }
@@ -84,7 +214,54 @@ public class Tokenizer {
      *
      * @return the current index.
      */
+    @Override
     public String curToken() {
         return tokens.get(curIndex);
     }
+
+    /**
+     *
+     * @param token a token to compare to.
+     * @return true if the current token equals the given token.
+     */
+    @Override
+    public boolean isToken(String token) {
+        return tokens.get(curIndex).equals(token);
+    }
+
+    /**
+     *
+     * @return the number of lines read so far, including the skipped lines.
+     */
+    @Override
+    public long linesRead() {
+        return linesRead;
+    }
+
+    /**
+     *
+     * @return the number of times the stream advanced to the next token so far.
+     */
+    @Override
+    public long tokensRead() {
+        return tokensRead;
+    }
+
+    /**
+     *
+     * @return the number of the current line in the file, counting from 1.
+     */
+    @Override
+    public long lineNumber() {
+        return linesRead; // the current line is the last line read
+    }
+
+    /**
+     *
+     * @return the number of comment lines and empty lines skipped so far.
+     */
+    @Override
+    public long linesSkipped() {
+        return linesSkipped;
+    }
 }
@@ -0,0 +1,70 @@
+package oop.ex6.parsing;
+
+/**
+ * The types of the sjava language, with the types each type may be assigned to.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public enum Type {
+    INT("int"),
+    DOUBLE("double"),
+    BOOLEAN("boolean"),
+    CHAR("char"),
+    STRING("String");
+
+    // ASSIGNABLE[from][to] is true if a value of the type from may be assigned to the type to.
+    private static final boolean[][] ASSIGNABLE = new boolean[values().length][values().length];
+
+    static {
+        for (Type type : values())
+            ASSIGNABLE[type.ordinal()][type.ordinal()] = true;
+        ASSIGNABLE[INT.ordinal()][DOUBLE.ordinal()] = true;
+        ASSIGNABLE[INT.ordinal()][BOOLEAN.ordinal()] = true;
+        ASSIGNABLE[DOUBLE.ordinal()][BOOLEAN.ordinal()] = true;
+    }
+
+    private final String keyword;
+
+    Type(String keyword) {
+        this.keyword = keyword;
+    }
+
+    /**
+     *
+     * @param keyword a word of the code.
+     * @return the type of the keyword, or null if the word isn't a type.
+     */
+    public static Type of(String keyword) {
+        switch (keyword) {
+            case "int":
+                return INT;
+            case "double":
+                return DOUBLE;
+            case "boolean":
+                return BOOLEAN;
+            case "char":
+                return CHAR;
+            case "String":
+                return STRING;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     *
+     * @param target the type assigned to.
+     * @return true if a value of this type may be assigned to the target type.
+     */
+    public boolean isAssignableTo(Type target) {
+        return ASSIGNABLE[ordinal()][target.ordinal()];
+    }
+
+    /**
+     *
+     * @return the keyword of the type in the code.
+     */
+    @Override
+    public String toString() {
+        return keyword;
+    }
+}
@@ -0,0 +1,47 @@
+package oop.ex6.symbol_table;
+
+/**
+ * a binding of an identifier in a scope, shadowing the binding of the same identifier in an outer scope.
+ * @author Yotam Suliman and Edan Topper.
+ */
+class Binding {
+    private final VarData varData;
+    private final int depth;
+    private final Binding shadowed;
+
+    /**
+     * constructor.
+     * @param varData the data of the identifier in the scope.
+     * @param depth the depth of the scope.
+     * @param shadowed the binding of the identifier in an outer scope, null if there is none.
+     */
+    Binding(VarData varData, int depth, Binding shadowed) {
+        this.varData = varData;
+        this.depth = depth;
+        this.shadowed = shadowed;
+    }
+
+    /**
+     *
+     * @return the data of the identifier in the scope.
+     */
+    VarData varData() {
+        return varData;
+    }
+
+    /**
+     *
+     * @return the depth of the scope of the binding.
+     */
+    int depth() {
+        return depth;
+    }
+
+    /**
+     *
+     * @return the binding of the identifier in an outer scope, null if there is none.
+     */
+    Binding shadowed() {
+        return shadowed;
+    }
+}
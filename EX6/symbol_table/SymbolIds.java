@@ -0,0 +1,127 @@
+package oop.ex6.symbol_table;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * interns the identifiers of a file to small integer ids, so the symbol tables are arrays indexed by the
+ * ids. the managers which share a global scope share its ids, so the ids may be interned concurrently.
+ * the identifiers are kept by their ids in an array, and found by an open addressing table of the ids -
+ * a few bytes for every identifier, without an entry object. looking up an identifier takes no lock, and
+ * interning a new one takes the lock of the ids.
+ * @author Yotam Suliman and Edan Topper.
+ */
+public class SymbolIds {
+    /** the id of a name which was never interned, such as a literal */
+    public static final int NO_ID = -1;
+
+    // a slot of the table holds an id + 1, so 0 is an empty slot.
+    private static final int EMPTY = 0;
+    private static final int INITIAL_CAPACITY = 64;
+    // the table is grown once it is half full.
+    private static final int LOAD_SHIFT = 1;
+    private static final int SPREAD = 0x9E3779B9;
+
+    // the table is replaced only after the names it refers to are published, and a name is published
+    // before its slot is set, so a reader which sees a slot sees its name.
+    private volatile AtomicIntegerArray slots;
+    private volatile String[] names;
+    private volatile int count;
+
+    /**
+     * constructor.
+     */
+    public SymbolIds() {
+        this.slots = new AtomicIntegerArray(INITIAL_CAPACITY);
+        this.names = new String[INITIAL_CAPACITY >> LOAD_SHIFT];
+        this.count = 0;
+    }
+
+    /**
+     *
+     * @param name an identifier.
+     * @return the id of the identifier, NO_ID if it was never interned.
+     */
+    public int idOf(String name) {
+        AtomicIntegerArray table = slots;
+        int mask = table.length() - 1;
+        for (int i = slotOf(name, mask); ; i = (i + 1) & mask) {
+            int slot = table.get(i);
+            if (slot == EMPTY)
+                return NO_ID;
+            if (names[slot - 1].equals(name))
+                return slot - 1;
+        }
+    }
+
+    /**
+     *
+     * @param name an identifier.
+     * @return the id of the identifier, a new id if it wasn't interned before.
+     */
+    public int intern(String name) {
+        int id = idOf(name);
+        if (id != NO_ID)
+            return id;
+        synchronized (this) {
+            if (count == names.length)
+                grow();
+            AtomicIntegerArray table = slots;
+            int mask = table.length() - 1;
+            int i = slotOf(name, mask);
+            for (int slot; (slot = table.get(i)) != EMPTY; i = (i + 1) & mask) {
+                // another thread interned the name since it was looked up
+                if (names[slot - 1].equals(name))
+                    return slot - 1;
+            }
+            id = count;
+            names[id] = name;
+            table.set(i, id + 1);
+            count = id + 1;
+            return id;
+        }
+    }
+
+    /**
+     *
+     * @return the number of the interned identifiers - their ids are 0 until the number.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     *
+     * @param id the id of an interned identifier.
+     * @return the identifier.
+     */
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    /*
+     * doubles the names and the table, publishing the names first. called with the lock
+     */
+    private void grow() {
+        String[] grown = Arrays.copyOf(names, names.length * 2);
+        names = grown;
+        AtomicIntegerArray table = new AtomicIntegerArray(grown.length << LOAD_SHIFT);
+        int mask = table.length() - 1;
+        for (int id = 0; id < count; id++) {
+            int i = slotOf(grown[id], mask);
+            while (table.get(i) != EMPTY)
+                i = (i + 1) & mask;
+            table.set(i, id + 1);
+        }
+        slots = table;
+    }
+
+    /*
+     * the first slot of the name in a table of the given mask. the hashes of names such as a1, a2, a3 are
+     * consecutive, so they are spread before probing linearly
+     */
+    private static int slotOf(String name, int mask) {
+        int hash = name.hashCode() * SPREAD;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -1,44 +1,55 @@
 package oop.ex6.symbol_table;
 
-import java.util.HashMap;
+import oop.ex6.parsing.Type;
+
+import java.util.Arrays;
 
 /**
  * associated each identifier (such as variables and ect) to information. (final, initialized, ect)
+ * the identifiers are given by their interned ids, and the information of every identifier is packed
+ * into a single byte.
  * @author Yotam Suliman and Edan Topper.
  */
 public class SymbolTable {
+    private static final int INITIAL_SIZE = 16;
 
-    private final HashMap<String, VarData> map;
-
+    private byte[] packedById;
 
     /**
      * constructor.
      */
     public SymbolTable(){
-        this.map = new HashMap<>();
+        this.packedById = new byte[INITIAL_SIZE];
     }
 
     /**
      * adding an identifier to the symbol table.
-     * @param varName the name of the identifier.
+     * @param id the id of the identifier.
      * @param type the type information.
      * @param isFinal final information.
      * @param isInitialized initialized information.
      */
-    public void add(String varName, String type, boolean isFinal, boolean isInitialized){
-        VarData varData = new VarData(type, isFinal, isInitialized);
-        map.put(varName, varData);
+    public void add(int id, Type type, boolean isFinal, boolean isInitialized){
+        if (id >= packedById.length)
+            packedById = Arrays.copyOf(packedById, Math.max(id + 1, packedById.length * 2));
+        packedById[id] = VarData.pack(type, isFinal, isInitialized);
     }
 
     /**
      *
-     * @param varName the name of the identifier.
-     * @return the data about this identifier.
+     * @param id the id of the identifier.
+     * @return the data about this identifier, null if it isn't in the table.
      */
-    public VarData getVarData(String varName) {
-        if (map.containsKey(varName))
-            return map.get(varName);
+    public VarData getVarData(int id) {
+        return id >= 0 && id < packedById.length ? VarData.unpack(packedById[id]) : null;
+    }
 
-        return null;
+    /**
+     * marks an identifier of the table as initialized.
+     * @param id the id of the identifier, nothing is changed if it isn't in the table.
+     */
+    public void setInitialized(int id) {
+        if (id >= 0 && id < packedById.length)
+            packedById[id] = VarData.initialized(packedById[id]);
     }
 }
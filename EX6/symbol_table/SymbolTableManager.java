@@ -1,34 +1,133 @@
 package oop.ex6.symbol_table;
 
-import java.util.LinkedList;
+import oop.ex6.parsing.Type;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
- * manging the scopes by holding linked list of symbol tables.
+ * manging the scopes. the identifiers are interned to ids - the global scope is a symbol table of its own,
+ * and the identifiers of all the inner scopes are kept in a single array from each id to its innermost
+ * binding, which links to the bindings it shadows. every scope logs the identifiers it added, so closing
+ * a scope only undoes them. looking up an identifier costs the same in any depth of scopes.
  * @author Yotam Suliman and Edan Topper.
  */
 public class SymbolTableManager {
-    private final LinkedList<SymbolTable> symbolTables;
+    private static final int GLOBAL_DEPTH = 1;
+    private static final int INITIAL_SIZE = 16;
+
+    private final SymbolIds symbolIds;
+    private SymbolTable globalScope;
+    private Binding[] bindings;
+    private int[] addedIds;
+    private int addedCount;
+    private int[] scopeStarts;
+    private int depth;
+    private long lookups;
+    private long misses;
+    private long scopesOpened;
+    private long scopesClosed;
 
     /**
      * constructor.
      */
     public SymbolTableManager(){
-        this.symbolTables = new LinkedList<>();
+        this(new SymbolIds());
     }
 
     /**
-     * open a new scope symbol table and adds it to the list.
+     * a manager whose only scope is the given global scope - the scopes opened in it are its own, so it
+     * may validate a method without changing the global scope.
+     * @param symbolIds the ids of the identifiers of the global scope.
+     * @param globalScope the global scope, by the given ids.
+     */
+    public SymbolTableManager(SymbolIds symbolIds, SymbolTable globalScope){
+        this(symbolIds);
+        this.globalScope = globalScope;
+        this.depth = GLOBAL_DEPTH;
+    }
+
+    /*
+     * a manager over the given ids
+     */
+    private SymbolTableManager(SymbolIds symbolIds){
+        this.symbolIds = symbolIds;
+        this.bindings = new Binding[INITIAL_SIZE];
+        this.addedIds = new int[INITIAL_SIZE];
+        this.addedCount = 0;
+        this.scopeStarts = new int[INITIAL_SIZE];
+        this.depth = 0;
+    }
+
+    /**
+     * open a new scope. the first scope opened is the global scope.
      */
     public void openScope(){
-        SymbolTable scopeSymbolTable = new SymbolTable();
-        symbolTables.addFirst(scopeSymbolTable);
+        if (depth == scopeStarts.length)
+            scopeStarts = Arrays.copyOf(scopeStarts, depth * 2);
+        scopeStarts[depth] = addedCount;
+        depth++;
+        scopesOpened++;
+        if (depth == GLOBAL_DEPTH)
+            globalScope = new SymbolTable();
     }
 
     /**
-     * closed a scope symbol table and adds it to the list.
+     * closes the current scope, removing the identifiers it added.
      */
     public void closeScope(){
-        symbolTables.removeFirst();
+        depth--;
+        scopesClosed++;
+        if (depth < GLOBAL_DEPTH) {
+            globalScope = null;
+            return;
+        }
+        while (addedCount > scopeStarts[depth]) {
+            int id = addedIds[--addedCount];
+            bindings[id] = bindings[id].shadowed();
+        }
+    }
+
+    /**
+     * a new manager whose only scope is the global scope of this manager - the scopes opened in it
+     * are its own, so it may validate a method without changing this manager.
+     * @return a manager over the global scope of this manager.
+     */
+    public SymbolTableManager globalScopeView(){
+        return new SymbolTableManager(symbolIds, globalScope);
+    }
+
+    /**
+     *
+     * @return the identifiers declared in the global scope by their names, in no particular order.
+     */
+    public Map<String, VarData> globals(){
+        Map<String, VarData> globals = new HashMap<>();
+        for (int id = 0; id < symbolIds.size(); id++) {
+            VarData varData = globalScope == null ? null : globalScope.getVarData(id);
+            if (varData != null)
+                globals.put(symbolIds.nameOf(id), varData);
+        }
+        return globals;
+    }
+
+    /**
+     *
+     * @param varName the identifier name.
+     * @return the id of the identifier, SymbolIds.NO_ID if it was never declared.
+     */
+    public int idOf(String varName){
+        return symbolIds.idOf(varName);
+    }
+
+    /**
+     *
+     * @param varName the identifier name.
+     * @return the id of the identifier, a new id if it was never declared.
+     */
+    public int intern(String varName){
+        return symbolIds.intern(varName);
     }
 
     /**
@@ -38,8 +137,52 @@ public class SymbolTableManager {
      * @param isFinal final information.
      * @param initialized initialized information.
      */
-    public void add(String varName, String type, boolean isFinal, boolean initialized) {
-        symbolTables.getFirst().add(varName, type, isFinal, initialized);
+    public void add(String varName, Type type, boolean isFinal, boolean initialized) {
+        add(intern(varName), type, isFinal, initialized);
+    }
+
+    /**
+     * adds an identifier to the current scope.
+     * @param id the id of the identifier.
+     * @param type the relevant type.
+     * @param isFinal final information.
+     * @param initialized initialized information.
+     */
+    public void add(int id, Type type, boolean isFinal, boolean initialized) {
+        if (depth == GLOBAL_DEPTH) {
+            globalScope.add(id, type, isFinal, initialized);
+            return;
+        }
+        if (id >= bindings.length)
+            bindings = Arrays.copyOf(bindings, Math.max(id + 1, bindings.length * 2));
+        VarData varData = VarData.of(type, isFinal, initialized);
+        Binding current = bindings[id];
+        if (current != null && current.depth() == depth) {
+            // replaces the identifier of the current scope, as a symbol table does
+            bindings[id] = new Binding(varData, depth, current.shadowed());
+            return;
+        }
+        bindings[id] = new Binding(varData, depth, current);
+        if (addedCount == addedIds.length)
+            addedIds = Arrays.copyOf(addedIds, addedCount * 2);
+        addedIds[addedCount++] = id;
+    }
+
+    /**
+     * marks an identifier of the current scope as initialized - the data of the outer scopes is never
+     * changed, so a shared global scope is only read.
+     * @param id the id of the identifier, nothing is changed if it isn't in the current scope.
+     */
+    public void setInitialized(int id){
+        if (depth == GLOBAL_DEPTH) {
+            globalScope.setInitialized(id);
+            return;
+        }
+        if (!isOnCurrentScope(id))
+            return;
+        Binding current = bindings[id];
+        VarData varData = current.varData();
+        bindings[id] = new Binding(VarData.of(varData.type(), varData.isFinal(), true), depth, current.shadowed());
     }
 
     /**
@@ -48,13 +191,63 @@ public class SymbolTableManager {
      * @return the data of the identifier.
      */
     public VarData getVarData(String varName){
-        for (SymbolTable symbolTable: symbolTables){
-            VarData varData = symbolTable.getVarData(varName);
-            if (varData != null){
-                return varData;
-            }
-        }
-        return null;
+        return getVarData(idOf(varName));
+    }
+
+    /**
+     *
+     * @param id the id of the identifier.
+     * @return the data of the identifier, null if it isn't declared in any open scope.
+     */
+    public VarData getVarData(int id){
+        lookups++;
+        if (id >= 0 && id < bindings.length && bindings[id] != null)
+            return bindings[id].varData();
+        VarData varData = globalScope == null ? null : globalScope.getVarData(id);
+        if (varData == null)
+            misses++;
+        return varData;
+    }
+
+    /**
+     *
+     * @return the number of identifiers interned and of the bindings of the open inner scopes - the memory
+     * of the manager grows with them.
+     */
+    public long symbolsCount(){
+        return symbolIds.size() + addedCount;
+    }
+
+    /**
+     *
+     * @return the number of identifiers looked up, by getVarData.
+     */
+    public long lookups(){
+        return lookups;
+    }
+
+    /**
+     *
+     * @return the number of identifiers looked up which weren't declared in any open scope.
+     */
+    public long misses(){
+        return misses;
+    }
+
+    /**
+     *
+     * @return the number of scopes opened.
+     */
+    public long scopesOpened(){
+        return scopesOpened;
+    }
+
+    /**
+     *
+     * @return the number of scopes closed.
+     */
+    public long scopesClosed(){
+        return scopesClosed;
     }
 
     /**
@@ -63,6 +256,17 @@ public class SymbolTableManager {
      * @return true if it is in the current scope.
      */
     public boolean isOnCurrentScope(String varName){
-        return symbolTables.getFirst().getVarData(varName) != null;
+        return isOnCurrentScope(idOf(varName));
+    }
+
+    /**
+     * checks if the relevant identifier is in the current scope.
+     * @param id the id of the identifier.
+     * @return true if it is in the current scope.
+     */
+    public boolean isOnCurrentScope(int id){
+        if (depth == GLOBAL_DEPTH)
+            return globalScope.getVarData(id) != null;
+        return id >= 0 && id < bindings.length && bindings[id] != null && bindings[id].depth() == depth;
     }
 }
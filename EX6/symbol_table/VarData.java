@@ -1,13 +1,41 @@
 package oop.ex6.symbol_table;
 
+import oop.ex6.parsing.Type;
+
 /**
- * data of each identifier.
+ * data of each identifier. the data is immutable and packed into a single byte - the type, final and
+ * initialized - so the symbol tables keep a byte for every identifier, and every data of the same byte is
+ * the same instance. a declaration of a word which isn't a type, such as intx, has data of no type, which
+ * matches no type.
  * @authoe Yotam Suliman and Edan Topper.
  */
 public class VarData {
-    private final String type;
+    // the bits of a packed data, above the ordinal of the type. 0 is of no data.
+    private static final int TYPE_BITS = 3;
+    // the code of the type of a data of no type, above the ordinals of the types.
+    private static final int NO_TYPE = (1 << TYPE_BITS) - 1;
+    private static final int FINAL_BIT = 1 << TYPE_BITS;
+    private static final int INITIALIZED_BIT = FINAL_BIT << 1;
+    private static final int PRESENT_BIT = INITIALIZED_BIT << 1;
+    private static final Type[] TYPES = Type.values();
+    // the data of every packed byte.
+    private static final VarData[] PACKED = new VarData[PRESENT_BIT << 1];
+
+    static {
+        for (int code = 0; code <= NO_TYPE; code++) {
+            Type type = code < TYPES.length ? TYPES[code] : null;
+            if (type == null && code != NO_TYPE)
+                continue;
+            for (int flags = 0; flags < PRESENT_BIT; flags += FINAL_BIT) {
+                byte packed = (byte) (PRESENT_BIT | flags | code);
+                PACKED[packed] = new VarData(type, (flags & FINAL_BIT) != 0, (flags & INITIALIZED_BIT) != 0);
+            }
+        }
+    }
+
+    private final Type type;
     private final boolean isFinal;
-    private boolean isInitialized;
+    private final boolean isInitialized;
 
     /**
      *
@@ -15,17 +43,58 @@ public class VarData {
      * @param isFinal checks if it is final.
      * @param isInitialized checks if initialized.
      */
-    public VarData(String type, boolean isFinal, boolean isInitialized) {
+    public VarData(Type type, boolean isFinal, boolean isInitialized) {
         this.type = type;
         this.isFinal = isFinal;
         this.isInitialized = isInitialized;
     }
 
+    /**
+     *
+     * @param type the relevant type, null for no type.
+     * @param isFinal checks if it is final.
+     * @param isInitialized checks if initialized.
+     * @return the data packed into a byte, never 0.
+     */
+    static byte pack(Type type, boolean isFinal, boolean isInitialized) {
+        return (byte) (PRESENT_BIT | (isFinal ? FINAL_BIT : 0) | (isInitialized ? INITIALIZED_BIT : 0) |
+                (type == null ? NO_TYPE : type.ordinal()));
+    }
+
+    /**
+     *
+     * @param packed a packed data, 0 for no data.
+     * @return the packed data as initialized.
+     */
+    static byte initialized(byte packed) {
+        return packed == 0 ? packed : (byte) (packed | INITIALIZED_BIT);
+    }
+
+    /**
+     *
+     * @param packed a packed data, 0 for no data.
+     * @return the data, the same instance for the same byte. null for no data.
+     */
+    static VarData unpack(byte packed) {
+        return PACKED[packed];
+    }
+
+    /**
+     *
+     * @param type the relevant type, null for no type.
+     * @param isFinal checks if it is final.
+     * @param isInitialized checks if initialized.
+     * @return the data, the same instance for the same values.
+     */
+    public static VarData of(Type type, boolean isFinal, boolean isInitialized) {
+        return unpack(pack(type, isFinal, isInitialized));
+    }
+
     /**
      *
      * @return the type of the data.
      */
-    public String type(){
+    public Type type(){
         return type;
     }
 
@@ -37,10 +106,6 @@ public class VarData {
         return isInitialized;
     }
 
-    public void setInitialized(boolean b) {
-        this.isInitialized = b;
-    }
-
     /**
      *
      * @return true if the var is final